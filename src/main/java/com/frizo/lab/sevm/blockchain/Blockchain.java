@@ -1,11 +1,22 @@
 package com.frizo.lab.sevm.blockchain;
 
+import com.frizo.lab.sevm.code.CodeCache;
+import com.frizo.lab.sevm.code.DecodedCode;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.exception.EVMException;
 
 public interface Blockchain {
 
     byte[] loadCode(Address contractAddress) throws EVMException.ContractNotFoundException;
+
+    /**
+     * @return the decoded form of {@link #loadCode}. Blockchains keeping the decoded form of their code return it
+     * directly; by default the code is looked up in the shared {@link CodeCache}, which hashes it.
+     */
+    default DecodedCode loadDecodedCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        return CodeCache.get(loadCode(contractAddress));
+    }
+
     void transfer(Address from, Address to, long value);
 
     void registerContract(Address contractAddress, byte[] contractBytecode);
@@ -40,9 +51,32 @@ public interface Blockchain {
 
     void setNonce(Address from, int number);
 
+    /**
+     * Create or overwrite an account, e.g. when replaying logged state changes.
+     */
+    void setAccount(Address address, long balance, long nonce);
+
+    /**
+     * @return a snapshot id of the current state, valid until {@link #discardSnapshots()}.
+     */
     long takeSnapshot();
 
+    /**
+     * Undo every state change made after the snapshot was taken.
+     */
     void revertToSnapshot(long snapshot);
 
+    /**
+     * Make every state change permanent, snapshots taken so far can no longer be reverted to.
+     */
+    void discardSnapshots();
+
     void setCode(Address creationAddress, byte[] deployedCode);
+
+    /**
+     * @return the committed value of a storage slot of a contract, 0 if it was never written.
+     */
+    long getStorage(Address contractAddress, long slot);
+
+    void setStorage(Address contractAddress, long slot, long value);
 }
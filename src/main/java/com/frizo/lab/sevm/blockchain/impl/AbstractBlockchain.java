@@ -0,0 +1,61 @@
+package com.frizo.lab.sevm.blockchain.impl;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.utils.NumUtils;
+
+/**
+ * Mock block and network information shared by the {@link Blockchain} implementations,
+ * which only differ in how they keep account, code and storage state.
+ */
+public abstract class AbstractBlockchain implements Blockchain {
+
+    @Override
+    public double getGasPrice() {
+        // random 0.5 ~ 1 mock real Ethereum gas price
+        return 0.5 + Math.random() * 0.5;
+    }
+
+    @Override
+    public byte[] getBlockHash() {
+        // random 8 bytes as block hash
+        return NumUtils.randomBytes(8);
+    }
+
+    @Override
+    public double getBlobFeeCap() {
+        return 0.0; // Mock blob fee cap, can be adjusted based on network conditions
+    }
+
+    @Override
+    public long getBlockNumber() {
+        return System.currentTimeMillis() / 1000; // Simulating block number as seconds since epoch
+    }
+
+    @Override
+    public long getTime() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long getDiff() {
+        return 1; // Default difficulty, can be adjusted based on consensus rules
+    }
+
+    @Override
+    public Address getCoinbase() {
+        return Address.of("0x123456789011223D");
+    }
+
+    @Override
+    public boolean canTransfer(Address from, long value) {
+        return true;
+    }
+
+    @Override
+    public Address calculateNewContractAddress(Address from) {
+        // random a long value as nonce
+        long nonce = System.currentTimeMillis(); // Simulating nonce
+        return Address.of(nonce);
+    }
+}
@@ -3,9 +3,34 @@ package com.frizo.lab.sevm.blockchain.impl;
 import com.frizo.lab.sevm.blockchain.Blockchain;
 import lombok.Getter;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 public class BlockChainFactory {
 
+    // shared default state of engines created without a blockchain of their own
     @Getter
     private static final Blockchain mockStateDB = new MockBlockChain();
 
+    /**
+     * @return a new mock state, independent of every other one.
+     */
+    public static MockBlockChain createMockStateDB() {
+        return new MockBlockChain();
+    }
+
+    /**
+     * @return an empty copy-on-write state, see {@link PersistentBlockChain}.
+     */
+    public static PersistentBlockChain createPersistentStateDB() {
+        return new PersistentBlockChain();
+    }
+
+    /**
+     * @return the state kept in {@code directory}, created if empty, see {@link MappedBlockChain}.
+     */
+    public static MappedBlockChain openMappedStateDB(Path directory) throws IOException {
+        return MappedBlockChain.open(directory);
+    }
+
 }
@@ -0,0 +1,223 @@
+package com.frizo.lab.sevm.blockchain.impl;
+
+import com.frizo.lab.sevm.blockchain.state.AccountState;
+import com.frizo.lab.sevm.blockchain.store.MappedStateStore;
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.exception.EVMException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Blockchain state kept on disk in a {@link MappedStateStore}, so it survives a restart.
+ * <p>
+ * Snapshots use a {@link StateJournal} like {@link MockBlockChain}: reverting writes the old values back,
+ * which appends them to the segment. {@link #close()} saves the store's index so the next
+ * {@link #open(Path)} does not replay the whole segment.
+ * <p>
+ * The store returns a fresh copy of the code on every read, so the code of each address is read and decoded once
+ * and its canonical array, {@link DecodedCode} and hash kept until the code is changed through this blockchain. Code handed
+ * out by {@link #loadCode} is shared and must not be modified. Existence checks go to the store's index and never copy code.
+ */
+@Slf4j
+public class MappedBlockChain extends AbstractBlockchain implements AutoCloseable {
+
+    private final MappedStateStore store;
+    private final StateJournal journal = new StateJournal();
+    // code of the addresses read so far, filled and invalidated under the instance lock
+    private final Map<Address, CachedCode> codeCache = new ConcurrentHashMap<>();
+
+    private static final class CachedCode {
+        private final DecodedCode decodedCode;
+        private final int hash;
+
+        private CachedCode(byte[] bytecode) {
+            this.decodedCode = DecodedCode.decode(bytecode);
+            this.hash = Arrays.hashCode(bytecode);
+        }
+    }
+
+    public MappedBlockChain(MappedStateStore store) {
+        this.store = store;
+    }
+
+    public static MappedBlockChain open(Path directory) throws IOException {
+        return new MappedBlockChain(MappedStateStore.open(directory));
+    }
+
+    public MappedStateStore getStore() {
+        return store;
+    }
+
+    private void putAccount(Address address, AccountState account) {
+        long key = address.getAddressLong();
+        AccountState old = store.account(key);
+        store.putAccount(key, account);
+        journal.record(() -> {
+            if (old == null) {
+                store.removeAccount(key);
+            } else {
+                store.putAccount(key, old);
+            }
+        });
+    }
+
+    private void putCode(Address address, byte[] bytecode) {
+        store.putCode(address.getAddressLong(), bytecode);
+        codeCache.remove(address);
+    }
+
+    @Override
+    public byte[] loadCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        return loadDecodedCode(contractAddress).getCode();
+    }
+
+    @Override
+    public DecodedCode loadDecodedCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        return cachedCode(contractAddress).decodedCode;
+    }
+
+    private CachedCode cachedCode(Address contractAddress) {
+        CachedCode code = codeCache.get(contractAddress);
+        return code != null ? code : readCode(contractAddress);
+    }
+
+    private synchronized CachedCode readCode(Address contractAddress) {
+        CachedCode code = codeCache.get(contractAddress);
+        if (code != null) {
+            return code;
+        }
+        byte[] bytecode = store.code(contractAddress.getAddressLong());
+        if (bytecode == null) {
+            log.error("[MappedBlockChain] Contract not found at address: {}", contractAddress);
+            throw new EVMException.ContractNotFoundException("Contract not found at address: " + contractAddress);
+        }
+        code = new CachedCode(bytecode);
+        codeCache.put(contractAddress, code);
+        return code;
+    }
+
+    @Override
+    public synchronized void transfer(Address from, Address to, long value) {
+        AccountState sender = store.account(from.getAddressLong());
+        if (sender == null || sender.getBalance() < value) {
+            log.error("[MappedBlockChain] Insufficient balance for transfer from {}", from);
+            throw new EVMException.ValueTransferException("Transfer failed from " + from + " to " + to + " with value: " + value,
+                    "Insufficient balance for transfer");
+        }
+        putAccount(from, sender.withBalance(sender.getBalance() - value));
+        // the recipient account is created by the transfer if it does not exist
+        AccountState recipient = store.account(to.getAddressLong());
+        if (recipient == null) {
+            recipient = new AccountState(0, 1);
+        }
+        putAccount(to, recipient.withBalance(recipient.getBalance() + value));
+    }
+
+    @Override
+    public synchronized void registerContract(Address contractAddress, byte[] contractBytecode) {
+        if (store.hasCode(contractAddress.getAddressLong())) {
+            log.warn("[MappedBlockChain] Contract already registered at address: {}", contractAddress);
+            throw new EVMException.ContractAlreadyExistsException("Contract already exists at address: " + contractAddress);
+        }
+        putCode(contractAddress, contractBytecode);
+    }
+
+    @Override
+    public long balance(Address address) {
+        AccountState account = store.account(address.getAddressLong());
+        return account == null ? 0 : account.getBalance();
+    }
+
+    @Override
+    public boolean exist(Address creationAddress) {
+        return codeCache.containsKey(creationAddress) || store.hasCode(creationAddress.getAddressLong());
+    }
+
+    @Override
+    public synchronized void createContract(Address creationAddress) {
+        if (store.hasAccount(creationAddress.getAddressLong())) {
+            log.warn("[MappedBlockChain] Account already exists for address: {}", creationAddress);
+            throw new IllegalArgumentException("Account already exists for address: " + creationAddress);
+        }
+        putAccount(creationAddress, new AccountState(0, 1));
+    }
+
+    @Override
+    public int getNonce(Address creationAddress) {
+        AccountState account = store.account(creationAddress.getAddressLong());
+        return account == null ? 0 : (int) account.getNonce();
+    }
+
+    @Override
+    public Object getCodeHash(Address creationAddress) {
+        long key = creationAddress.getAddressLong();
+        if (!store.hasAccount(key)) {
+            return null;
+        }
+        return store.hasCode(key) ? cachedCode(creationAddress).hash : 0;
+    }
+
+    @Override
+    public synchronized void setNonce(Address from, int number) {
+        AccountState account = store.account(from.getAddressLong());
+        if (account == null) {
+            log.error("[MappedBlockChain] Address {} not found", from);
+            throw new IllegalArgumentException("Address not found: " + from);
+        }
+        putAccount(from, account.withNonce(number));
+    }
+
+    @Override
+    public synchronized void setAccount(Address address, long balance, long nonce) {
+        putAccount(address, new AccountState(balance, nonce));
+    }
+
+    @Override
+    public synchronized long takeSnapshot() {
+        return journal.snapshot();
+    }
+
+    @Override
+    public synchronized void revertToSnapshot(long snapshot) {
+        journal.revertTo(snapshot);
+    }
+
+    @Override
+    public synchronized void discardSnapshots() {
+        journal.clear();
+    }
+
+    @Override
+    public synchronized void setCode(Address creationAddress, byte[] deployedCode) {
+        byte[] old = store.hasCode(creationAddress.getAddressLong()) ? loadCode(creationAddress) : null;
+        putCode(creationAddress, deployedCode);
+        journal.record(() -> putCode(creationAddress, old));
+    }
+
+    @Override
+    public long getStorage(Address contractAddress, long slot) {
+        return store.storage(contractAddress.getAddressLong(), slot);
+    }
+
+    @Override
+    public synchronized void setStorage(Address contractAddress, long slot, long value) {
+        long key = contractAddress.getAddressLong();
+        long old = store.storage(key, slot);
+        store.putStorage(key, slot, value);
+        journal.record(() -> store.putStorage(key, slot, old));
+    }
+
+    /**
+     * Save the store's index and release the segment.
+     */
+    @Override
+    public void close() {
+        store.close();
+    }
+}
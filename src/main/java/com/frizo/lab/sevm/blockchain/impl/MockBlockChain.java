@@ -1,20 +1,38 @@
 package com.frizo.lab.sevm.blockchain.impl;
 
-import com.frizo.lab.sevm.blockchain.Blockchain;
 import com.frizo.lab.sevm.blockchain.impl.mock.MockAccount;
 import com.frizo.lab.sevm.blockchain.impl.mock.MockContractStorage;
+import com.frizo.lab.sevm.code.CodeStore;
+import com.frizo.lab.sevm.code.DecodedCode;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.exception.EVMException;
-import com.frizo.lab.sevm.utils.NumUtils;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * In-memory blockchain state preloaded with a few test accounts and contracts.
+ * <p>
+ * Each instance has its own state, so engines on different threads should each get their own
+ * ({@link BlockChainFactory#createMockStateDB()}); an instance is not synchronized.
+ */
 @Slf4j
-public class MockBlockChain implements Blockchain {
+public class MockBlockChain extends AbstractBlockchain {
+
+    private final MockAccount accounts = new MockAccount();
+    private final MockContractStorage contracts = new MockContractStorage();
+    // undo log of every state change made through this instance, see takeSnapshot()
+    private final StateJournal journal = new StateJournal();
+
+    /**
+     * @return the store owning this state's code and its analysis (decoded code, JIT profile).
+     */
+    public CodeStore getCodeStore() {
+        return contracts.getCodeStore();
+    }
 
     @Override
     public byte[] loadCode(Address contractAddress) throws EVMException.ContractNotFoundException {
-        log.info("[MockBlockChain] Loading contract code for address: {}", contractAddress);
-        byte[] code = MockContractStorage.get(contractAddress);
+        log.debug("[MockBlockChain] Loading contract code for address: {}", contractAddress);
+        byte[] code = contracts.get(contractAddress);
         if (code == null) {
             log.error("[MockBlockChain] Contract not found at address: {}", contractAddress);
             throw new EVMException.ContractNotFoundException("Contract not found at address: " + contractAddress);
@@ -22,123 +40,142 @@ public class MockBlockChain implements Blockchain {
         return code;
     }
 
+    @Override
+    public DecodedCode loadDecodedCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        CodeStore.Entry entry = contracts.getCodeStore().entryOf(contractAddress);
+        if (entry == null) {
+            log.error("[MockBlockChain] Contract not found at address: {}", contractAddress);
+            throw new EVMException.ContractNotFoundException("Contract not found at address: " + contractAddress);
+        }
+        return entry.getDecodedCode();
+    }
+
     @Override
     public void transfer(Address from, Address to, long value) {
-        log.info("[MockBlockChain] Transfer ETH:[{}] from [{}] to [{}]", value, from, to);
+        log.debug("[MockBlockChain] Transfer ETH:[{}] from [{}] to [{}]", value, from, to);
+        long fromBalance = accounts.getBalance(from);
+        long toBalance = accounts.getBalance(to);
+        boolean toExists = accounts.exists(to);
         try {
-            MockAccount.transfer(from, to, value);
+            accounts.transfer(from, to, value);
         } catch (Exception e) {
             throw new EVMException.ValueTransferException("Transfer failed from " + from + " to " + to + " with value: " + value, e.getMessage());
         }
+        journal.record(() -> {
+            // the recipient account is created by the transfer if it did not exist
+            if (toExists) {
+                accounts.setBalance(to, toBalance);
+            } else {
+                accounts.remove(to);
+            }
+            accounts.setBalance(from, fromBalance);
+        });
     }
 
     @Override
     public void registerContract(Address contractAddress, byte[] contractBytecode) {
-        if (MockContractStorage.exists(contractAddress)) {
+        if (contracts.exists(contractAddress)) {
             log.warn("[MockBlockChain] Contract already registered at address: {}", contractAddress);
             throw new EVMException.ContractAlreadyExistsException("Contract already exists at address: " + contractAddress);
         } else {
-            MockContractStorage.addContract(contractAddress, contractBytecode);
-            log.info("[MockBlockChain] Registered contract at address: {}", contractAddress);
+            contracts.addContract(contractAddress, contractBytecode);
+            log.debug("[MockBlockChain] Registered contract at address: {}", contractAddress);
         }
     }
 
     @Override
     public long balance(Address address) {
-        return MockAccount.getBalance(address);
-    }
-
-    @Override
-    public double getGasPrice() {
-        // random 0.5 ~ 1 mock real Ethereum gas price
-        return 0.5 + Math.random() * 0.5;
-    }
-
-    @Override
-    public byte[] getBlockHash() {
-        // random 8 bytes as block hash
-        return NumUtils.randomBytes(8);
-    }
-
-    @Override
-    public double getBlobFeeCap() {
-        return 0.0; // Mock blob fee cap, can be adjusted based on network conditions
-    }
-
-    @Override
-    public long getBlockNumber() {
-        return System.currentTimeMillis() / 1000; // Simulating block number as seconds since epoch
+        return accounts.getBalance(address);
     }
 
     @Override
-    public long getTime() {
-        return System.currentTimeMillis();
-    }
-
-    @Override
-    public long getDiff() {
-        return 1; // Default difficulty, can be adjusted based on consensus rules
+    public boolean exist(Address creationAddress) {
+        return contracts.exists(creationAddress);
     }
 
     @Override
-    public Address getCoinbase() {
-        return Address.of("0x123456789011223D");
+    public void createContract(Address creationAddress) {
+        accounts.create(creationAddress);
+        journal.record(() -> accounts.remove(creationAddress));
     }
 
     @Override
-    public boolean canTransfer(Address from, long value) {
-        return true;
+    public int getNonce(Address creationAddress) {
+        return (int) accounts.getNonce(creationAddress);
     }
 
     @Override
-    public Address calculateNewContractAddress(Address from) {
-        // random a long value as nonce
-        long nonce = System.currentTimeMillis(); // Simulating nonce
-        return Address.of(nonce);
+    public Object getCodeHash(Address creationAddress) {
+        return accounts.getCodeHash(creationAddress);
     }
 
     @Override
-    public boolean exist(Address creationAddress) {
-        return MockContractStorage.exists(creationAddress);
+    public void setNonce(Address from, int number) {
+        log.debug("[MockBlockChain] Setting nonce for address {} to {}", from, number);
+        int previous = (int) accounts.getNonce(from);
+        accounts.setNonce(from, number);
+        journal.record(() -> accounts.setNonce(from, previous));
     }
 
     @Override
-    public void createContract(Address creationAddress) {
-        MockAccount.create(creationAddress);
+    public void setAccount(Address address, long balance, long nonce) {
+        boolean existed = accounts.exists(address);
+        long previousBalance = accounts.getBalance(address);
+        long previousNonce = accounts.getNonce(address);
+        accounts.put(address, balance, nonce);
+        journal.record(() -> {
+            if (existed) {
+                accounts.put(address, previousBalance, previousNonce);
+            } else {
+                accounts.remove(address);
+            }
+        });
     }
 
+    /**
+     * @return the current journal length. Account, balance, nonce, code and storage changes are journaled;
+     * {@link #registerContract} is not, it sets up contracts outside of any transaction.
+     */
     @Override
-    public int getNonce(Address creationAddress) {
-        return (int) MockAccount.getNonce(creationAddress);
+    public long takeSnapshot() {
+        return journal.snapshot();
     }
 
     @Override
-    public Object getCodeHash(Address creationAddress) {
-        return MockAccount.getCodeHash(creationAddress);
+    public void revertToSnapshot(long snapshot) {
+        log.debug("[MockBlockChain] Reverting to snapshot: {} (journal length {})", snapshot, journal.snapshot());
+        journal.revertTo(snapshot);
     }
 
     @Override
-    public void setNonce(Address from, int number) {
-        log.info("[MockBlockChain] Setting nonce for address {} to {}", from, number);
-        MockAccount.setNonce(from, number);
+    public void discardSnapshots() {
+        journal.clear();
     }
 
     @Override
-    public long takeSnapshot() {
-        return 1; // Mock snapshot, always returns 1
+    public void setCode(Address creationAddress, byte[] deployedCode) {
+        log.debug("[MockBlockChain] Setting code for contract at address: {}", creationAddress);
+        byte[] previous = contracts.getCodeStore().get(creationAddress);
+        contracts.addContract(creationAddress, deployedCode);
+        journal.record(() -> {
+            if (previous == null) {
+                contracts.removeContract(creationAddress);
+            } else {
+                contracts.addContract(creationAddress, previous);
+            }
+        });
+        log.debug("[MockBlockChain] Code set successfully for contract at address: {}", creationAddress);
     }
 
     @Override
-    public void revertToSnapshot(long snapshot) {
-        log.info("[MockBlockChain] Reverting to snapshot: {}", snapshot);
-        // In a real implementation, this would restore the state to the snapshot
-        // For mock, we do nothing as we don't maintain state history
+    public long getStorage(Address contractAddress, long slot) {
+        return contracts.getSlot(contractAddress, slot);
     }
 
     @Override
-    public void setCode(Address creationAddress, byte[] deployedCode) {
-        log.info("[MockBlockChain] Setting code for contract at address: {}", creationAddress);
-        MockContractStorage.addContract(creationAddress, deployedCode);
-        log.info("[MockBlockChain] Code set successfully for contract at address: {}", creationAddress);
+    public void setStorage(Address contractAddress, long slot, long value) {
+        long previous = contracts.getSlot(contractAddress, slot);
+        contracts.setSlot(contractAddress, slot, value);
+        journal.record(() -> contracts.setSlot(contractAddress, slot, previous));
     }
 }
@@ -0,0 +1,191 @@
+package com.frizo.lab.sevm.blockchain.impl;
+
+import com.frizo.lab.sevm.blockchain.state.AccountState;
+import com.frizo.lab.sevm.blockchain.state.WorldState;
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.exception.EVMException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Blockchain state kept as immutable {@link WorldState} versions.
+ * <p>
+ * Every write swaps in a new version that shares all unchanged state with the previous one. Readers never lock:
+ * {@link #getState()} and {@link #fork()} hand out the current version in O(1), and it stays consistent while
+ * transactions keep being applied to this instance. Snapshots are simply earlier versions, so both taking one
+ * and reverting to it are O(1).
+ * <p>
+ * Writes are serialized per instance; run concurrent writers (e.g. static calls) against a {@link #fork()}.
+ */
+@Slf4j
+public class PersistentBlockChain extends AbstractBlockchain {
+
+    private volatile WorldState state;
+    private final List<WorldState> snapshots = new ArrayList<>();
+
+    public PersistentBlockChain() {
+        this(WorldState.EMPTY);
+    }
+
+    public PersistentBlockChain(WorldState state) {
+        this.state = state;
+    }
+
+    /**
+     * @return the current version, an immutable and consistent view of the whole state.
+     */
+    public WorldState getState() {
+        return state;
+    }
+
+    /**
+     * @return an independent blockchain starting from the current version; writes to either one
+     * are not seen by the other.
+     */
+    public PersistentBlockChain fork() {
+        return new PersistentBlockChain(state);
+    }
+
+    @Override
+    public byte[] loadCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        byte[] code = state.code(contractAddress);
+        if (code == null) {
+            log.error("[PersistentBlockChain] Contract not found at address: {}", contractAddress);
+            throw new EVMException.ContractNotFoundException("Contract not found at address: " + contractAddress);
+        }
+        return code;
+    }
+
+    @Override
+    public DecodedCode loadDecodedCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        DecodedCode code = state.decodedCode(contractAddress);
+        if (code == null) {
+            log.error("[PersistentBlockChain] Contract not found at address: {}", contractAddress);
+            throw new EVMException.ContractNotFoundException("Contract not found at address: " + contractAddress);
+        }
+        return code;
+    }
+
+    @Override
+    public synchronized void transfer(Address from, Address to, long value) {
+        WorldState current = state;
+        AccountState sender = current.account(from);
+        if (sender == null || sender.getBalance() < value) {
+            log.error("[PersistentBlockChain] Insufficient balance for transfer from {}", from);
+            throw new EVMException.ValueTransferException("Transfer failed from " + from + " to " + to + " with value: " + value,
+                    "Insufficient balance for transfer");
+        }
+        current = current.withAccount(from, sender.withBalance(sender.getBalance() - value));
+        // the recipient account is created by the transfer if it does not exist
+        AccountState recipient = current.account(to);
+        if (recipient == null) {
+            recipient = new AccountState(0, 1);
+        }
+        state = current.withAccount(to, recipient.withBalance(recipient.getBalance() + value));
+    }
+
+    @Override
+    public synchronized void registerContract(Address contractAddress, byte[] contractBytecode) {
+        if (state.code(contractAddress) != null) {
+            log.warn("[PersistentBlockChain] Contract already registered at address: {}", contractAddress);
+            throw new EVMException.ContractAlreadyExistsException("Contract already exists at address: " + contractAddress);
+        }
+        state = state.withCode(contractAddress, contractBytecode);
+    }
+
+    @Override
+    public long balance(Address address) {
+        AccountState account = state.account(address);
+        return account == null ? 0 : account.getBalance();
+    }
+
+    @Override
+    public boolean exist(Address creationAddress) {
+        return state.code(creationAddress) != null;
+    }
+
+    @Override
+    public synchronized void createContract(Address creationAddress) {
+        if (state.hasAccount(creationAddress)) {
+            log.warn("[PersistentBlockChain] Account already exists for address: {}", creationAddress);
+            throw new IllegalArgumentException("Account already exists for address: " + creationAddress);
+        }
+        state = state.withAccount(creationAddress, new AccountState(0, 1));
+    }
+
+    @Override
+    public int getNonce(Address creationAddress) {
+        AccountState account = state.account(creationAddress);
+        return account == null ? 0 : (int) account.getNonce();
+    }
+
+    @Override
+    public Object getCodeHash(Address creationAddress) {
+        WorldState current = state;
+        if (!current.hasAccount(creationAddress)) {
+            return null;
+        }
+        byte[] code = current.code(creationAddress);
+        return code == null ? 0 : Arrays.hashCode(code);
+    }
+
+    @Override
+    public synchronized void setNonce(Address from, int number) {
+        AccountState account = state.account(from);
+        if (account == null) {
+            log.error("[PersistentBlockChain] Address {} not found", from);
+            throw new IllegalArgumentException("Address not found: " + from);
+        }
+        state = state.withAccount(from, account.withNonce(number));
+    }
+
+    @Override
+    public synchronized void setAccount(Address address, long balance, long nonce) {
+        state = state.withAccount(address, new AccountState(balance, nonce));
+    }
+
+    /**
+     * @return id of the current version, O(1).
+     */
+    @Override
+    public synchronized long takeSnapshot() {
+        snapshots.add(state);
+        return snapshots.size() - 1;
+    }
+
+    /**
+     * Go back to the version of the snapshot, O(1). Later snapshots are dropped.
+     */
+    @Override
+    public synchronized void revertToSnapshot(long snapshot) {
+        if (snapshot < 0 || snapshot >= snapshots.size()) {
+            throw new IllegalArgumentException("Invalid snapshot: " + snapshot + ", snapshots: " + snapshots.size());
+        }
+        state = snapshots.get((int) snapshot);
+        snapshots.subList((int) snapshot + 1, snapshots.size()).clear();
+    }
+
+    @Override
+    public synchronized void discardSnapshots() {
+        snapshots.clear();
+    }
+
+    @Override
+    public synchronized void setCode(Address creationAddress, byte[] deployedCode) {
+        state = state.withCode(creationAddress, deployedCode);
+    }
+
+    @Override
+    public long getStorage(Address contractAddress, long slot) {
+        return state.storage(contractAddress, slot);
+    }
+
+    @Override
+    public synchronized void setStorage(Address contractAddress, long slot, long value) {
+        state = state.withStorage(contractAddress, slot, value);
+    }
+}
@@ -0,0 +1,45 @@
+package com.frizo.lab.sevm.blockchain.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Undo log of state changes. Every change records how to undo itself; a snapshot is the current journal length,
+ * so taking one is O(1) and reverting to it costs O(changes since the snapshot).
+ */
+public class StateJournal {
+
+    private final List<Runnable> undoLog = new ArrayList<>();
+
+    /**
+     * Record a change that has just been applied.
+     *
+     * @param undo restores the state as it was before the change, without journaling
+     */
+    public void record(Runnable undo) {
+        undoLog.add(undo);
+    }
+
+    public int snapshot() {
+        return undoLog.size();
+    }
+
+    /**
+     * Undo every change recorded after {@code snapshot}, newest first.
+     */
+    public void revertTo(long snapshot) {
+        if (snapshot < 0 || snapshot > undoLog.size()) {
+            throw new IllegalArgumentException("Invalid snapshot: " + snapshot + ", journal length: " + undoLog.size());
+        }
+        for (int i = undoLog.size() - 1; i >= snapshot; i--) {
+            undoLog.remove(i).run();
+        }
+    }
+
+    /**
+     * Forget the recorded changes, they can no longer be reverted.
+     */
+    public void clear() {
+        undoLog.clear();
+    }
+}
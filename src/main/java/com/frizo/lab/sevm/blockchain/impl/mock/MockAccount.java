@@ -11,11 +11,11 @@ import java.util.Map;
 @Slf4j
 public class MockAccount {
 
-    public static Object getCodeHash(Address creationAddress) {
+    public Object getCodeHash(Address creationAddress) {
         if (!accounts.containsKey(creationAddress)) {
             return null;
         }
-        log.info("[MockAccount] Getting code hash for address: {}", creationAddress);
+        log.debug("[MockAccount] Getting code hash for address: {}", creationAddress);
         return new Object(); // Mock implementation, returning a dummy object as code hash
     }
 
@@ -39,9 +39,9 @@ public class MockAccount {
         }
     }
 
-    private static final Map<Address, AccInfo> accounts = new HashMap<>();
+    private final Map<Address, AccInfo> accounts = new HashMap<>();
 
-    static {
+    public MockAccount() {
         log.info("[MockBlockChain] Initializing MockAccountBalance");
         // 預設一些帳戶餘額
         accounts.put(Address.of("0x1234567890abcdef"), new AccInfo(Address.of("0x1234567890abcdef"), 10000000000L, 1)); // 10 ETH
@@ -50,18 +50,18 @@ public class MockAccount {
         accounts.put(Address.of("0x0333333333333333"), new AccInfo(Address.of("0x0333333333333333"), 300000000L, 1));  // 0.3 ETH
     }
 
-    public static void create(Address creationAddress) {
-        log.info("[MockAccount] Creating account for address: {}", creationAddress);
+    public void create(Address creationAddress) {
+        log.debug("[MockAccount] Creating account for address: {}", creationAddress);
         if (accounts.containsKey(creationAddress)) {
             log.warn("[MockAccount] Account already exists for address: {}", creationAddress);
             throw new IllegalArgumentException("Account already exists for address: " + creationAddress);
         }
         accounts.put(creationAddress, new AccInfo(creationAddress, 0L, 1L));
-        log.info("[MockAccount] Account created successfully for address: {}", creationAddress);
+        log.debug("[MockAccount] Account created successfully for address: {}", creationAddress);
     }
 
-    public static void setNonce(Address from, int number) {
-        log.info("[MockAccount] Setting nonce for address {} to {}", from, number);
+    public void setNonce(Address from, int number) {
+        log.debug("[MockAccount] Setting nonce for address {} to {}", from, number);
         AccInfo accInfo = accounts.get(from);
         if (accInfo == null) {
             log.error("[MockAccount] Address {} not found", from);
@@ -70,13 +70,14 @@ public class MockAccount {
         accInfo.nonce = number;
     }
 
-    public static long getBalance(Address hexAddress) {
-        log.info("[MockAccountBalance] Getting balance for address: {}", hexAddress);
-        return accounts.getOrDefault(hexAddress, new AccInfo(hexAddress, 0L, 0L)).balance;
+    public long getBalance(Address hexAddress) {
+        log.debug("[MockAccountBalance] Getting balance for address: {}", hexAddress);
+        AccInfo accInfo = accounts.get(hexAddress);
+        return accInfo == null ? 0L : accInfo.balance;
     }
 
-    public static void transfer(Address from, Address to, long amount) {
-        log.info("[MockAccountBalance] Transferring {} wei from {} to {}", amount, from, to);
+    public void transfer(Address from, Address to, long amount) {
+        log.debug("[MockAccountBalance] Transferring {} wei from {} to {}", amount, from, to);
         long fromBalance = accounts.getOrDefault(from, new AccInfo(from, 0L, 0L)).balance;
         if (fromBalance < amount) {
             log.error("[MockAccountBalance] Insufficient balance for transfer from {}: current balance is {}", from, fromBalance);
@@ -85,10 +86,32 @@ public class MockAccount {
 
         accounts.get(from).subtractBalance(amount);
         accounts.computeIfAbsent(to, k -> new AccInfo(k, 0L, 1L)).addBalance(amount);
-        log.info("[MockAccountBalance] Transfer successful: {} wei from {} to {}", amount, from, to);
+        log.debug("[MockAccountBalance] Transfer successful: {} wei from {} to {}", amount, from, to);
     }
 
-    public static long getNonce(Address creationAddress) {
-        return accounts.getOrDefault(creationAddress, new AccInfo(creationAddress, 0L, 0)).nonce;
+    public boolean exists(Address address) {
+        return accounts.containsKey(address);
+    }
+
+    public void remove(Address address) {
+        accounts.remove(address);
+    }
+
+    public void setBalance(Address address, long balance) {
+        AccInfo accInfo = accounts.get(address);
+        if (accInfo == null) {
+            log.error("[MockAccount] Address {} not found", address);
+            throw new IllegalArgumentException("Address not found: " + address);
+        }
+        accInfo.balance = balance;
+    }
+
+    public void put(Address address, long balance, long nonce) {
+        accounts.put(address, new AccInfo(address, balance, nonce));
+    }
+
+    public long getNonce(Address creationAddress) {
+        AccInfo accInfo = accounts.get(creationAddress);
+        return accInfo == null ? 0L : accInfo.nonce;
     }
 }
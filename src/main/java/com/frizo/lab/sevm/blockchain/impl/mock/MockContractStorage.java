@@ -1,7 +1,9 @@
 package com.frizo.lab.sevm.blockchain.impl.mock;
 
+import com.frizo.lab.sevm.code.CodeStore;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.storage.LongLongHashMap;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -11,11 +13,14 @@ import java.util.Map;
 @Slf4j
 public class MockContractStorage {
 
+    // deployed code, kept once per distinct code however many addresses share it
     @Getter
-    private static final Map<Address, byte[]> contractStorage = new HashMap<>();
+    private final CodeStore codeStore = new CodeStore();
 
+    // committed storage slots of every contract
+    private final Map<Address, LongLongHashMap> slots = new HashMap<>();
 
-    static {
+    public MockContractStorage() {
         log.info("[MockBlockChain] Initialized MockBlockChain with empty contract storage.");
 
         // Default contracts for testing
@@ -24,9 +29,9 @@ public class MockContractStorage {
         addContract(Address.of("0x0101010101010102"), return0x3AContract());
     }
 
-    public static void addContract(Address contractAddress, byte[] contractBytecode) {
+    public void addContract(Address contractAddress, byte[] contractBytecode) {
         log.info("[MockContractStorage] add contract at address: {}", contractAddress);
-        contractStorage.put(contractAddress, contractBytecode);
+        codeStore.put(contractAddress, contractBytecode);
     }
 
     /**
@@ -155,13 +160,32 @@ public class MockContractStorage {
     }
 
 
-    public static byte[] get(Address contractAddress) {
-        log.info("[MockContractStorage] Retrieving contract at address: {}", contractAddress);
-        byte[] code = contractStorage.get(contractAddress);
-        return code;
+    public byte[] get(Address contractAddress) {
+        log.debug("[MockContractStorage] Retrieving contract at address: {}", contractAddress);
+        return codeStore.get(contractAddress);
     }
 
-    public static boolean exists(Address contractAddress) {
-        return contractStorage.containsKey(contractAddress);
+    public void removeContract(Address contractAddress) {
+        codeStore.remove(contractAddress);
+    }
+
+    public long getSlot(Address contractAddress, long slot) {
+        LongLongHashMap contractSlots = slots.get(contractAddress);
+        return contractSlots == null ? 0 : contractSlots.get(slot, 0);
+    }
+
+    public void setSlot(Address contractAddress, long slot, long value) {
+        if (value == 0) {
+            LongLongHashMap contractSlots = slots.get(contractAddress);
+            if (contractSlots != null) {
+                contractSlots.remove(slot);
+            }
+            return;
+        }
+        slots.computeIfAbsent(contractAddress, k -> new LongLongHashMap()).put(slot, value);
+    }
+
+    public boolean exists(Address contractAddress) {
+        return codeStore.contains(contractAddress);
     }
 }
@@ -0,0 +1,23 @@
+package com.frizo.lab.sevm.blockchain.state;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable balance and nonce of an account.
+ */
+@Getter
+@AllArgsConstructor
+public final class AccountState {
+
+    private final long balance;
+    private final long nonce;
+
+    public AccountState withBalance(long balance) {
+        return new AccountState(balance, nonce);
+    }
+
+    public AccountState withNonce(long nonce) {
+        return new AccountState(balance, nonce);
+    }
+}
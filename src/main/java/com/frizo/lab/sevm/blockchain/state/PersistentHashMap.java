@@ -0,0 +1,308 @@
+package com.frizo.lab.sevm.blockchain.state;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map on a hash array mapped trie (HAMT).
+ * <p>
+ * Each level of the trie consumes 5 bits of the key hash and stores up to 32 entries or sub-tries in an array
+ * compressed by a 32-bit bitmap. {@link #put} and {@link #remove} return a new map that copies only the path from
+ * the root to the changed entry (at most 7 small arrays) and shares every other node with the old map, which stays
+ * valid and unchanged. Keys with equal hashes end up in a collision node.
+ * <p>
+ * Keys and values must not be null.
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentHashMap EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the value mapped to {@code key}, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        return (V) root.find(0, hash(key), key);
+    }
+
+    public V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return a map with {@code key} mapped to {@code value}, this map if it already was.
+     */
+    public PersistentHashMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @return a map without {@code key}, this map if it had no such key.
+     */
+    public PersistentHashMap<K, V> remove(K key) {
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    private interface Node {
+
+        Object find(int shift, int hash, Object key);
+
+        Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * @return the node without the key, null if that leaves it empty.
+         */
+        Node remove(int shift, int hash, Object key);
+
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Entries and sub-tries of one level: {@code array} holds a (key, value) pair per set bitmap bit,
+     * with a null key and the sub-trie as value for a sub-trie.
+     */
+    private static final class BitmapNode implements Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, i);
+                copy[i] = key;
+                copy[i + 1] = value;
+                System.arraycopy(array, i, copy, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.put(shift + BITS, hash, key, value, added);
+                return newChild == child ? this : with(i + 1, newChild);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : with(i + 1, value);
+            }
+            // two keys in one slot: push both one level down
+            added[0] = true;
+            Node child = pair(shift + BITS, k, v, hash, key, value);
+            Object[] copy = array.clone();
+            copy[i] = null;
+            copy[i + 1] = child;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private BitmapNode with(int index, Object value) {
+            Object[] copy = array.clone();
+            copy[index] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private static Node pair(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, ignored).put(shift, hash2, key2, value2, ignored);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node newChild = child.remove(shift + BITS, hash, key);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    return with(i + 1, newChild);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, copy);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keys that share the same full hash, as (key, value) pairs.
+     */
+    private static final class CollisionNode implements Node {
+
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // a different hash reaches this node: split it under a bitmap node
+                BitmapNode parent = new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[]{null, this});
+                return parent.put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] copy = array.clone();
+                copy[i + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, array.length - i - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.frizo.lab.sevm.blockchain.state;
+
+import com.frizo.lab.sevm.code.CodeCache;
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.common.Address;
+
+/**
+ * One immutable version of the world state: accounts, contract code and contract storage,
+ * each in a {@link PersistentHashMap}.
+ * <p>
+ * Every {@code with...} method returns a new version sharing everything it does not change with this one,
+ * so holding on to a version is an O(1) consistent snapshot that later writes never disturb.
+ * <p>
+ * Code is kept decoded, so it is hashed and analysed once when deployed, not on every call.
+ */
+public final class WorldState {
+
+    public static final WorldState EMPTY = new WorldState(
+            PersistentHashMap.empty(), PersistentHashMap.empty(), PersistentHashMap.empty());
+
+    private final PersistentHashMap<Address, AccountState> accounts;
+    private final PersistentHashMap<Address, DecodedCode> code;
+    private final PersistentHashMap<Address, PersistentHashMap<Long, Long>> storage;
+
+    private WorldState(PersistentHashMap<Address, AccountState> accounts,
+                       PersistentHashMap<Address, DecodedCode> code,
+                       PersistentHashMap<Address, PersistentHashMap<Long, Long>> storage) {
+        this.accounts = accounts;
+        this.code = code;
+        this.storage = storage;
+    }
+
+    /**
+     * @return the account, null if it does not exist.
+     */
+    public AccountState account(Address address) {
+        return accounts.get(address);
+    }
+
+    public boolean hasAccount(Address address) {
+        return accounts.containsKey(address);
+    }
+
+    /**
+     * @return the code deployed at the address, null if there is none.
+     */
+    public byte[] code(Address address) {
+        DecodedCode decoded = code.get(address);
+        return decoded == null ? null : decoded.getCode();
+    }
+
+    /**
+     * @return the decoded code deployed at the address, null if there is none.
+     */
+    public DecodedCode decodedCode(Address address) {
+        return code.get(address);
+    }
+
+    public long storage(Address address, long slot) {
+        PersistentHashMap<Long, Long> slots = storage.get(address);
+        return slots == null ? 0 : slots.getOrDefault(slot, 0L);
+    }
+
+    public int accountCount() {
+        return accounts.size();
+    }
+
+    public WorldState withAccount(Address address, AccountState account) {
+        return new WorldState(accounts.put(address, account), code, storage);
+    }
+
+    public WorldState withoutAccount(Address address) {
+        return new WorldState(accounts.remove(address), code, storage);
+    }
+
+    /**
+     * @param bytecode the new code, null to remove it
+     */
+    public WorldState withCode(Address address, byte[] bytecode) {
+        return new WorldState(accounts,
+                bytecode == null ? code.remove(address) : code.put(address, CodeCache.get(bytecode)), storage);
+    }
+
+    /**
+     * Storing 0 removes the slot.
+     */
+    public WorldState withStorage(Address address, long slot, long value) {
+        PersistentHashMap<Long, Long> slots = storage.getOrDefault(address, PersistentHashMap.empty());
+        PersistentHashMap<Long, Long> updated = value == 0 ? slots.remove(slot) : slots.put(slot, value);
+        if (updated == slots) {
+            return this;
+        }
+        return new WorldState(accounts, code,
+                updated.isEmpty() ? storage.remove(address) : storage.put(address, updated));
+    }
+}
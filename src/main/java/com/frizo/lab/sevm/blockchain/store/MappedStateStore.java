@@ -0,0 +1,684 @@
+package com.frizo.lab.sevm.blockchain.store;
+
+import com.frizo.lab.sevm.blockchain.state.AccountState;
+import com.frizo.lab.sevm.storage.LongLongHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent account, code and storage state in an append-only segment file, read and written through
+ * {@link FileChannel#map} memory mappings.
+ * <p>
+ * Every change appends a record {@code [type:1][address:8][key:8][length:4][crc:4][value]}, the CRC32C covering
+ * everything but itself. A record can straddle OS pages, so a crash may leave one partly written: replay stops at the
+ * first record failing its checksum and cuts the segment off there, like {@link
+ * com.frizo.lab.sevm.blockchain.wal.WriteAheadLog} does with a torn tail. An in-memory index maps every address (and
+ * address + slot) to the offset of its latest record, and account and storage reads are a single
+ * {@code getLong} on the mapped page, without copying onto the heap.
+ * <p>
+ * {@link #checkpoint()} saves the index next to the segment; opening the store loads it and only replays the
+ * records appended after it, so a restart does not replay the whole log. Once more than half of the segment
+ * is overwritten records, a background thread compacts it into a new segment holding only live records; reads and
+ * writes go on meanwhile and only wait for the final swap of the segments.
+ * <p>
+ * The segment is mapped in fixed-size chunks that records never straddle.
+ */
+@Slf4j
+public class MappedStateStore implements AutoCloseable {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 << 20; // 64 MiB
+    private static final long MIN_COMPACTION_GARBAGE = 16 << 20;
+
+    private static final String SEGMENT_FILE = "state.seg";
+    private static final String CHECKPOINT_FILE = "state.idx";
+    private static final long SEGMENT_MAGIC = 0x5345564D53454732L;    // "SEVMSEG2"
+    private static final long CHECKPOINT_MAGIC = 0x5345564D49445831L; // "SEVMIDX1"
+    private static final int SEGMENT_HEADER = 16; // magic, generation
+
+    private static final byte END = 0;
+    private static final byte ACCOUNT = 1;
+    private static final byte ACCOUNT_DELETED = 2;
+    private static final byte CODE = 3;
+    private static final byte CODE_DELETED = 4;
+    private static final byte STORAGE = 5;
+    private static final byte PADDING = 6; // rest of the chunk is unused
+    private static final int RECORD_HEADER = 1 + 8 + 8 + 4 + 4;
+
+    private static final long MISSING = -1;
+
+    private final Path directory;
+    private final int chunkSize;
+    private final long minCompactionGarbage;
+    private final ExecutorService compactor;
+    private boolean compactionScheduled;
+    private boolean compacting;
+    private boolean closed;
+
+    private Segment segment;
+    private long liveBytes;
+
+    // address (and slot) -> offset of the latest record
+    private LongLongHashMap accounts = new LongLongHashMap();
+    private LongLongHashMap code = new LongLongHashMap();
+    private Map<Long, LongLongHashMap> storage = new HashMap<>();
+
+    private MappedStateStore(Path directory, int chunkSize, long minCompactionGarbage) {
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.minCompactionGarbage = minCompactionGarbage;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static MappedStateStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_CHUNK_SIZE, MIN_COMPACTION_GARBAGE);
+    }
+
+    /**
+     * @param chunkSize            size of each memory-mapped region, bounds the largest record
+     * @param minCompactionGarbage overwritten bytes below which the segment is never compacted
+     */
+    public static MappedStateStore open(Path directory, int chunkSize, long minCompactionGarbage) throws IOException {
+        Files.createDirectories(directory);
+        MappedStateStore store = new MappedStateStore(directory, chunkSize, minCompactionGarbage);
+        store.load();
+        return store;
+    }
+
+    private void load() throws IOException {
+        segment = Segment.open(directory.resolve(SEGMENT_FILE), chunkSize);
+        long replayFrom = SEGMENT_HEADER;
+        if (loadCheckpoint()) {
+            replayFrom = segment.writePosition;
+        }
+        long replayed = replay(replayFrom);
+        log.info("[MappedStateStore] Opened {}: {} accounts, {} contracts, replayed {} bytes",
+                directory, accounts.size(), code.size(), replayed);
+    }
+
+    // ---------------------------------------------------------------------------------------------- reads
+
+    /**
+     * @return the account, null if it does not exist.
+     */
+    public synchronized AccountState account(long address) {
+        long offset = accounts.get(address, MISSING);
+        if (offset == MISSING) {
+            return null;
+        }
+        return new AccountState(segment.getLong(offset + RECORD_HEADER), segment.getLong(offset + RECORD_HEADER + 8));
+    }
+
+    public synchronized boolean hasAccount(long address) {
+        return accounts.containsKey(address);
+    }
+
+    /**
+     * Check for code without copying it out of the segment.
+     */
+    public synchronized boolean hasCode(long address) {
+        return code.containsKey(address);
+    }
+
+    /**
+     * @return the code stored for the address, null if there is none.
+     */
+    public synchronized byte[] code(long address) {
+        long offset = code.get(address, MISSING);
+        if (offset == MISSING) {
+            return null;
+        }
+        byte[] bytes = new byte[segment.getInt(offset + 17)];
+        segment.get(offset + RECORD_HEADER, bytes);
+        return bytes;
+    }
+
+    public synchronized long storage(long address, long slot) {
+        LongLongHashMap slots = storage.get(address);
+        long offset = slots == null ? MISSING : slots.get(slot, MISSING);
+        return offset == MISSING ? 0 : segment.getLong(offset + RECORD_HEADER);
+    }
+
+    public synchronized int accountCount() {
+        return accounts.size();
+    }
+
+    // --------------------------------------------------------------------------------------------- writes
+
+    public synchronized void putAccount(long address, AccountState account) {
+        long offset = segment.reserve(RECORD_HEADER + 16);
+        segment.putLong(offset + RECORD_HEADER, account.getBalance());
+        segment.putLong(offset + RECORD_HEADER + 8, account.getNonce());
+        append(offset, ACCOUNT, address, 0, 16);
+    }
+
+    public synchronized void removeAccount(long address) {
+        if (accounts.containsKey(address)) {
+            append(segment.reserve(RECORD_HEADER), ACCOUNT_DELETED, address, 0, 0);
+        }
+    }
+
+    /**
+     * @param bytecode the new code, null to remove it
+     */
+    public synchronized void putCode(long address, byte[] bytecode) {
+        if (bytecode == null) {
+            if (code.containsKey(address)) {
+                append(segment.reserve(RECORD_HEADER), CODE_DELETED, address, 0, 0);
+            }
+            return;
+        }
+        long offset = segment.reserve(RECORD_HEADER + bytecode.length);
+        segment.put(offset + RECORD_HEADER, bytecode);
+        append(offset, CODE, address, 0, bytecode.length);
+    }
+
+    /**
+     * Storing 0 removes the slot.
+     */
+    public synchronized void putStorage(long address, long slot, long value) {
+        long offset = segment.reserve(RECORD_HEADER + 8);
+        segment.putLong(offset + RECORD_HEADER, value);
+        append(offset, STORAGE, address, slot, 8);
+    }
+
+    /**
+     * Fill in the header of a reserved record, publish it (type byte last) and index it.
+     */
+    private void append(long offset, byte type, long address, long key, int length) {
+        segment.putLong(offset + 1, address);
+        segment.putLong(offset + 9, key);
+        segment.putInt(offset + 17, length);
+        segment.putInt(offset + 21, checksum(offset, type, length));
+        segment.put(offset, type);
+        index(type, address, key, offset, length);
+        scheduleCompactionIfNeeded();
+    }
+
+    private void index(byte type, long address, long key, long offset, int length) {
+        switch (type) {
+            case ACCOUNT -> replaced(accounts, address, offset, RECORD_HEADER + length);
+            case ACCOUNT_DELETED -> replaced(accounts, address, MISSING, 0);
+            case CODE -> replaced(code, address, offset, RECORD_HEADER + length);
+            case CODE_DELETED -> replaced(code, address, MISSING, 0);
+            case STORAGE -> {
+                LongLongHashMap slots = storage.computeIfAbsent(address, k -> new LongLongHashMap());
+                boolean zero = segment.getLong(offset + RECORD_HEADER) == 0;
+                replaced(slots, key, zero ? MISSING : offset, zero ? 0 : RECORD_HEADER + length);
+                if (slots.isEmpty()) {
+                    storage.remove(address);
+                }
+            }
+            default -> throw new IllegalStateException("Corrupt state segment, record type " + type + " at " + offset);
+        }
+    }
+
+    /**
+     * Point {@code key} at a new record (or at none), keeping {@link #liveBytes} up to date.
+     */
+    private void replaced(LongLongHashMap index, long key, long offset, int size) {
+        long old = index.get(key, MISSING);
+        if (old != MISSING) {
+            liveBytes -= RECORD_HEADER + segment.getInt(old + 17);
+        }
+        if (offset == MISSING) {
+            index.remove(key);
+        } else {
+            index.put(key, offset);
+            liveBytes += size;
+        }
+    }
+
+    private int checksum(long offset, byte type, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        segment.updateChecksum(crc, offset + 1, 20);
+        segment.updateChecksum(crc, offset + RECORD_HEADER, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @return the value length of the record at the offset, -1 if it is torn or corrupt.
+     */
+    private int checkedLength(long offset, byte type) {
+        if (type < ACCOUNT || type > STORAGE || segment.position(offset) + RECORD_HEADER > chunkSize) {
+            return -1;
+        }
+        int length = segment.getInt(offset + 17);
+        if (length < 0 || length > chunkSize - segment.position(offset) - RECORD_HEADER) {
+            return -1;
+        }
+        return segment.getInt(offset + 21) == checksum(offset, type, length) ? length : -1;
+    }
+
+    private long replay(long from) {
+        long position = from;
+        long end = segment.mappableSize();
+        while (position < end) {
+            byte type = segment.get(position);
+            if (type == END) {
+                break;
+            }
+            if (type == PADDING) {
+                position = (position / chunkSize + 1) * chunkSize;
+                continue;
+            }
+            int length = checkedLength(position, type);
+            if (length < 0) {
+                // nothing after a torn record was committed, clear it so later appends are not followed by garbage
+                log.warn("[MappedStateStore] Cutting off torn record at {} ({} bytes)", position, end - position);
+                segment.clear(position, end);
+                break;
+            }
+            long address = segment.getLong(position + 1);
+            long key = segment.getLong(position + 9);
+            index(type, address, key, position, length);
+            position += RECORD_HEADER + length;
+        }
+        segment.writePosition = position;
+        return position - from;
+    }
+
+    // ------------------------------------------------------------------------------ durability, compaction
+
+    /**
+     * Force the segment to disk and save the index, so the next open only replays later records.
+     */
+    public synchronized void checkpoint() {
+        segment.force();
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeLong(CHECKPOINT_MAGIC);
+            out.writeLong(segment.generation);
+            out.writeLong(segment.writePosition);
+            out.writeLong(liveBytes);
+            writeIndex(out, accounts);
+            writeIndex(out, code);
+            out.writeInt(storage.size());
+            for (Map.Entry<Long, LongLongHashMap> entry : storage.entrySet()) {
+                out.writeLong(entry.getKey());
+                writeIndex(out, entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeIndex(DataOutputStream out, LongLongHashMap index) throws IOException {
+        out.writeInt(index.size());
+        IOException[] failure = new IOException[1];
+        index.forEach((key, offset) -> {
+            try {
+                out.writeLong(key);
+                out.writeLong(offset);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private static LongLongHashMap readIndex(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        LongLongHashMap index = new LongLongHashMap(size);
+        for (int i = 0; i < size; i++) {
+            index.put(in.readLong(), in.readLong());
+        }
+        return index;
+    }
+
+    /**
+     * @return true if a checkpoint of the current segment was loaded.
+     */
+    private boolean loadCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+            // a checkpoint of an older segment (e.g. a crash right after compaction) is ignored
+            if (in.readLong() != CHECKPOINT_MAGIC || in.readLong() != segment.generation) {
+                log.warn("[MappedStateStore] Ignoring stale checkpoint {}", checkpoint);
+                return false;
+            }
+            long position = in.readLong();
+            if (position > segment.mappableSize()) {
+                log.warn("[MappedStateStore] Checkpoint {} is ahead of the segment, replaying the whole log", checkpoint);
+                return false;
+            }
+            segment.writePosition = position;
+            liveBytes = in.readLong();
+            accounts = readIndex(in);
+            code = readIndex(in);
+            int contracts = in.readInt();
+            for (int i = 0; i < contracts; i++) {
+                long address = in.readLong();
+                storage.put(address, readIndex(in));
+            }
+            return true;
+        }
+    }
+
+    public synchronized long garbageBytes() {
+        return segment.writePosition - SEGMENT_HEADER - liveBytes;
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        long garbage = garbageBytes();
+        if (!compactionScheduled && garbage > minCompactionGarbage && garbage > liveBytes) {
+            compactionScheduled = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Rewrite the live records into a new segment and replace the current one with it. Runs on the compaction
+     * thread once enough records are overwritten.
+     * <p>
+     * The segment is append-only, so the records live when compaction starts are copied without holding the lock.
+     * The lock is then only taken to copy the records appended meanwhile and to swap in the new segment.
+     */
+    public void compact() {
+        Segment source;
+        long copiedTo;
+        long[] live;
+        synchronized (this) {
+            compactionScheduled = false;
+            if (compacting || closed) {
+                return;
+            }
+            compacting = true;
+            source = segment;
+            copiedTo = source.writePosition;
+            live = liveOffsets();
+        }
+        try {
+            Path target = directory.resolve(SEGMENT_FILE);
+            Path temp = directory.resolve(SEGMENT_FILE + ".compact");
+            Files.deleteIfExists(temp);
+            Segment compacted = Segment.create(temp, chunkSize, source.generation + 1);
+            LongLongHashMap newAccounts = new LongLongHashMap();
+            LongLongHashMap newCode = new LongLongHashMap();
+            Map<Long, LongLongHashMap> newStorage = new HashMap<>();
+            // in log order, so the new segment keeps the relative order of the records
+            Arrays.sort(live);
+            for (long offset : live) {
+                long newOffset = copyRecord(source, offset, compacted);
+                long address = source.getLong(offset + 1);
+                switch (source.get(offset)) {
+                    case ACCOUNT -> newAccounts.put(address, newOffset);
+                    case CODE -> newCode.put(address, newOffset);
+                    default -> newStorage.computeIfAbsent(address, k -> new LongLongHashMap())
+                            .put(source.getLong(offset + 9), newOffset);
+                }
+            }
+
+            synchronized (this) {
+                if (closed) {
+                    compacted.close();
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                segment = compacted;
+                accounts = newAccounts;
+                code = newCode;
+                storage = newStorage;
+                liveBytes = compacted.writePosition - SEGMENT_HEADER;
+                copyTail(source, copiedTo);
+                compacted.force();
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                source.close();
+                checkpoint();
+                log.info("[MappedStateStore] Compacted {} bytes into {}", source.writePosition, segment.writePosition);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * @return offsets of every record the index points at.
+     */
+    private long[] liveOffsets() {
+        int count = accounts.size() + code.size();
+        for (LongLongHashMap slots : storage.values()) {
+            count += slots.size();
+        }
+        long[] offsets = new long[count];
+        int[] size = new int[1];
+        LongLongHashMap.Visitor collect = (key, offset) -> offsets[size[0]++] = offset;
+        accounts.forEach(collect);
+        code.forEach(collect);
+        for (LongLongHashMap slots : storage.values()) {
+            slots.forEach(collect);
+        }
+        return offsets;
+    }
+
+    /**
+     * Copy the records appended to {@code source} since {@code from} into the current segment and index them.
+     */
+    private void copyTail(Segment source, long from) {
+        long position = from;
+        while (position < source.writePosition) {
+            byte type = source.get(position);
+            if (type == PADDING) {
+                position = (position / chunkSize + 1) * chunkSize;
+                continue;
+            }
+            int length = source.getInt(position + 17);
+            long newOffset = copyRecord(source, position, segment);
+            index(type, source.getLong(position + 1), source.getLong(position + 9), newOffset, length);
+            position += RECORD_HEADER + length;
+        }
+    }
+
+    private static long copyRecord(Segment source, long offset, Segment target) {
+        byte[] record = new byte[RECORD_HEADER + source.getInt(offset + 17)];
+        source.get(offset, record);
+        long newOffset = target.reserve(record.length);
+        target.put(newOffset + 1, record, 1, record.length - 1);
+        target.put(newOffset, record[0]);
+        return newOffset;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        compactor.shutdownNow();
+        checkpoint();
+        segment.close();
+    }
+
+    /**
+     * One segment file, mapped chunk by chunk as it grows.
+     */
+    private static final class Segment {
+
+        private final FileChannel channel;
+        private final int chunkSize;
+        // read without the store's lock by compaction while writers may map more chunks
+        private final List<MappedByteBuffer> chunks = new CopyOnWriteArrayList<>();
+        private final long generation;
+        private long writePosition;
+
+        private Segment(FileChannel channel, int chunkSize, long generation) {
+            this.channel = channel;
+            this.chunkSize = chunkSize;
+            this.generation = generation;
+        }
+
+        static Segment open(Path path, int chunkSize) throws IOException {
+            if (!Files.exists(path) || Files.size(path) == 0) {
+                return create(path, chunkSize, 1);
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() % chunkSize != 0) {
+                channel.close();
+                throw new IOException("Segment " + path + " was written with a different chunk size");
+            }
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+            channel.read(header, 0);
+            if (header.getLong(0) != SEGMENT_MAGIC) {
+                channel.close();
+                throw new IOException("Not a state segment: " + path);
+            }
+            return new Segment(channel, chunkSize, header.getLong(8));
+        }
+
+        static Segment create(Path path, int chunkSize, long generation) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(channel, chunkSize, generation);
+            segment.putLong(0, SEGMENT_MAGIC);
+            segment.putLong(8, generation);
+            segment.writePosition = SEGMENT_HEADER;
+            return segment;
+        }
+
+        long mappableSize() {
+            try {
+                return channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private MappedByteBuffer chunk(long offset) {
+            int index = (int) (offset / chunkSize);
+            while (chunks.size() <= index) {
+                try {
+                    // mapping past the end grows the file
+                    chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkSize, chunkSize));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return chunks.get(index);
+        }
+
+        private int position(long offset) {
+            return (int) (offset % chunkSize);
+        }
+
+        /**
+         * @return offset of {@code size} free bytes at the end of the log, in a single chunk.
+         */
+        long reserve(int size) {
+            if (size > chunkSize) {
+                throw new IllegalArgumentException("Record of " + size + " bytes exceeds the chunk size " + chunkSize);
+            }
+            long offset = writePosition;
+            if (position(offset) + size > chunkSize) {
+                put(offset, PADDING);
+                offset = (offset / chunkSize + 1) * chunkSize;
+            }
+            writePosition = offset + size;
+            chunk(writePosition - 1);
+            return offset;
+        }
+
+        byte get(long offset) {
+            return chunk(offset).get(position(offset));
+        }
+
+        void get(long offset, byte[] dst) {
+            chunk(offset).get(position(offset), dst);
+        }
+
+        int getInt(long offset) {
+            return chunk(offset).getInt(position(offset));
+        }
+
+        long getLong(long offset) {
+            return chunk(offset).getLong(position(offset));
+        }
+
+        void put(long offset, byte value) {
+            chunk(offset).put(position(offset), value);
+        }
+
+        void put(long offset, byte[] src) {
+            put(offset, src, 0, src.length);
+        }
+
+        void put(long offset, byte[] src, int srcOff, int length) {
+            chunk(offset).put(position(offset), src, srcOff, length);
+        }
+
+        void putInt(long offset, int value) {
+            chunk(offset).putInt(position(offset), value);
+        }
+
+        void putLong(long offset, long value) {
+            chunk(offset).putLong(position(offset), value);
+        }
+
+        void updateChecksum(CRC32C crc, long offset, int length) {
+            crc.update(chunk(offset).slice(position(offset), length));
+        }
+
+        /**
+         * Zero the bytes from {@code from} (inclusive) to {@code to} (exclusive).
+         */
+        void clear(long from, long to) {
+            byte[] zeros = new byte[4096];
+            long offset = from;
+            while (offset < to) {
+                int length = (int) Math.min(Math.min(zeros.length, to - offset), chunkSize - position(offset));
+                put(offset, zeros, 0, length);
+                offset += length;
+            }
+        }
+
+        void force() {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
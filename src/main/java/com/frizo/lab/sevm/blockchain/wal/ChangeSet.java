@@ -0,0 +1,125 @@
+package com.frizo.lab.sevm.blockchain.wal;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.common.Address;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State committed by one transaction: the storage slots, accounts and code it wrote, each with its value after the
+ * transaction. Replaying a change set sets those values again, so replaying it more than once is harmless.
+ * <p>
+ * Binary form: {@code [slots:int]([address:8][slot:8][value:8])* [accounts:int]([address:8][balance:8][nonce:8])*
+ * [codes:int]([address:8][length:4][code])*}.
+ */
+@Getter
+public class ChangeSet {
+
+    private final List<StorageWrite> storageWrites = new ArrayList<>();
+    private final List<AccountWrite> accountWrites = new ArrayList<>();
+    private final List<CodeWrite> codeWrites = new ArrayList<>();
+
+    public void storage(Address address, long slot, long value) {
+        storageWrites.add(new StorageWrite(address.getAddressLong(), slot, value));
+    }
+
+    public void account(Address address, long balance, long nonce) {
+        accountWrites.add(new AccountWrite(address.getAddressLong(), balance, nonce));
+    }
+
+    public void code(Address address, byte[] code) {
+        codeWrites.add(new CodeWrite(address.getAddressLong(), code));
+    }
+
+    public boolean isEmpty() {
+        return storageWrites.isEmpty() && accountWrites.isEmpty() && codeWrites.isEmpty();
+    }
+
+    public void clear() {
+        storageWrites.clear();
+        accountWrites.clear();
+        codeWrites.clear();
+    }
+
+    /**
+     * Write every change to the blockchain, in the order of the transaction: accounts, code, then storage.
+     */
+    public void applyTo(Blockchain blockchain) {
+        for (AccountWrite write : accountWrites) {
+            blockchain.setAccount(Address.of(write.address), write.balance, write.nonce);
+        }
+        for (CodeWrite write : codeWrites) {
+            blockchain.setCode(Address.of(write.address), write.code);
+        }
+        for (StorageWrite write : storageWrites) {
+            blockchain.setStorage(Address.of(write.address), write.slot, write.value);
+        }
+    }
+
+    public int encodedSize() {
+        int size = 3 * Integer.BYTES + storageWrites.size() * 24 + accountWrites.size() * 24;
+        for (CodeWrite write : codeWrites) {
+            size += 12 + write.code.length;
+        }
+        return size;
+    }
+
+    public void encode(ByteBuffer buffer) {
+        buffer.putInt(storageWrites.size());
+        for (StorageWrite write : storageWrites) {
+            buffer.putLong(write.address).putLong(write.slot).putLong(write.value);
+        }
+        buffer.putInt(accountWrites.size());
+        for (AccountWrite write : accountWrites) {
+            buffer.putLong(write.address).putLong(write.balance).putLong(write.nonce);
+        }
+        buffer.putInt(codeWrites.size());
+        for (CodeWrite write : codeWrites) {
+            buffer.putLong(write.address).putInt(write.code.length).put(write.code);
+        }
+    }
+
+    public static ChangeSet decode(ByteBuffer buffer) {
+        ChangeSet changes = new ChangeSet();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            changes.storageWrites.add(new StorageWrite(buffer.getLong(), buffer.getLong(), buffer.getLong()));
+        }
+        for (int i = buffer.getInt(); i > 0; i--) {
+            changes.accountWrites.add(new AccountWrite(buffer.getLong(), buffer.getLong(), buffer.getLong()));
+        }
+        for (int i = buffer.getInt(); i > 0; i--) {
+            long address = buffer.getLong();
+            byte[] code = new byte[buffer.getInt()];
+            buffer.get(code);
+            changes.codeWrites.add(new CodeWrite(address, code));
+        }
+        return changes;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class StorageWrite {
+        private final long address;
+        private final long slot;
+        private final long value;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class AccountWrite {
+        private final long address;
+        private final long balance;
+        private final long nonce;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class CodeWrite {
+        private final long address;
+        private final byte[] code;
+    }
+}
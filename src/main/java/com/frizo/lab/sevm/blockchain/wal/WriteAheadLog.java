@@ -0,0 +1,210 @@
+package com.frizo.lab.sevm.blockchain.wal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log of committed {@link ChangeSet}s with group commit.
+ * <p>
+ * Each change set is appended as {@code [length:4][crc32c:4][change set]}. {@link #append} returns once the record
+ * is durable, but transactions finishing together share one {@link FileChannel#force}: the first waiting thread
+ * becomes the leader, optionally waits for the commit window so more records join, and forces everything appended
+ * so far; the other threads only wait for it. One fsync per window instead of one per transaction.
+ * <p>
+ * {@link #open} replays every complete record to the caller and cuts off a torn or corrupt tail. Once the state the
+ * log describes is durable elsewhere (e.g. {@link com.frizo.lab.sevm.blockchain.store.MappedStateStore#checkpoint()}),
+ * {@link #reset()} empties the log, so recovery only replays the changes made since.
+ */
+@Slf4j
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final int RECORD_HEADER = 8; // length, checksum
+
+    private final FileChannel channel;
+    private final long commitWindowNanos;
+
+    // guarded by this
+    private long appended;      // sequence number of the last record written
+    private long durable;       // sequence number of the last record forced to disk
+    private boolean forcing;
+    private long forceCount;
+
+    private WriteAheadLog(FileChannel channel, long commitWindowNanos) {
+        this.channel = channel;
+        this.commitWindowNanos = commitWindowNanos;
+    }
+
+    public static WriteAheadLog open(Path file, Consumer<ChangeSet> replay) throws IOException {
+        return open(file, 0, TimeUnit.MILLISECONDS, replay);
+    }
+
+    /**
+     * @param commitWindow how long the leader of a group commit waits for more records before forcing
+     * @param replay       receives every change set in the log, oldest first
+     */
+    public static WriteAheadLog open(Path file, long commitWindow, TimeUnit unit, Consumer<ChangeSet> replay) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long end = recover(channel, replay);
+        if (end < channel.size()) {
+            log.warn("[WriteAheadLog] Truncating {} bytes of torn log tail at {}", channel.size() - end, end);
+            channel.truncate(end);
+            channel.force(true);
+        }
+        channel.position(end);
+        return new WriteAheadLog(channel, unit.toNanos(commitWindow));
+    }
+
+    /**
+     * @return the end of the last complete record.
+     */
+    private static long recover(FileChannel channel, Consumer<ChangeSet> replay) throws IOException {
+        long position = 0;
+        long size = channel.size();
+        int records = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        while (position + RECORD_HEADER <= size) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(0);
+            if (length <= 0 || position + RECORD_HEADER + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + RECORD_HEADER);
+            if (checksum(payload.array(), 0, length) != header.getInt(4)) {
+                break;
+            }
+            payload.flip();
+            replay.accept(ChangeSet.decode(payload));
+            position += RECORD_HEADER + length;
+            records++;
+        }
+        log.info("[WriteAheadLog] Replayed {} change sets ({} bytes)", records, position);
+        return position;
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Append the change set and wait until it is on disk.
+     */
+    public void append(ChangeSet changes) {
+        int length = changes.encodedSize();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+        record.putInt(length);
+        record.position(RECORD_HEADER);
+        changes.encode(record);
+        record.putInt(4, checksum(record.array(), RECORD_HEADER, length));
+        record.flip();
+
+        long sequence;
+        synchronized (this) {
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            sequence = ++appended;
+        }
+        awaitDurable(sequence);
+    }
+
+    private void awaitDurable(long sequence) {
+        while (true) {
+            long target;
+            boolean leader = false;
+            synchronized (this) {
+                try {
+                    while (forcing && durable < sequence) {
+                        wait();
+                    }
+                    if (durable >= sequence) {
+                        return;
+                    }
+                    // become the leader: let the commit window fill, then force everything appended so far
+                    forcing = true;
+                    leader = true;
+                    if (commitWindowNanos > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, commitWindowNanos);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (leader) {
+                        forcing = false;
+                        notifyAll();
+                    }
+                    throw new IllegalStateException("Interrupted while waiting for the log to be forced", e);
+                }
+                target = appended;
+                forceCount++;
+            }
+            // forced without the monitor, so the next transactions can append meanwhile
+            boolean forced = false;
+            try {
+                channel.force(false);
+                forced = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                synchronized (this) {
+                    if (forced) {
+                        durable = Math.max(durable, target);
+                    }
+                    forcing = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Empty the log, once the state it describes is durable elsewhere.
+     */
+    public synchronized void reset() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            durable = appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized long getAppendCount() {
+        return appended;
+    }
+
+    /**
+     * @return number of {@link FileChannel#force} calls made by group commits.
+     */
+    public synchronized long getForceCount() {
+        return forceCount;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.frizo.lab.sevm.code;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of {@link DecodedCode} keyed by {@link CodeHash},
+ * so repeated calls to the same contract decode its bytecode only once.
+ * <p>
+ * Used for code that has no owner keeping its decoded form, e.g. init code. Deployed code is decoded by the
+ * blockchain holding it (see {@link CodeStore}) and handed to frames through
+ * {@link com.frizo.lab.sevm.blockchain.Blockchain#loadDecodedCode}, without hashing it again.
+ */
+@Slf4j
+public class CodeCache {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final Map<CodeHash, DecodedCode> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CodeHash, DecodedCode> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public static DecodedCode get(byte[] code) {
+        if (code.length == 0) {
+            return DecodedCode.EMPTY;
+        }
+        CodeHash codeHash = CodeHash.of(code);
+        synchronized (cache) {
+            DecodedCode decoded = cache.get(codeHash);
+            if (decoded != null) {
+                return decoded;
+            }
+        }
+
+        DecodedCode decoded = DecodedCode.decode(code);
+        log.debug("[CodeCache] Decoded code: {}, {} instructions", codeHash, decoded.getInstructionCount());
+        synchronized (cache) {
+            DecodedCode existing = cache.putIfAbsent(codeHash, decoded);
+            return existing != null ? existing : decoded;
+        }
+    }
+
+    /**
+     * Drop the cached code, code decoded by a {@link CodeStore} is not affected.
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.frizo.lab.sevm.code;
+
+import com.frizo.lab.sevm.utils.NumUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Content hash of a piece of contract bytecode, used as the key of code-derived caches.
+ * Real EVM uses keccak256(code); SHA-256 is used here since it ships with the JDK.
+ */
+public final class CodeHash {
+
+    private final byte[] hash;
+    private final int hashCode;
+
+    private CodeHash(byte[] hash) {
+        this.hash = hash;
+        this.hashCode = Arrays.hashCode(hash);
+    }
+
+    public static CodeHash of(byte[] code) {
+        try {
+            return new CodeHash(MessageDigest.getInstance("SHA-256").digest(code));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CodeHash other)) {
+            return false;
+        }
+        return Arrays.equals(this.hash, other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return NumUtils.bytesToHex(hash);
+    }
+}
@@ -0,0 +1,109 @@
+package com.frizo.lab.sevm.code;
+
+import com.frizo.lab.sevm.common.Address;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed contract code: each distinct piece of code is kept once, keyed by its {@link CodeHash},
+ * and every address deployed with it maps to that entry.
+ * <p>
+ * An entry holds one canonical copy of the code together with its {@link DecodedCode} (instruction stream,
+ * jumpdest bitmap, basic blocks), owned by the entry and dropped with it. Frames are handed that
+ * {@link DecodedCode} directly (see {@link #entryOf}), so the code is never hashed again, and the JIT profile
+ * kept on it serves every address sharing the code.
+ * <p>
+ * Code handed out by {@link #get(Address)} is shared and must not be modified.
+ */
+@Slf4j
+public class CodeStore {
+
+    private final Map<CodeHash, Entry> entries = new HashMap<>();
+    private final Map<Address, Entry> addresses = new HashMap<>();
+
+    @Getter
+    public static final class Entry {
+        private final CodeHash hash;
+        private final byte[] code;
+        private final DecodedCode decodedCode;
+        private int references;
+
+        private Entry(CodeHash hash, byte[] code) {
+            this.hash = hash;
+            this.code = code;
+            this.decodedCode = DecodedCode.decode(code);
+        }
+    }
+
+    /**
+     * Deploy {@code code} at the address, replacing its previous code.
+     */
+    public synchronized void put(Address address, byte[] code) {
+        CodeHash hash = CodeHash.of(code);
+        Entry current = addresses.get(address);
+        if (current != null && current.hash.equals(hash)) {
+            return;
+        }
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            entry = new Entry(hash, code.clone());
+            entries.put(hash, entry);
+        } else {
+            log.debug("[CodeStore] Address {} shares code {} with {} other addresses", address, hash, entry.references);
+        }
+        entry.references++;
+        addresses.put(address, entry);
+        if (current != null) {
+            release(current);
+        }
+    }
+
+    public synchronized void remove(Address address) {
+        Entry entry = addresses.remove(address);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    private void release(Entry entry) {
+        if (--entry.references == 0) {
+            entries.remove(entry.hash);
+        }
+    }
+
+    /**
+     * @return the canonical code deployed at the address, null if there is none.
+     */
+    public synchronized byte[] get(Address address) {
+        Entry entry = addresses.get(address);
+        return entry == null ? null : entry.code;
+    }
+
+    /**
+     * @return the entry of the code deployed at the address, null if there is none.
+     */
+    public synchronized Entry entryOf(Address address) {
+        return addresses.get(address);
+    }
+
+    public synchronized boolean contains(Address address) {
+        return addresses.containsKey(address);
+    }
+
+    /**
+     * @return number of addresses with code.
+     */
+    public synchronized int size() {
+        return addresses.size();
+    }
+
+    /**
+     * @return number of distinct pieces of code kept.
+     */
+    public synchronized int uniqueCodeCount() {
+        return entries.size();
+    }
+}
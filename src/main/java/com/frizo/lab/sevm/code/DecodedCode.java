@@ -0,0 +1,258 @@
+package com.frizo.lab.sevm.code;
+
+import com.frizo.lab.sevm.exec.impl.*;
+import com.frizo.lab.sevm.jit.JitProfile;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.op.SuperInstruction;
+import com.frizo.lab.sevm.utils.NumUtils;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Pre-decoded instruction stream of a piece of bytecode, built once by the blockchain holding the code
+ * (see {@link CodeStore}) or once per code hash for other code (see {@link CodeCache}).
+ * <p>
+ * Each instruction gets an index; for every index we keep the opcode byte (as int), the byte pc where it
+ * starts, and, for PUSH1 ~ PUSH8, its immediate already parsed into a long.
+ * {@code pcToIndex} maps a byte pc (e.g. a jump target) back to its instruction index,
+ * or -1 when the pc points into PUSH data.
+ * Valid jump destinations (JUMPDEST opcodes, never a 0x5B byte inside PUSH data) are kept in a bitmap.
+ * <p>
+ * A peephole pass then marks the start of common opcode sequences with the {@link SuperInstruction}
+ * that executes them in one dispatch.
+ * <p>
+ * The code is also split into basic blocks: a block starts at index 0, at every JUMPDEST and after every
+ * instruction that may leave straight-line execution (jumps, calls, RETURN / REVERT ...), and ends with that instruction.
+ * The static gas of each block is summed so the interpreter can charge it once on block entry.
+ * <p>
+ * Immutable apart from its {@link JitProfile}, shared by every frame executing the same code.
+ */
+public final class DecodedCode {
+
+    /**
+     * Decoded form of empty code, e.g. the placeholder of an entry frame before its code is set.
+     */
+    public static final DecodedCode EMPTY = decode(new byte[0]);
+
+    @Getter
+    private final byte[] code;
+    private final int[] ops;
+    private final long[] immediates;
+    private final int[] pcs;
+    private final int[] pcToIndex;
+    private final long[] jumpDests; // bit per byte pc, set where a JUMPDEST instruction starts
+    private final SuperInstruction[] superInstructions;
+    private final long[] blockGas; // static gas of the block starting at each index, 0 inside a block
+    @Getter
+    private final int instructionCount;
+    @Getter
+    private final JitProfile jitProfile = new JitProfile();
+
+    private DecodedCode(byte[] code, int[] ops, long[] immediates, int[] pcs, int[] pcToIndex, long[] jumpDests, int instructionCount) {
+        this.code = code;
+        this.ops = ops;
+        this.immediates = immediates;
+        this.pcs = pcs;
+        this.pcToIndex = pcToIndex;
+        this.jumpDests = jumpDests;
+        this.instructionCount = instructionCount;
+        this.superInstructions = fuse();
+        this.blockGas = sumBlockGas();
+    }
+
+    public static DecodedCode decode(byte[] code) {
+        int[] ops = new int[code.length];
+        long[] immediates = new long[code.length];
+        int[] pcs = new int[code.length];
+        int[] pcToIndex = new int[code.length];
+        long[] jumpDests = new long[(code.length + 63) >>> 6];
+
+        int count = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            int op = code[pc] & 0xFF;
+            ops[count] = op;
+            pcs[count] = pc;
+            pcToIndex[pc] = count;
+            if (op == (Opcode.JUMPDEST.getCode() & 0xFF)) {
+                jumpDests[pc >>> 6] |= 1L << pc;
+            }
+
+            int pushSize = pushSize(op);
+            if (pushSize > 0) {
+                // bytes beyond the end of code are read as zero, same as EVMContext.getNextBytes
+                immediates[count] = NumUtils.readBytes(code, pc + 1, pushSize);
+                for (int i = 1; i <= pushSize && pc + i < code.length; i++) {
+                    pcToIndex[pc + i] = -1;
+                }
+            }
+            count++;
+            pc += 1 + pushSize;
+        }
+
+        return new DecodedCode(code, Arrays.copyOf(ops, count), Arrays.copyOf(immediates, count),
+                Arrays.copyOf(pcs, count), pcToIndex, jumpDests, count);
+    }
+
+    /**
+     * Peephole pass: superinstruction starting at each instruction index, null where no sequence matches.
+     */
+    private SuperInstruction[] fuse() {
+        SuperInstruction[] fused = new SuperInstruction[instructionCount];
+        for (int i = 0; i < instructionCount; i++) {
+            if (matches(i, Opcode.DUP1, Opcode.PUSH4, Opcode.EQ, Opcode.PUSH1, Opcode.JUMPI) && isIntImmediate(i + 3)) {
+                fused[i] = SuperInstruction.SELECTOR_JUMPI;
+            } else if (matches(i, Opcode.PUSH1, Opcode.JUMP) && isIntImmediate(i)) {
+                fused[i] = SuperInstruction.PUSH_JUMP;
+            } else if (matches(i, Opcode.PUSH1, Opcode.JUMPI) && isIntImmediate(i)) {
+                fused[i] = SuperInstruction.PUSH_JUMPI;
+            } else if (matches(i, Opcode.PUSH1, Opcode.ADD)) {
+                fused[i] = SuperInstruction.PUSH_ADD;
+            } else if (matches(i, Opcode.PUSH1, Opcode.SUB)) {
+                fused[i] = SuperInstruction.PUSH_SUB;
+            } else if (matches(i, Opcode.PUSH1, Opcode.SLOAD)) {
+                fused[i] = SuperInstruction.PUSH_SLOAD;
+            }
+        }
+        return fused;
+    }
+
+    private long[] sumBlockGas() {
+        long[] gas = new long[instructionCount];
+        int start = 0;
+        while (start < instructionCount) {
+            long sum = 0;
+            int end = start;
+            while (end < instructionCount) {
+                Opcode opcode = opcodeOrNull(ops[end]);
+                if (opcode == null || (end > start && opcode == Opcode.JUMPDEST)) {
+                    // unknown bytes fail before being charged, JUMPDEST starts the next block
+                    break;
+                }
+                sum += opcode.getGasCost();
+                end++;
+                if (!isStraightLine(opcode)) {
+                    break;
+                }
+            }
+            gas[start] = sum;
+            start = Math.max(end, start + 1);
+        }
+        return gas;
+    }
+
+    /**
+     * Opcodes that always continue with the next instruction and never read the frame's gas.
+     */
+    private static boolean isStraightLine(Opcode opcode) {
+        Class<?> executor = opcode.getExecutorClass();
+        return opcode == Opcode.JUMPDEST
+                || executor == PushExecutor.class
+                || executor == DupExecutor.class
+                || executor == SwapExecutor.class
+                || executor == PopExecutor.class
+                || executor == ArithmeticExecutor.class
+                || executor == NumLogicInstruction.class
+                || executor == MemoryExecutor.class
+                || executor == StorageExecutor.class;
+    }
+
+    private static Opcode opcodeOrNull(int op) {
+        try {
+            return Opcode.fromByte((byte) op);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * PUSH1 in the pattern matches any PUSH1 ~ PUSH8 (PUSH4 matches only PUSH4).
+     */
+    private boolean matches(int index, Opcode... pattern) {
+        if (index + pattern.length > instructionCount) {
+            return false;
+        }
+        for (int k = 0; k < pattern.length; k++) {
+            int op = ops[index + k];
+            boolean match = pattern[k] == Opcode.PUSH1 ? pushSize(op) > 0 : op == (pattern[k].getCode() & 0xFF);
+            if (!match) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // JumpExecutor reads the destination with Math.toIntExact, keep out-of-range targets unfused
+    private boolean isIntImmediate(int index) {
+        return immediates[index] >= Integer.MIN_VALUE && immediates[index] <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return PUSH1 ~ PUSH8 immediate size, 0 for any other opcode.
+     */
+    private static int pushSize(int op) {
+        int push1 = Opcode.PUSH1.getCode() & 0xFF;
+        int push8 = Opcode.PUSH8.getCode() & 0xFF;
+        return op >= push1 && op <= push8 ? op - push1 + 1 : 0;
+    }
+
+    public int length() {
+        return code.length;
+    }
+
+    /**
+     * @return instruction index starting at the given pc, -1 if the pc is inside PUSH data or out of range.
+     */
+    public int indexOf(int pc) {
+        if (pc < 0 || pc >= code.length) {
+            return -1;
+        }
+        return pcToIndex[pc];
+    }
+
+    public int pcOf(int index) {
+        return pcs[index];
+    }
+
+    public int opAt(int index) {
+        return ops[index];
+    }
+
+    public long immediateAt(int index) {
+        return immediates[index];
+    }
+
+    /**
+     * @return byte pc right after the {@code count} instructions starting at the given index.
+     */
+    public int pcAfter(int index, int count) {
+        int next = index + count;
+        return next < instructionCount ? pcs[next] : code.length;
+    }
+
+    /**
+     * @return true if a JUMPDEST instruction starts at the given pc.
+     */
+    public boolean isJumpDest(int pc) {
+        return pc >= 0 && pc < code.length && (jumpDests[pc >>> 6] & (1L << pc)) != 0;
+    }
+
+    /**
+     * @return static gas of the basic block starting at the given instruction index, 0 inside a block.
+     */
+    public long blockGasAt(int index) {
+        return blockGas[index];
+    }
+
+    /**
+     * @return superinstruction starting at the given instruction index, null if none.
+     */
+    public SuperInstruction superInstructionAt(int index) {
+        return superInstructions[index];
+    }
+
+    public Opcode opcodeAt(int index) {
+        return Opcode.fromByte((byte) ops[index]);
+    }
+}
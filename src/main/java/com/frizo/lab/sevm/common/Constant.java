@@ -7,4 +7,10 @@ public class Constant {
     public static final int MAX_STACK_DEPTH = 1024;
     public static final int MAX_CODE_SIZE = 1024 * 1024 * 5; // 5 MB
     public static final int CREATE_DATA_GAS = 32000;
+
+    // memory expansion gas for a memory of n 8-byte words: MEMORY_WORD_GAS * n + n * n / MEMORY_QUAD_DIVISOR
+    public static final long MEMORY_WORD_GAS = 3;
+    public static final long MEMORY_QUAD_DIVISOR = 512;
+    // MCOPY: gas per 8-byte word copied, on top of the expansion gas
+    public static final long MEMORY_COPY_WORD_GAS = 3;
 }
@@ -1,24 +1,23 @@
 package com.frizo.lab.sevm.context;
 
-import com.frizo.lab.sevm.memory.DummyMemoryV2;
 import com.frizo.lab.sevm.memory.Memory;
-import com.frizo.lab.sevm.stack.Stack;
-import com.frizo.lab.sevm.stack.Stack64Bit;
-import com.frizo.lab.sevm.storage.DummyStorageV2;
+import com.frizo.lab.sevm.memory.PagedMemory;
+import com.frizo.lab.sevm.stack.LongStack;
+import com.frizo.lab.sevm.storage.SlotStorage;
 import com.frizo.lab.sevm.storage.Storage;
 
 public class EVMComponentFactory {
 
-    public static Stack<Long> createStack(int limit) {
-        return new Stack64Bit(limit);
+    public static LongStack createStack(int limit) {
+        return new LongStack(limit);
     }
 
     public static Memory<Long, Long> createMemory() {
-        return new DummyMemoryV2();
+        return new PagedMemory();
     }
 
     public static Storage<Long, Long> createStorage() {
-        return new DummyStorageV2();
+        return new SlotStorage();
     }
 
 }
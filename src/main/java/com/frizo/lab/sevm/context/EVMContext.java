@@ -2,6 +2,8 @@ package com.frizo.lab.sevm.context;
 
 import com.frizo.lab.sevm.blockchain.Blockchain;
 import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.wal.ChangeSet;
+import com.frizo.lab.sevm.code.DecodedCode;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.common.Constant;
 import com.frizo.lab.sevm.context.block.BlockContext;
@@ -11,76 +13,82 @@ import com.frizo.lab.sevm.context.call.CallType;
 import com.frizo.lab.sevm.context.log.LogEntry;
 import com.frizo.lab.sevm.context.txn.TxnContext;
 import com.frizo.lab.sevm.memory.Memory;
+import com.frizo.lab.sevm.memory.MemoryArena;
 import com.frizo.lab.sevm.op.Opcode;
-import com.frizo.lab.sevm.stack.Stack;
+import com.frizo.lab.sevm.op.SuperInstruction;
+import com.frizo.lab.sevm.stack.LongStack;
 import com.frizo.lab.sevm.stack.call.CallStack;
+import com.frizo.lab.sevm.storage.FrameStorage;
 import com.frizo.lab.sevm.storage.Storage;
+import com.frizo.lab.sevm.storage.TransactionStorage;
+import com.frizo.lab.sevm.trace.ExecutionTracer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Slf4j
 @Getter
 public class EVMContext {
 
     private static final long DEFAULT_GAS_LIMIT = 1000000L;
+    private static final Address ENTRY_ADDRESS = Address.of(0L); // for test, use a dummy address
 
-    // Global context
-    private final BlockContext blockContext;
-    private final TxnContext txnContext;
+    // Global context, built on first use
+    private BlockContext blockContext;
+    private TxnContext txnContext;
+    private Address txOrigin;
 
     // call
     private final CallStack callStack;
-    private final Set<Integer> validJumpDestIdx;
 
     // Blockchain instance for state access (StageDB)
     @Getter
-    private final Blockchain blockchain = BlockChainFactory.getMockStateDB();
+    private final Blockchain blockchain;
 
-    public EVMContext(byte[] bytecode, long initialGas, Address txOrigin) {
-        this.callStack = new CallStack(Constant.MAX_STACK_DEPTH);
-        this.validJumpDestIdx = new HashSet<>();
+    // transaction memory arena, null when frames allocate their own memory
+    private final MemoryArena memoryArena;
 
-        Address contractAddress = Address.of("0x0000000000000000");// for test, use a dummy address
+    // contract storage written by this transaction, flushed to the blockchain by commitStorage()
+    private final TransactionStorage transactionStorage;
 
-        this.blockContext = new BlockContext(blockchain, DEFAULT_GAS_LIMIT);
-        this.txnContext = new TxnContext(blockchain, txOrigin);
+    // state changes committed by this transaction, see SEVM#setWriteAheadLog
+    @Getter
+    private final ChangeSet changes = new ChangeSet();
 
-        // Create the initial call frame
-        CallData callData = CallData.builder()
-                .contractAddress(contractAddress)
-                .caller(txOrigin)
-                .origin(txOrigin)
-                .value(0)
-                .inputData(new byte[0])
-                .inputOffset(0)
-                .inputSize(0)
-                .callType(CallType.CALL)
-                .isStatic(false)
-                .build();
-        CallFrame initialFrame = new CallFrame(
-                bytecode,
-                initialGas,
-                callData
-        );
-        callStack.safePush(initialFrame);
+    // frame the transaction starts in, reinitialized by reset()
+    private final CallFrame entryFrame;
+
+    // diagnostics hooks, no-op unless a tracer is attached
+    private ExecutionTracer tracer = ExecutionTracer.NOOP;
+
+    public EVMContext(byte[] bytecode, long initialGas, Address txOrigin) {
+        this(bytecode, 0, initialGas, txOrigin);
     }
 
     public EVMContext(byte[] bytecode, long value, long initialGas, Address txOrigin) {
-        this.callStack = new CallStack(Constant.MAX_STACK_DEPTH);
-        this.validJumpDestIdx = new HashSet<>();
+        this(bytecode, value, initialGas, txOrigin, null);
+    }
 
-        Address contractAddress = Address.of("0x0000000000000000");// for test, use a dummy address
+    public EVMContext(byte[] bytecode, long value, long initialGas, Address txOrigin, MemoryArena memoryArena) {
+        this(BlockChainFactory.getMockStateDB(), bytecode, value, initialGas, txOrigin, memoryArena);
+    }
 
-        this.blockContext = new BlockContext(blockchain, DEFAULT_GAS_LIMIT);
-        this.txnContext = new TxnContext(blockchain, txOrigin);
+    /**
+     * @param blockchain  state the transaction reads and writes
+     * @param memoryArena arena the frames of this context carve their memory from,
+     *                    null to give each frame its own {@link EVMComponentFactory#createMemory()}
+     */
+    public EVMContext(Blockchain blockchain, byte[] bytecode, long value, long initialGas, Address txOrigin, MemoryArena memoryArena) {
+        this.blockchain = blockchain;
+        this.callStack = new CallStack(Constant.MAX_STACK_DEPTH);
+        this.memoryArena = memoryArena;
+        this.transactionStorage = new TransactionStorage(blockchain);
+        this.txOrigin = txOrigin;
 
         // Create the initial call frame
         CallData callData = CallData.builder()
-                .contractAddress(contractAddress)
+                .contractAddress(ENTRY_ADDRESS)
                 .caller(txOrigin)
                 .origin(txOrigin)
                 .value(value)
@@ -90,20 +98,117 @@ public class EVMContext {
                 .callType(CallType.CALL)
                 .isStatic(false)
                 .build();
-        CallFrame initialFrame = new CallFrame(
+        this.entryFrame = new CallFrame(
                 bytecode,
                 initialGas,
-                callData
+                callData,
+                allocateFrameMemory()
         );
-        callStack.safePush(initialFrame);
+        entryFrame.setStorage(createFrameStorage(entryFrame));
+        callStack.safePush(entryFrame);
+    }
+
+    /**
+     * Start a new transaction on this context, as if it had just been constructed with these arguments.
+     * <p>
+     * The call stack, entry frame (with its operand stack), entry frame storage and the storage cache are reused,
+     * so a simple call allocates next to nothing. The memory arena must have been reset since the last transaction.
+     * Frames, logs and change sets of the previous transaction are cleared and must no longer be used.
+     */
+    public void reset(byte[] bytecode, long value, long initialGas, Address txOrigin) {
+        callStack.clear();
+        transactionStorage.reset();
+        changes.clear();
+        this.txOrigin = txOrigin;
+        this.blockContext = null;
+        this.txnContext = null;
+
+        entryFrame.reset(bytecode, initialGas, ENTRY_ADDRESS, txOrigin, value, allocateFrameMemory());
+        if (entryFrame.getStorage() instanceof FrameStorage storage) {
+            storage.reset();
+        } else {
+            entryFrame.setStorage(createFrameStorage(entryFrame));
+        }
+        callStack.safePush(entryFrame);
+    }
+
+    public BlockContext getBlockContext() {
+        if (blockContext == null) {
+            blockContext = new BlockContext(blockchain, DEFAULT_GAS_LIMIT);
+        }
+        return blockContext;
     }
 
+    public TxnContext getTxnContext() {
+        if (txnContext == null) {
+            txnContext = new TxnContext(blockchain, txOrigin);
+        }
+        return txnContext;
+    }
+
+    public void setTracer(ExecutionTracer tracer) {
+        this.tracer = tracer == null ? ExecutionTracer.NOOP : tracer;
+    }
+
+    public boolean isTracing() {
+        return tracer != ExecutionTracer.NOOP;
+    }
+
+    /**
+     * Memory for a new call frame (not for ICALL frames, which share their caller's memory).
+     */
+    public Memory<Long, Long> allocateFrameMemory() {
+        return memoryArena != null ? memoryArena.allocate() : EVMComponentFactory.createMemory();
+    }
+
+    /**
+     * Release the memory of a frame that has been popped, or was never pushed.
+     */
+    public void releaseFrameMemory(CallFrame frame) {
+        if (frame.getCallType() != CallType.INTERNAL) {
+            frame.getMemory().cleanUp();
+        }
+    }
+
+    /**
+     * Storage for a new call frame (not for ICALL frames, which share their caller's storage),
+     * layered on the storage of the current frame.
+     */
+    public Storage<Long, Long> createFrameStorage(CallFrame frame) {
+        FrameStorage parent = null;
+        if (callStack.size() > 0 && getCurrentFrame().getStorage() instanceof FrameStorage callerStorage) {
+            parent = callerStorage;
+        }
+        return new FrameStorage(transactionStorage, parent, frame::getContractAddress);
+    }
+
+    /**
+     * Fold the storage writes of a popped frame into its caller, or undo them if the frame failed.
+     */
+    public void finishFrameStorage(CallFrame frame, boolean success) {
+        if (frame.getCallType() == CallType.INTERNAL || !(frame.getStorage() instanceof FrameStorage storage)) {
+            return;
+        }
+        if (success) {
+            storage.commit();
+        } else {
+            storage.revert();
+        }
+    }
+
+    /**
+     * The transaction succeeded (the entry frame is the current frame again): write its storage changes to the blockchain.
+     */
+    public void commitStorage() {
+        finishFrameStorage(getCurrentFrame(), true);
+        transactionStorage.commit(changes);
+    }
 
     public CallFrame getCurrentFrame() {
         return callStack.peek();
     }
 
-    public Stack<Long> getCurrentStack() {
+    public LongStack getCurrentStack() {
         return getCurrentFrame().getStack();
     }
 
@@ -119,7 +224,6 @@ public class EVMContext {
         return getCurrentFrame().getCode();
     }
 
-
     public int getCurrentPc() {
         return getCurrentFrame().getPc();
     }
@@ -140,6 +244,10 @@ public class EVMContext {
         getCurrentFrame().consumeGas(amount);
     }
 
+    public void consumeStaticGas(long amount) {
+        getCurrentFrame().consumeStaticGas(amount);
+    }
+
     public void refundGas(long gasRemaining) {
         getCurrentFrame().refundGas(gasRemaining);
     }
@@ -164,6 +272,10 @@ public class EVMContext {
         return getCurrentFrame().getCurrentOp();
     }
 
+    public SuperInstruction getCurrentSuperInstruction() {
+        return getCurrentFrame().getCurrentSuperInstruction();
+    }
+
     public void advanceCurrentPC() {
         getCurrentFrame().advancePC();
     }
@@ -193,10 +305,13 @@ public class EVMContext {
         return result;
     }
 
-    public void revert(String revertReason) {
-        log.warn("[EVMContext] Reverting frame: {}, reason: {}", getCurrentFrame().getFrameId(), revertReason);
-        // TODO recover state with snapshot.
-        //getStorage().revert(snapshot);
+    /**
+     * Undo the blockchain state changes made by a failed frame (and its callees).
+     * Its storage writes are undone by {@link #finishFrameStorage}.
+     */
+    public void revert(CallFrame frame) {
+        log.warn("[EVMContext] Reverting frame: {}, reason: {}", frame.getFrameId(), frame.getRevertReason());
+        blockchain.revertToSnapshot(frame.getSnapshot());
     }
 
     public List<LogEntry> getAllLogs() {
@@ -207,13 +322,8 @@ public class EVMContext {
         this.getCurrentFrame().setByteCode(code);
     }
 
-    public void preExecHandle() {
-        log.info("[EVMContext] Pre-handling bytecode to find valid jump destinations...");
-        for (int i = 0; i < this.getCurrentCode().length; i++) {
-            if (this.getCurrentCode()[i] == Opcode.JUMPDEST.getCode()) {
-                this.getValidJumpDestIdx().add(i);
-            }
-        }
+    public void setCode(DecodedCode code) {
+        this.getCurrentFrame().setCode(code);
     }
 
     public void setValue(long value) {
@@ -1,5 +1,7 @@
 package com.frizo.lab.sevm.context.call;
 
+import com.frizo.lab.sevm.code.CodeCache;
+import com.frizo.lab.sevm.code.DecodedCode;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.common.Constant;
 import com.frizo.lab.sevm.context.EVMComponentFactory;
@@ -8,25 +10,31 @@ import com.frizo.lab.sevm.context.log.LogEntry;
 import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.memory.Memory;
 import com.frizo.lab.sevm.op.Opcode;
-import com.frizo.lab.sevm.stack.Stack;
+import com.frizo.lab.sevm.op.SuperInstruction;
+import com.frizo.lab.sevm.stack.LongStack;
 import com.frizo.lab.sevm.storage.Storage;
+import com.frizo.lab.sevm.utils.NumUtils;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Getter
 public class CallFrame {
 
-    private final String frameId = UUID.randomUUID().toString(); // Unique identifier for the frame, can be used for debugging
+    private static final AtomicLong FRAME_IDS = new AtomicLong();
+    private static final byte[] NO_DATA = new byte[0];
+
+    private long frameId = FRAME_IDS.incrementAndGet(); // Unique identifier for the frame, can be used for debugging
 
     // 64-bit Stack
-    private final Stack<Long> stack;
+    private final LongStack stack;
     private byte[] code;
+    private DecodedCode decodedCode; // pre-decoded form of code, shared by all frames running the same code
     private boolean creationMode; // Indicates if this frame is for contract creation
 
     // Call Data
@@ -52,10 +60,14 @@ public class CallFrame {
     @Setter
     private Memory<Long, Long> memory;
     @Setter
-    private Storage<Long, Long> storage;
+    private Storage<Long, Long> storage; // assigned by the caller before the frame runs, see EVMContext#createFrameStorage
     private int pc;
+    // decoded instruction starting at pc, advanced with pc; while an instruction is dispatched it is already the next one.
+    // -1 when pc points into PUSH data (only reachable through ICALL), such code is run from the raw bytes
+    private int index;
     private long gasRemaining;
     private long gasUsed;
+    private long blockGasPrepaid; // gas already charged for the rest of the current basic block
     private boolean running;
     // Call Result
     private byte[] returnData;
@@ -65,6 +77,9 @@ public class CallFrame {
     private String revertReason;
     @Setter
     private boolean success;
+    // blockchain snapshot taken when the frame was called, reverted to if the frame fails
+    @Setter
+    private long snapshot;
 
     @Getter
     private final CallReturnDataBuffer callReturnBuffer = new CallReturnDataBuffer(); // Data buffer returned from the call
@@ -73,11 +88,23 @@ public class CallFrame {
     private final List<LogEntry> logs = new ArrayList<>();
 
     public CallFrame(byte[] bytecode, long initialGas, CallData callData) {
+        this(bytecode, initialGas, callData, EVMComponentFactory.createMemory());
+    }
+
+    public CallFrame(byte[] bytecode, long initialGas, CallData callData, Memory<Long, Long> memory) {
+        this(CodeCache.get(bytecode), initialGas, callData, memory);
+    }
+
+    /**
+     * @param code code to run, already decoded by the blockchain it was loaded from
+     */
+    public CallFrame(DecodedCode code, long initialGas, CallData callData, Memory<Long, Long> memory) {
         this.contractAddress = callData.getContractAddress();
         this.caller = callData.getCaller();
         this.origin = callData.getOrigin();
         this.value = callData.getValue();
-        this.code = bytecode;
+        this.code = code.getCode();
+        this.decodedCode = code;
 
         this.inputData = callData.getInputData();
         this.inputOffset = callData.getInputOffset();
@@ -87,14 +114,54 @@ public class CallFrame {
         this.isStatic = callData.isStatic();
 
         this.stack = EVMComponentFactory.createStack(Constant.MAX_STACK_DEPTH);
-        this.memory = EVMComponentFactory.createMemory();
-        this.storage = EVMComponentFactory.createStorage();
+        this.memory = memory;
         this.pc = 0;
+        this.index = 0;
         this.gasUsed = 0;
         this.running = true;
         this.success = false;
         this.reverted = false;
-        this.returnData = new byte[0];
+        this.returnData = NO_DATA;
+    }
+
+    /**
+     * Reinitialize this frame as the entry frame of a new transaction, reusing its stack, log list and return buffer.
+     * The storage is kept, see {@link EVMContext#reset}.
+     */
+    public void reset(byte[] bytecode, long initialGas, Address contractAddress, Address origin, long value,
+                      Memory<Long, Long> memory) {
+        this.frameId = FRAME_IDS.incrementAndGet();
+        this.contractAddress = contractAddress;
+        this.caller = origin;
+        this.origin = origin;
+        this.value = value;
+        this.code = bytecode;
+        this.decodedCode = CodeCache.get(bytecode);
+        this.creationMode = false;
+
+        this.inputData = NO_DATA;
+        this.inputOffset = 0;
+        this.inputSize = 0;
+        this.callType = CallType.CALL;
+        this.isStatic = false;
+
+        this.stack.clear();
+        this.memory = memory;
+        this.pc = 0;
+        this.index = 0;
+        this.gasRemaining = initialGas;
+        this.gasUsed = 0;
+        this.blockGasPrepaid = 0;
+        this.running = true;
+        this.success = false;
+        this.reverted = false;
+        this.revertReason = null;
+        this.returnData = NO_DATA;
+        this.returnOffset = 0;
+        this.returnSize = 0;
+        this.snapshot = 0;
+        this.callReturnBuffer.clear();
+        this.logs.clear();
     }
 
     /**
@@ -106,9 +173,10 @@ public class CallFrame {
     public CallFrame(EVMContext parentContext, int jumpAddress, long gasLimit) {
         this.contractAddress = parentContext.getCurrentFrame().getContractAddress();
         this.caller = parentContext.getCurrentFrame().getCaller();
-        this.origin = parentContext.getTxnContext().getTxOrigin();
+        this.origin = parentContext.getTxOrigin();
         this.value = parentContext.getCurrentFrame().getValue();
         this.code = parentContext.getCurrentCode();
+        this.decodedCode = parentContext.getCurrentFrame().getDecodedCode();
         this.inputData = new byte[0];
         this.inputOffset = 0;
         this.inputSize = 0;
@@ -124,11 +192,12 @@ public class CallFrame {
         this.memory = parentContext.getCurrentMemory();
         this.storage = parentContext.getStorage();
         this.pc = jumpAddress;
+        this.index = decodedCode.indexOf(jumpAddress);
 
         this.running = true;
         this.success = false;
         this.reverted = false;
-        this.returnData = new byte[0];
+        this.returnData = NO_DATA;
     }
 
     @Override
@@ -138,6 +207,11 @@ public class CallFrame {
     }
 
     public void consumeGas(long amount) {
+        if (gasRemaining < amount && blockGasPrepaid > 0) {
+            // dynamic gas (e.g. memory expansion) inside a prepaid block: give back the rest of the block
+            // and charge its instructions one by one, so out of gas happens exactly where it would per instruction
+            refundBlockGas();
+        }
         if (gasRemaining < amount) {
             log.warn("Out of gas in frame: {}, gas remaining: {}, required: {}",
                     this.frameId, gasRemaining, amount);
@@ -147,11 +221,41 @@ public class CallFrame {
         gasUsed += amount;
     }
 
+    /**
+     * Charge the static gas of the instruction at pc, before it is dispatched.
+     * Entering a basic block with enough gas charges the whole block at once, its instructions are then free;
+     * otherwise gas is charged per instruction so out of gas still happens at the exact instruction.
+     */
+    public void consumeStaticGas(long amount) {
+        if (blockGasPrepaid == 0) {
+            int current = currentIndex();
+            long blockGas = current < 0 ? 0 : decodedCode.blockGasAt(current);
+            if (blockGas > amount && gasRemaining >= blockGas) {
+                consumeGas(blockGas);
+                blockGasPrepaid = blockGas;
+            }
+        }
+        if (blockGasPrepaid >= amount && blockGasPrepaid > 0) {
+            blockGasPrepaid -= amount;
+        } else {
+            consumeGas(amount);
+        }
+    }
+
+    /**
+     * Give back gas charged for block instructions that never ran (the block was left by an error).
+     */
+    public void refundBlockGas() {
+        if (blockGasPrepaid > 0) {
+            gasRemaining += blockGasPrepaid;
+            gasUsed -= blockGasPrepaid;
+            blockGasPrepaid = 0;
+        }
+    }
+
     public void refundGas(long gasRemaining) {
         this.gasRemaining += gasRemaining;
         this.gasUsed -= gasRemaining;
-        log.info("Refunded {} gas to frame:{}, new gas remaining: {}",
-                gasRemaining, this.frameId, this.gasRemaining);
     }
 
     public void halt() {
@@ -178,19 +282,86 @@ public class CallFrame {
         if (!hasMoreCode()) {
             return Opcode.UNKNOWN;
         }
-        return Opcode.fromByte(code[pc]);
+        int current = currentIndex();
+        return current < 0 ? Opcode.fromByte(code[pc]) : decodedCode.opcodeAt(current);
     }
 
+    public boolean isValidJumpDest(int dest) {
+        return decodedCode.isJumpDest(dest);
+    }
+
+    /**
+     * Superinstruction starting at the current pc, or null if there is none
+     * or the fused sequence cannot run to completion with the current stack and gas.
+     */
+    public SuperInstruction getCurrentSuperInstruction() {
+        int current = currentIndex();
+        SuperInstruction fused = current < 0 ? null : decodedCode.superInstructionAt(current);
+        if (fused == null || !fused.fits(stack.size(), gasRemaining + blockGasPrepaid)) {
+            return null;
+        }
+        return fused;
+    }
+
+    /**
+     * Index of the instruction at pc. Only code run from inside PUSH data looks it up again, once per step.
+     */
+    private int currentIndex() {
+        if (index < 0) {
+            index = decodedCode.indexOf(pc);
+        }
+        return index;
+    }
+
+    /**
+     * Immediate of the PUSH instruction just dispatched (pc already points to its first data byte).
+     */
+    public long getPushValue(int pushSize) {
+        if (index < 0) {
+            return NumUtils.readBytes(code, pc, pushSize);
+        }
+        return decodedCode.immediateAt(index - 1);
+    }
+
+    /**
+     * Move past the opcode byte of the instruction at pc, before it is dispatched.
+     */
     public void advancePC() {
         pc++;
+        if (index >= 0) {
+            index++;
+        }
     }
 
+    /**
+     * Skip the PUSH data of the instruction just dispatched, the index already points to the next instruction.
+     */
     public void advancePC(int count) {
         pc += count;
     }
 
+    /**
+     * Move past {@code count} decoded instructions starting at pc, e.g. a superinstruction.
+     */
+    public void advanceInstructions(int count) {
+        pc = decodedCode.pcAfter(index, count);
+        index += count;
+    }
+
+    /**
+     * Continue at an arbitrary pc (a jump), the only place a pc is mapped back to its instruction.
+     */
     public void updatePC(int newPC) {
         pc = newPC;
+        index = decodedCode.indexOf(newPC);
+    }
+
+    /**
+     * Continue at a pc whose instruction index is already known, e.g. from compiled code.
+     */
+    public void updatePC(int newPC, int newIndex) {
+        pc = newPC;
+        index = newIndex;
     }
 
     public void addLog(LogEntry logEntry) {
@@ -216,6 +387,14 @@ public class CallFrame {
     }
 
     public void setByteCode(byte[] code) {
+        if (this.code != code) {
+            this.decodedCode = CodeCache.get(code);
+        }
         this.code = code;
     }
+
+    public void setCode(DecodedCode code) {
+        this.code = code.getCode();
+        this.decodedCode = code;
+    }
 }
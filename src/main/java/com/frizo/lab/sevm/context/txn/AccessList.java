@@ -0,0 +1,36 @@
+package com.frizo.lab.sevm.context.txn;
+
+import com.frizo.lab.sevm.common.Address;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Addresses and storage slots a transaction declares it will access, in the style of EIP-2930.
+ * <p>
+ * The engine can prefetch them from the state before the transaction runs and loads the declared slots into the
+ * transaction's storage cache when it starts, see {@link com.frizo.lab.sevm.vm.SEVM#prefetch}.
+ */
+@Getter
+public class AccessList {
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public AccessList add(Address address, long... storageKeys) {
+        entries.add(new Entry(address, storageKeys));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Address address;
+        private final long[] storageKeys;
+    }
+}
@@ -127,4 +127,10 @@ public class EVMException extends RuntimeException {
             super("Execution reverted: " + reason);
         }
     }
+
+    public static class TimeoutException extends EVMException {
+        public TimeoutException(long timeoutMillis) {
+            super("Execution timed out after " + timeoutMillis + " ms");
+        }
+    }
 }
@@ -1,37 +1,55 @@
 package com.frizo.lab.sevm.exec;
 
-import com.frizo.lab.sevm.blockchain.impl.MockBlockChain;
 import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.exec.impl.*;
 import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.op.SuperInstruction;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class InstructionDispatcher {
 
-    private final Map<Class<? extends InstructionExecutor>, InstructionExecutor> executors;
+    /**
+     * 256-entry dispatch table: raw opcode byte (0x00 ~ 0xFF) -> bound executor.
+     * Executors are stateless, so one table is built when the class loads and shared by every dispatcher.
+     */
+    private static final InstructionExecutor[] EXECUTORS = buildDispatchTable();
 
+    private static final SuperInstructionExecutor SUPER_INSTRUCTION_EXECUTOR = new SuperInstructionExecutor();
 
-    public InstructionDispatcher() {
-        this.executors = new HashMap<>();
+    private static InstructionExecutor[] buildDispatchTable() {
+        Map<Class<? extends InstructionExecutor>, InstructionExecutor> executors = new HashMap<>();
         // Register all instruction executors
-        this.executors.put(StopExecutor.class, new StopExecutor());
-        this.executors.put(ArithmeticExecutor.class, new ArithmeticExecutor());
-        this.executors.put(MemoryExecutor.class, new MemoryExecutor());
-        this.executors.put(JumpExecutor.class, new JumpExecutor());
-        this.executors.put(DupExecutor.class, new DupExecutor());
-        this.executors.put(PushExecutor.class, new PushExecutor());
-        this.executors.put(StorageExecutor.class, new StorageExecutor());
-        this.executors.put(SwapExecutor.class, new SwapExecutor());
-        this.executors.put(CallExecutor.class, new CallExecutor());
-        this.executors.put(PopExecutor.class, new PopExecutor());
-        this.executors.put(ReturnRevertExecutor.class, new ReturnRevertExecutor());
-        this.executors.put(LogExecutor.class, new LogExecutor());
-        this.executors.put(NumLogicInstruction.class, new NumLogicInstruction());
-        this.executors.put(PrintExecutor.class, new PrintExecutor());
-        this.executors.put(ReturnDataExecutor.class, new ReturnDataExecutor());
-        this.executors.put(CallDataExecutor.class, new CallDataExecutor());
+        executors.put(StopExecutor.class, new StopExecutor());
+        executors.put(ArithmeticExecutor.class, new ArithmeticExecutor());
+        executors.put(MemoryExecutor.class, new MemoryExecutor());
+        executors.put(JumpExecutor.class, new JumpExecutor());
+        executors.put(DupExecutor.class, new DupExecutor());
+        executors.put(PushExecutor.class, new PushExecutor());
+        executors.put(StorageExecutor.class, new StorageExecutor());
+        executors.put(SwapExecutor.class, new SwapExecutor());
+        executors.put(CallExecutor.class, new CallExecutor());
+        executors.put(PopExecutor.class, new PopExecutor());
+        executors.put(ReturnRevertExecutor.class, new ReturnRevertExecutor());
+        executors.put(LogExecutor.class, new LogExecutor());
+        executors.put(NumLogicInstruction.class, new NumLogicInstruction());
+        executors.put(PrintExecutor.class, new PrintExecutor());
+        executors.put(ReturnDataExecutor.class, new ReturnDataExecutor());
+        executors.put(CallDataExecutor.class, new CallDataExecutor());
+
+        InstructionExecutor[] table = new InstructionExecutor[256];
+        for (Opcode opcode : Opcode.values()) {
+            InstructionExecutor executor = executors.get(opcode.getExecutorClass());
+            if (executor == null) {
+                continue;
+            }
+            if (!executor.canHandle(opcode)) {
+                throw new IllegalStateException("Executor " + executor.getClass().getSimpleName() + " cannot handle opcode: " + opcode);
+            }
+            table[opcode.getCode() & 0xFF] = executor;
+        }
+        return table;
     }
 
     public void dispatch(EVMContext context, Opcode opcode) {
@@ -39,16 +57,15 @@ public class InstructionDispatcher {
         executor.execute(context, opcode);
     }
 
-    private InstructionExecutor findExecutor(Opcode opcode) {
-        InstructionExecutor executor = this.executors.get(opcode.getExecutorClass());
+    public void dispatch(EVMContext context, SuperInstruction instruction) {
+        SUPER_INSTRUCTION_EXECUTOR.execute(context, instruction);
+    }
+
+    public static InstructionExecutor findExecutor(Opcode opcode) {
+        InstructionExecutor executor = EXECUTORS[opcode.getCode() & 0xFF];
         if (executor == null) {
             throw new UnsupportedOperationException("No executor found for opcode: " + opcode);
         }
-
-        if (!executor.canHandle(opcode)) {
-            throw new UnsupportedOperationException("Executor " + executor.getClass().getSimpleName() + " cannot handle opcode: " + opcode);
-        }
-
         return executor;
     }
 
@@ -4,8 +4,9 @@ import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionExecutor;
 import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.stack.LongStack;
 
-import java.util.function.BinaryOperator;
+import java.util.function.LongBinaryOperator;
 
 public class ArithmeticExecutor implements InstructionExecutor {
 
@@ -20,14 +21,15 @@ public class ArithmeticExecutor implements InstructionExecutor {
         }
     }
 
-    private void binaryOp(EVMContext context, BinaryOperator<Long> op) {
-        if (context.getCurrentStack().size() < 2) {
+    private void binaryOp(EVMContext context, LongBinaryOperator op) {
+        LongStack stack = context.getCurrentStack();
+        if (stack.size() < 2) {
             throw new EVMException.StackUnderflowException();
         }
-        long b = context.getCurrentStack().safePop();
-        long a = context.getCurrentStack().safePop();
-        long result = op.apply(a, b);
-        context.getCurrentStack().safePush(result);
+        long b = stack.popLong();
+        long a = stack.popLong();
+        long result = op.applyAsLong(a, b);
+        stack.pushLong(result);
     }
 
     @Override
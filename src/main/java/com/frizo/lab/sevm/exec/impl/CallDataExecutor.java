@@ -6,13 +6,10 @@ import com.frizo.lab.sevm.exec.InstructionExecutor;
 import com.frizo.lab.sevm.op.Opcode;
 import com.frizo.lab.sevm.utils.MemoryUtils;
 import com.frizo.lab.sevm.utils.NumUtils;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 public class CallDataExecutor implements InstructionExecutor {
     @Override
     public void execute(EVMContext context, Opcode opcode) {
-        log.info("[CallDataExecutor] Executing Opcode: {}", opcode);
         switch (opcode) {
             case CALLDATALOAD:
                 callDataLoad(context);
@@ -32,7 +29,6 @@ public class CallDataExecutor implements InstructionExecutor {
     private void callDataSize(EVMContext context) {
         long callDataSize = context.getCurrentFrame().getInputSize();
         context.getCurrentFrame().getStack().safePush(callDataSize);
-        log.info("[CallDataExecutor] CALLDATASIZE: {}", callDataSize);
     }
 
     // memory[destOffset:destOffset+length] = msg.data[offset:offset+length]
@@ -57,7 +53,6 @@ public class CallDataExecutor implements InstructionExecutor {
 
         // Copy data from calldata to memory
         MemoryUtils.write(context, destOffset, dataToCopy);
-        log.info("[CallDataExecutor] CALLDATACOPY: Copied {} bytes from calldata to memory at offset {}", length, destOffset);
     }
 
     // msg.data[i:i+32]
@@ -78,7 +73,6 @@ public class CallDataExecutor implements InstructionExecutor {
         long value = NumUtils.readBytes(inputData, offset, 8);
 
         context.getCurrentFrame().getStack().safePush(value);
-        log.info("[CallDataExecutor] CALLDATALOAD: Loaded value {} at offset {}", value, offset);
     }
 
     @Override
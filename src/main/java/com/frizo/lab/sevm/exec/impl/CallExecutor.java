@@ -1,5 +1,6 @@
 package com.frizo.lab.sevm.exec.impl;
 
+import com.frizo.lab.sevm.code.DecodedCode;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.context.call.CallData;
@@ -9,10 +10,8 @@ import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionExecutor;
 import com.frizo.lab.sevm.op.Opcode;
 import com.frizo.lab.sevm.stack.Stack;
-import com.frizo.lab.sevm.stack.call.CallStack;
 import com.frizo.lab.sevm.utils.MemoryUtils;
 import com.frizo.lab.sevm.utils.NumUtils;
-import com.frizo.lab.sevm.vm.SimpleEVM;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -20,8 +19,6 @@ public class CallExecutor implements InstructionExecutor {
 
     @Override
     public void execute(EVMContext context, Opcode opcode) {
-        log.info("[CallExecutor] Executing: {}", opcode);
-
         switch (opcode) {
             case CALL:
                 executeCall(context);
@@ -69,13 +66,10 @@ public class CallExecutor implements InstructionExecutor {
         long retOffset = stack.safePop();
         long retSize = stack.safePop();
 
-        log.info("[CallExecutor] CALL - gas: {}, contractAddress: {}, value: {}", gas, contractAddress, value);
-
         // read the call data from memory.
         byte[] callData = MemoryUtils.read(context, argsOffset, argsSize);
-        log.info("[CallExecutor] CALL - load callData from memory: {}", callData);
         // load the contract code for the given contractAddress.
-        byte[] contractCode;
+        DecodedCode contractCode;
         try {
             contractCode = loadContractCode(context, contractAddress);
         } catch (EVMException ex) {
@@ -99,19 +93,13 @@ public class CallExecutor implements InstructionExecutor {
                         .inputSize(argsSize)
                         .callType(CallType.CALL)
                         .isStatic(false)
-                        .build()
+                        .build(),
+                context.allocateFrameMemory()
         );
+        newFrame.setStorage(context.createFrameStorage(newFrame));
 
-        boolean success = executeCallFrame(context, newFrame, gas);
-
-        if (success && newFrame.getReturnData().length > 0) {
-            //log.info("[CallExecutor] CALL - write CALL contract return data to memory at offset: {}, size: {}", retOffset, newFrame.getReturnData().length);
-            //MemoryUtils.write(context, retOffset, newFrame.getReturnData());
-        }
-
-        // Push the success status onto the stack
-        stack.safePush(success ? 1L : 0);
-
+        // the interpreter loop runs the new frame, returnFromCall pushes the success status
+        startCall(context, newFrame, gas);
     }
 
     /**
@@ -131,18 +119,12 @@ public class CallExecutor implements InstructionExecutor {
         int jumpPC = Math.toIntExact(stack.safePop());
         long gas = stack.safePop();
 
-        log.info("[CallExecutor] ICALL - jumpPC: {}, gas: {}", jumpPC, gas);
-
         // InternalCall: jump to same contract another function.
         // stack, memory, storage, and other context remain the same.
         CallFrame newFrame = new CallFrame(context, jumpPC, gas);
 
-        boolean success = executeCallFrame(context, newFrame, gas);
-
-        // Internal calls do not return data, but we still need to handle the success status.
-        if (!success) {
-            throw new EVMException.CallInternalException("Internal call failed");
-        }
+        // Internal calls do not return data, returnFromCall fails the caller if the call fails.
+        startCall(context, newFrame, gas);
     }
 
     /**
@@ -171,12 +153,10 @@ public class CallExecutor implements InstructionExecutor {
         long retOffset = stack.safePop();
         long retSize = stack.safePop();
 
-        log.info("[CallExecutor] STATICCALL - gas: {}, contractAddress: {}", gas, contractAddress);
-
         // STATICCALL read-only
         byte[] callData = MemoryUtils.read(context, argsOffset, argsSize);
 
-        byte[] contractCode;
+        DecodedCode contractCode;
         try {
             contractCode = loadContractCode(context, contractAddress);
         } catch (EVMException ex) {
@@ -199,17 +179,13 @@ public class CallExecutor implements InstructionExecutor {
                         .inputSize(argsSize)
                         .callType(CallType.STATICCALL)
                         .isStatic(true) // Static call
-                        .build()
+                        .build(),
+                context.allocateFrameMemory()
         );
+        newFrame.setStorage(context.createFrameStorage(newFrame));
 
-        boolean success = executeCallFrame(context, newFrame, gas);
-
-        if (success && newFrame.getReturnData().length > 0) {
-            //log.info("[CallExecutor] STATICCALL - write STATICCALL contract return data to memory at offset: {}, size: {}", retOffset, newFrame.getReturnData().length);
-            //MemoryUtils.write(context, retOffset, newFrame.getReturnData());
-        }
-
-        stack.safePush(success ? 1L : 0);
+        // the interpreter loop runs the new frame, returnFromCall pushes the success status
+        startCall(context, newFrame, gas);
     }
 
     /**
@@ -238,12 +214,10 @@ public class CallExecutor implements InstructionExecutor {
         long retOffset = stack.safePop();
         long retSize = stack.safePop();
 
-        log.info("[CallExecutor] DELEGATECALL - gas: {}, contractAddress: {}", gas, contractAddress);
-
         // DELEGATECALL keep all current context （msg.sender, msg.value, storage）
         byte[] callData = MemoryUtils.read(context, argsOffset, argsSize);
 
-        byte[] contractCode;
+        DecodedCode contractCode;
         try {
             contractCode = loadContractCode(context, contractAddress);
         } catch (EVMException ex) {
@@ -266,19 +240,15 @@ public class CallExecutor implements InstructionExecutor {
                         .inputSize(argsSize)
                         .callType(CallType.DELEGATECALL)
                         .isStatic(currentFrame.isStatic())
-                        .build());
-
-        // share storage and memory with current frame (DELEGATECALL Critical Feature)
-        newFrame.setStorage(currentFrame.getStorage());
+                        .build(),
+                context.allocateFrameMemory());
 
-        boolean success = executeCallFrame(context, newFrame, gas);
+        // storage of the current contract (DELEGATECALL Critical Feature): the frame keeps the caller's address,
+        // its writes are folded into the caller's storage when it returns successfully
+        newFrame.setStorage(context.createFrameStorage(newFrame));
 
-        if (success && newFrame.getReturnData().length > 0) {
-            //log.info("[CallExecutor] DELEGATECALL - write DELEGATECALL contract return data to memory at offset: {}, size: {}", retOffset, newFrame.getReturnData().length);
-            //MemoryUtils.write(context, retOffset, newFrame.getReturnData());
-        }
-
-        stack.safePush(success ? 1L : 0);
+        // the interpreter loop runs the new frame, returnFromCall pushes the success status
+        startCall(context, newFrame, gas);
     }
 
     /**
@@ -305,11 +275,9 @@ public class CallExecutor implements InstructionExecutor {
         long retOffset = stack.safePop();
         long retSize = stack.safePop();
 
-        log.info("[CallExecutor] CALLCODE - gas: {}, contractAddress : {}, value: {}", gas, contractAddress, value);
-
         byte[] callData = MemoryUtils.read(context, argsOffset, argsSize);
 
-        byte[] contractCode;
+        DecodedCode contractCode;
         try {
             contractCode = loadContractCode(context, contractAddress);
         } catch (EVMException ex) {
@@ -333,20 +301,15 @@ public class CallExecutor implements InstructionExecutor {
                         .inputSize(argsSize)
                         .callType(CallType.CALLCODE)
                         .isStatic(false)
-                        .build());
+                        .build(),
+                context.allocateFrameMemory());
 
         // share storage（CALLCODE Critical Feature）
-        // CALLCODE does not change the storage, it uses the current contract's storage
-        newFrame.setStorage(currentFrame.getStorage());
+        // CALLCODE does not change the storage, it uses the current contract's storage (the frame keeps its address)
+        newFrame.setStorage(context.createFrameStorage(newFrame));
 
-        boolean success = executeCallFrame(context, newFrame, gas);
-
-        if (success && newFrame.getReturnData().length > 0) {
-            //log.info("[CallExecutor] CALLCODE - write CALLCODE contract return data to memory at offset: {}, size: {}", retOffset, newFrame.getReturnData().length);
-            //MemoryUtils.write(context, retOffset, newFrame.getReturnData());
-        }
-
-        stack.safePush(success ? 1L : 0);
+        // the interpreter loop runs the new frame, returnFromCall pushes the success status
+        startCall(context, newFrame, gas);
     }
 
     @Override
@@ -360,12 +323,11 @@ public class CallExecutor implements InstructionExecutor {
      *
      * @param context
      * @param contractAddress contract address
-     * @return the contract code as a byte array
+     * @return the decoded contract code
      */
-    private byte[] loadContractCode(EVMContext context, Address contractAddress) {
-        log.info("[CallExecutor] Loading contract code for contractAddress: {}", contractAddress);
+    private DecodedCode loadContractCode(EVMContext context, Address contractAddress) {
         try {
-            return context.getBlockchain().loadCode(contractAddress);
+            return context.getBlockchain().loadDecodedCode(contractAddress);
         } catch (Exception e) {
             log.error("[CallExecutor] Failed to load contract code for address {}: {}", contractAddress, e.getMessage());
             throw new EVMException.ContractNotFoundException("Contract not found at address: " + contractAddress);
@@ -373,105 +335,79 @@ public class CallExecutor implements InstructionExecutor {
     }
 
     /**
-     * Executes a call frame in the EVM context.
-     * This method simulates the execution of a call frame, pushing it onto the call stack
+     * Transfers gas to the new frame and pushes it onto the call stack.
+     * The frame is not run here: the interpreter loop picks it up as the current frame,
+     * and calls {@link #returnFromCall(EVMContext)} once it halts or runs out of code.
      *
      * @param context
      * @param frame
-     * @return
      */
-    private boolean executeCallFrame(EVMContext context, CallFrame frame, long transferGas) {
+    private void startCall(EVMContext context, CallFrame frame, long transferGas) {
+        // O(1): the journal length, reverting undoes only the changes made by this call
+        frame.setSnapshot(context.getBlockchain().takeSnapshot());
         try {
-
             // transfer gas to the frame
-            log.info("[CallExecutor] Transferring {} gas to new frame: {}", transferGas, frame.getFrameId());
             context.consumeGas(transferGas);
-
-            CallStack callStack = context.getCallStack();
-
-            // ----------------------------------------------------->>>
-            // Push the frame onto the call stack
-            callStack.safePush(frame);
-            log.info("[CallExecutor] Starting execution of frame contract address: {}", frame.getContractAddress());
-            // this func won't throw an exception, but will return false if execution fails
-            boolean success = executeFrameCode(context, frame);
-            callStack.safePop();
-            // <<-----------------------------------------------------
-
-            // refund the remaining gas to the frame
-            context.refundGas(frame.getGasRemaining());
-
-            log.info("[CallExecutor] Frame execution completed. Success: {}, Reverted: {}",
-                    success, frame.isReverted());
-
-            // process reverted frame
-            if (frame.isReverted()) {
-                log.warn("[CallExecutor] Frame execution reverted: {}", frame.getRevertReason());
-                // If the frame is reverted, we can handle it here (e.g., log, revert state changes, etc.)
-                // For now, we just return false to indicate failure.
-                context.revert(frame.getRevertReason());
-                return false;
-            }
-
-            return success;
-        } catch (Exception e) {
+        } catch (EVMException e) {
             log.error("[CallExecutor] Call execution failed: {}", e.getMessage());
+            context.releaseFrameMemory(frame);
+            completeCall(context, frame, false);
+            return;
+        }
 
-            // make sure to pop the frame from the call stack
-            if (!context.getCallStack().isEmpty()) {
-                try {
-                    context.getCallStack().safePop();
-                } catch (Exception popException) {
-                    log.warn("[CallExecutor] Failed to pop frame during error handling");
-                }
-            }
-
-            return false;
+        try {
+            context.getCallStack().safePush(frame);
+        } catch (EVMException.CallStackOverFlowException e) {
+            log.error("[CallExecutor] Call execution failed: {}", e.getMessage());
+            context.refundGas(transferGas);
+            context.releaseFrameMemory(frame);
+            completeCall(context, frame, false);
+            return;
         }
     }
 
-    private boolean executeFrameCode(EVMContext context, CallFrame frame) {
-        log.info("[CallExecutor] Executing contract - {} bytecode for frame: {}", frame.getContractAddress(), frame.getFrameId());
+    /**
+     * Pops the finished frame on top of the call stack, refunds its remaining gas to the caller,
+     * and resumes the caller with the call result.
+     *
+     * @param context
+     */
+    public static void returnFromCall(EVMContext context) {
+        CallFrame frame = context.getCurrentFrame();
+
+        // if the frame is still running and has no more code to execute,
+        if (frame.isRunning() && !frame.hasMoreCode()) {
+            frame.setSuccess(true);
+            frame.halt();
+        }
+        boolean success = frame.isSuccess();
 
-        try {
+        context.getCallStack().safePop();
+        context.releaseFrameMemory(frame);
 
-            log.info("<executeFrameCode> --------------- ⚠⚠⚠ Context Content Check before run ⚠⚠⚠ ---------------");
-            System.out.println("⚡ Available Gas ⚡: " + context.getGasRemaining());
-            context.getCurrentStack().printStack();
-            context.getCurrentMemory().printMemory();
-            context.getStorage().printStorage();
-            log.info("<executeFrameCode> --------------- ⚠⚠⚠ Context Content Check before run ⚠⚠⚠ ---------------");
+        // refund the remaining gas to the frame
+        context.refundGas(frame.getGasRemaining());
 
-            SimpleEVM evm = new SimpleEVM(context);
-            evm.run();
+        // process reverted frame
+        if (frame.isReverted()) {
+            log.debug("[CallExecutor] Frame execution reverted: {}", frame.getRevertReason());
+            context.revert(frame);
+            success = false;
+        }
+        // keep the frame's storage writes only if it succeeded
+        context.finishFrameStorage(frame, success);
 
-            log.info("[CallExecutor] Frame execution finished. Gas used: {}, PC: {}",
-                    frame.getGasUsed(), frame.getFrameId());
+        completeCall(context, frame, success);
+    }
 
-            // if the frame is still running and has no more code to execute,
-            if (frame.isRunning() && !frame.hasMoreCode()) {
-                frame.setSuccess(true);
-                frame.halt();
+    private static void completeCall(EVMContext context, CallFrame frame, boolean success) {
+        if (frame.getCallType() == CallType.INTERNAL) {
+            if (!success) {
+                throw new EVMException.CallInternalException("Internal call failed");
             }
-
-            return frame.isSuccess();
-
-        } catch (EVMException.OutOfGasException e) {
-            log.warn("[CallExecutor] {}", e.getMessage());
-            frame.setReverted(true, "Out of gas");
-            return false;
-        } catch (EVMException.InvalidJumpException e) {
-            log.warn("[CallExecutor] {}", e.getMessage());
-            frame.setReverted(true, "Invalid jump destination");
-            return false;
-        } catch (EVMException.StackUnderflowException e) {
-            log.warn("[CallExecutor] {}", e.getMessage());
-            frame.setReverted(true, "Stack underflow");
-            return false;
-        } catch (Exception e) {
-            log.error("[CallExecutor] {}", e.getMessage());
-            frame.setReverted(true, "Execution error: " + e.getMessage());
-            return false;
+            return;
         }
+        // Push the success status onto the caller's stack
+        context.getCurrentStack().safePush(success ? 1L : 0);
     }
 }
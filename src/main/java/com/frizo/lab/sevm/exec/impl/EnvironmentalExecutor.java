@@ -13,7 +13,6 @@ public class EnvironmentalExecutor implements InstructionExecutor {
 
     @Override
     public void execute(EVMContext context, Opcode opcode) {
-        log.info("[EnvironmentalExecutor] Executing opcode: {}", opcode);
         switch (opcode) {
             case ADDRESS:
                 processAddress(context);
@@ -36,7 +35,6 @@ public class EnvironmentalExecutor implements InstructionExecutor {
     private void processAddress(EVMContext context) {
         Address contractAddress = context.getCurrentFrame().getContractAddress();
         context.getCurrentStack().safePush(contractAddress.getAddressLong());
-        log.info("[EnvironmentalExecutor] ADDRESS: convert address[{}] to value[{}] and push into stack.", contractAddress, contractAddress.getAddressLong());
     }
 
     private void processBalance(EVMContext context) {
@@ -55,7 +53,6 @@ public class EnvironmentalExecutor implements InstructionExecutor {
     private void processCaller(EVMContext context) {
         Address callerAddress = context.getCurrentFrame().getCaller();
         context.getCurrentStack().safePush(callerAddress.getAddressLong());
-        log.info("[EnvironmentalExecutor] CALLER: convert caller address[{}] to value[{}] and push into stack.", callerAddress, callerAddress.getAddressLong());
 
     }
 
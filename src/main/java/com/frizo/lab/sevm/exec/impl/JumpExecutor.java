@@ -3,42 +3,45 @@ package com.frizo.lab.sevm.exec.impl;
 import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionExecutor;
+import com.frizo.lab.sevm.jit.JitTier;
 import com.frizo.lab.sevm.op.Opcode;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 public class JumpExecutor implements InstructionExecutor {
     @Override
     public void execute(EVMContext context, Opcode opcode) {
         switch (opcode) {
             case JUMPDEST -> {
-                log.info("[JumpExecutor] <JUMPDEST> located, pc: {}", context.getCurrentPc());
                 // JUMPDEST does not affect stack or pc, just marks a valid jump destination
                 // No action needed here, just for validation
             }
 
             case JUMP -> {
-                int destIdx = Math.toIntExact(context.getCurrentStack().safePop());
+                int destIdx = Math.toIntExact(context.getCurrentStack().popLong());
                 requiredValidJump(context, destIdx);
-                Opcode targetOp = Opcode.fromByte(context.getCurrentCode()[destIdx]);
-                log.info("[JumpExecutor] <JUMP> to destination index: {}, tartget:{}", destIdx, targetOp);
+                recordBackwardJump(context, destIdx);
                 context.updateCurrentPC(destIdx); // set pc to the destination index
             }
             case JUMPI -> {
-                int dest = Math.toIntExact(context.getCurrentStack().safePop());
-                long condition = context.getCurrentStack().safePop();
+                int dest = Math.toIntExact(context.getCurrentStack().popLong());
+                long condition = context.getCurrentStack().popLong();
                 if (condition != 0) {
                     requiredValidJump(context, dest);
-                    Opcode targetOp = Opcode.fromByte(context.getCurrentCode()[dest]);
-                    log.info("[JumpExecutor] <JUMPI> to destination index: {}, target: {}", dest, targetOp);
+                    recordBackwardJump(context, dest);
                     context.updateCurrentPC(dest); // set pc to the destination index if condition is true
                 }
             }
         }
     }
 
+    private void recordBackwardJump(EVMContext context, int dest) {
+        // pc already points past the JUMP / JUMPI
+        if (dest < context.getCurrentPc()) {
+            JitTier.recordBackwardJump(context.getCurrentFrame().getDecodedCode());
+        }
+    }
+
     private void requiredValidJump(EVMContext context, int destIdx) {
-        if (!context.getValidJumpDestIdx().contains(destIdx)) {
+        if (!context.getCurrentFrame().isValidJumpDest(destIdx)) {
             throw new EVMException.InvalidJumpException();
         }
     }
@@ -8,12 +8,10 @@ import com.frizo.lab.sevm.exec.InstructionExecutor;
 import com.frizo.lab.sevm.op.Opcode;
 import com.frizo.lab.sevm.stack.Stack;
 import com.frizo.lab.sevm.utils.MemoryUtils;
-import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.List;
 
-@Slf4j
 public class LogExecutor implements InstructionExecutor {
 
     /**
@@ -25,7 +23,6 @@ public class LogExecutor implements InstructionExecutor {
      */
     @Override
     public void execute(EVMContext context, Opcode opcode) {
-        log.info("[LogExecutor] Executing: {}", opcode);
         int logIndex = getLogIndex(opcode);
         if (logIndex > 4 || logIndex < 0) {
             throw new IllegalArgumentException("Invalid log index: " + logIndex + ". Must be between 0 and 4.");
@@ -62,8 +59,7 @@ public class LogExecutor implements InstructionExecutor {
 
         // 5. Append to current frame logs
         callFrame.addLog(logEntry);
-
-        log.info("[LogExecutor] Emitted log entry: {}", logEntry);
+        context.getTracer().onLog(callFrame, logEntry);
     }
 
     private int getLogIndex(Opcode opcode) {
@@ -1,12 +1,11 @@
 package com.frizo.lab.sevm.exec.impl;
 
+import com.frizo.lab.sevm.common.Constant;
 import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionExecutor;
 import com.frizo.lab.sevm.op.Opcode;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 public class MemoryExecutor implements InstructionExecutor {
 
     @Override
@@ -14,26 +13,50 @@ public class MemoryExecutor implements InstructionExecutor {
         switch (opcode) {
             case MSTORE -> {
                 // 8 bytes as default size for MSTORE
-                long offset = context.getCurrentStack().safePop();
-                long value = context.getCurrentStack().safePop();
+                long offset = context.getCurrentStack().popLong();
+                long value = context.getCurrentStack().popLong();
+                context.consumeGas(context.getCurrentMemory().expansionGas(offset, 8));
                 context.getCurrentMemory().put(offset, 8, value);
-                log.debug("[MemoryExecutor] MSTORE: offset={}, value={}", offset, value);
             }
             case MLOAD -> {
                 // 8 bytes as default size for MLOAD
-                long offset = context.getCurrentStack().safePop();
+                long offset = context.getCurrentStack().popLong();
+                context.consumeGas(context.getCurrentMemory().expansionGas(offset, 8));
                 long value = context.getCurrentMemory().get(offset, 8);
-                context.getCurrentStack().safePush(value);
-                log.debug("[MemoryExecutor] MLOAD: offset={}, value={}", offset, value);
+                context.getCurrentStack().pushLong(value);
             }
+            case MCOPY -> memoryCopy(context);
             default -> throw new EVMException.UnknownOpcodeException(opcode);
         }
     }
 
+    private void memoryCopy(EVMContext context) {
+        if (context.getCurrentStack().size() < 3) {
+            throw new EVMException.StackUnderflowException("MCOPY requires at least three values on the stack");
+        }
+
+        long destOffset = context.getCurrentStack().popLong();
+        long offset = context.getCurrentStack().popLong();
+        long length = context.getCurrentStack().popLong();
+
+        if (destOffset < 0 || offset < 0 || length < 0 || Math.max(destOffset, offset) + length < 0) {
+            throw new IndexOutOfBoundsException("MCOPY out of bounds: destOffset=" + destOffset + ", offset=" + offset + ", length=" + length);
+        }
+        if (length == 0) {
+            return;
+        }
+
+        // expansion covers the further of the two ranges, plus a per-word copy cost
+        long words = (length + 7) >>> 3;
+        context.consumeGas(context.getCurrentMemory().expansionGas(Math.max(destOffset, offset), length));
+        context.consumeGas(Constant.MEMORY_COPY_WORD_GAS * words);
+        context.getCurrentMemory().copy(destOffset, offset, length);
+    }
+
     @Override
     public boolean canHandle(Opcode opcode) {
         return switch (opcode) {
-            case MSTORE, MLOAD -> true;
+            case MSTORE, MLOAD, MCOPY -> true;
             default -> false;
         };
     }
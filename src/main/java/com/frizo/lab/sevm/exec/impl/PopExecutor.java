@@ -4,22 +4,16 @@ import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionExecutor;
 import com.frizo.lab.sevm.op.Opcode;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 public class PopExecutor implements InstructionExecutor {
 
     @Override
     public void execute(EVMContext context, Opcode opcode) {
-        log.info("[PopExecutor] Executing: {}", opcode);
-
         // Pop the top item from the stack
         if (context.getCurrentStack().isEmpty()) {
             throw new EVMException.StackUnderflowException("Stack underflow: POP requires at least one item on the stack");
         }
-        long p = context.getCurrentStack().safePop();
-
-        log.info("[PopExecutor] POP:{}, current Stack size: {}", p, context.getCurrentStack().size());
+        context.getCurrentStack().popLong();
     }
 
     @Override
@@ -6,21 +6,16 @@ import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionExecutor;
 import com.frizo.lab.sevm.op.Opcode;
 import com.frizo.lab.sevm.utils.MemoryUtils;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 public class ReturnDataExecutor implements InstructionExecutor {
 
     @Override
     public void execute(EVMContext context, Opcode opcode) {
-        log.info("[ReturnDataExecutor] Executing opcode: {}", opcode);
-
         CallReturnDataBuffer buffer = context.getCurrentFrame().getCallReturnBuffer();
         switch (opcode) {
             case RETURNDATASIZE:
                 // Push the size of the return data onto the stack
                 long returnSize = buffer.getReturnSize();
-                log.info("[ReturnDataExecutor] RETURNDATASIZE: the return size is [{}]", returnSize);
                 context.getCurrentStack().safePush(returnSize);
                 break;
 
@@ -35,9 +30,6 @@ public class ReturnDataExecutor implements InstructionExecutor {
                 long returnDataOffset = context.getCurrentStack().safePop(); // offset
                 long length = context.getCurrentStack().safePop();           // size
 
-                log.info("[ReturnDataExecutor] RETURNDATACOPY - memoryOffset: {}, returnDataOffset: {}, length: {}",
-                        memoryOffset, returnDataOffset, length);
-
                 if (buffer.getReturnSize() == 0) {
                     return;
                 }
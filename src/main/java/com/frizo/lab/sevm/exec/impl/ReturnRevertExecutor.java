@@ -7,14 +7,10 @@ import com.frizo.lab.sevm.op.Opcode;
 import com.frizo.lab.sevm.stack.Stack;
 import com.frizo.lab.sevm.utils.MemoryUtils;
 import com.frizo.lab.sevm.utils.NumUtils;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 public class ReturnRevertExecutor implements InstructionExecutor {
     @Override
     public void execute(EVMContext context, Opcode opcode) {
-        log.info("[ReturnExecutor] Executing: {}", opcode);
-
         switch (opcode) {
             case RETURN:
                 executeReturn(context);
@@ -44,8 +40,6 @@ public class ReturnRevertExecutor implements InstructionExecutor {
         long offset = stack.safePop();
         long size = stack.safePop();
 
-        log.info("[ReturnExecutor] RETURN - offset: {}, size: {}", offset, size);
-
         // read memory data based on offset and size
         byte[] returnData = MemoryUtils.read(context, offset, size);
 
@@ -53,8 +47,6 @@ public class ReturnRevertExecutor implements InstructionExecutor {
         currentFrame.setReturnData(returnData, offset, size);
         currentFrame.setSuccess(true);
         currentFrame.halt();
-
-        log.info("[ReturnExecutor] Return data:{}, size: {}", NumUtils.bytesToHex(returnData), returnData.length);
     }
 
     private void executeRevert(EVMContext context) {
@@ -68,18 +60,13 @@ public class ReturnRevertExecutor implements InstructionExecutor {
         long offset = stack.safePop();
         long size = stack.safePop();
 
-        log.info("[ReturnExecutor] REVERT - offset: {}, size: {}", offset, size);
-
         // read memory data based on offset and size
         byte[] revertData = MemoryUtils.read(context, offset, size);
-        log.info("[ReturnExecutor] REVERT data: {}", NumUtils.bytesToHex(revertData));
         String revertReason = NumUtils.bytesToString(revertData, 8);
 
         // set revert reason in the current frame
         currentFrame.setReverted(true, revertReason);
         currentFrame.setSuccess(false);
         currentFrame.halt();
-
-        log.info("[ReturnExecutor] Revert reason: {}", revertReason);
     }
 }
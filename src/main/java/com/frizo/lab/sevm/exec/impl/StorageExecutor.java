@@ -11,16 +11,18 @@ public class StorageExecutor implements InstructionExecutor {
         switch (opcode) {
             case SSTORE -> {
                 // Default storage size is 8 bytes
-                long offset = context.getCurrentStack().safePop();
-                long value = context.getCurrentStack().safePop();
+                long offset = context.getCurrentStack().popLong();
+                long value = context.getCurrentStack().popLong();
                 context.getStorage().put(offset, 8, value);
+                context.getTracer().onStorageWrite(context.getCurrentFrame(), offset, value);
             }
 
             case SLOAD -> {
                 // Default storage size is 8 bytes
-                long offset = context.getCurrentStack().safePop();
+                long offset = context.getCurrentStack().popLong();
                 long value = context.getStorage().get(offset, 8);
-                context.getCurrentStack().safePush(value);
+                context.getTracer().onStorageRead(context.getCurrentFrame(), offset, value);
+                context.getCurrentStack().pushLong(value);
             }
         }
     }
@@ -0,0 +1,72 @@
+package com.frizo.lab.sevm.exec.impl;
+
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.context.EVMContext;
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.exception.EVMException;
+import com.frizo.lab.sevm.jit.JitTier;
+import com.frizo.lab.sevm.op.SuperInstruction;
+import com.frizo.lab.sevm.stack.LongStack;
+
+/**
+ * Executes a {@link SuperInstruction} in one step, with the same result as running its opcodes one by one
+ * through {@link PushExecutor}, {@link DupExecutor}, {@link ArithmeticExecutor}, {@link NumLogicInstruction},
+ * {@link StorageExecutor} and {@link JumpExecutor}.
+ * <p>
+ * Gas and stack bounds are checked by the interpreter before dispatch ({@link SuperInstruction#fits}),
+ * pc and the frame's instruction index point to the first fused instruction on entry.
+ */
+public class SuperInstructionExecutor {
+
+    public void execute(EVMContext context, SuperInstruction instruction) {
+        CallFrame frame = context.getCurrentFrame();
+        DecodedCode code = frame.getDecodedCode();
+        int index = frame.getIndex();
+        int length = instruction.getLength();
+        int nextPc = code.pcAfter(index, length);
+        LongStack stack = frame.getStack();
+
+        switch (instruction) {
+            case PUSH_JUMP -> jump(context, frame, (int) code.immediateAt(index), nextPc);
+            case PUSH_JUMPI -> {
+                long condition = stack.popLong();
+                if (condition != 0) {
+                    jump(context, frame, (int) code.immediateAt(index), nextPc);
+                } else {
+                    frame.advanceInstructions(length);
+                }
+            }
+            case PUSH_ADD -> {
+                stack.pushLong(stack.popLong() + code.immediateAt(index));
+                frame.advanceInstructions(length);
+            }
+            case PUSH_SUB -> {
+                stack.pushLong(stack.popLong() - code.immediateAt(index));
+                frame.advanceInstructions(length);
+            }
+            case PUSH_SLOAD -> {
+                // Default storage size is 8 bytes
+                stack.pushLong(context.getStorage().get(code.immediateAt(index), 8));
+                frame.advanceInstructions(length);
+            }
+            case SELECTOR_JUMPI -> {
+                long selector = code.immediateAt(index + 1);
+                if (stack.peekLong(0) == selector) {
+                    jump(context, frame, (int) code.immediateAt(index + 3), nextPc);
+                } else {
+                    frame.advanceInstructions(length);
+                }
+            }
+        }
+    }
+
+    private void jump(EVMContext context, CallFrame frame, int dest, int nextPc) {
+        if (!frame.isValidJumpDest(dest)) {
+            throw new EVMException.InvalidJumpException();
+        }
+        if (dest < nextPc) {
+            JitTier.recordBackwardJump(frame.getDecodedCode());
+        }
+        frame.updatePC(dest);
+    }
+}
@@ -0,0 +1,13 @@
+package com.frizo.lab.sevm.jit;
+
+import com.frizo.lab.sevm.context.EVMContext;
+import com.frizo.lab.sevm.context.call.CallFrame;
+
+/**
+ * Contract code translated to a JVM class by {@link JitCompiler}.
+ * Runs the frame from pc 0 until it halts or runs off the end of the code.
+ */
+public interface CompiledCode {
+
+    void run(EVMContext context, CallFrame frame);
+}
@@ -0,0 +1,292 @@
+package com.frizo.lab.sevm.jit;
+
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.context.EVMContext;
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.stack.LongStack;
+import com.frizo.lab.sevm.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Translates {@link DecodedCode} into a JVM hidden class implementing {@link CompiledCode}.
+ * <p>
+ * Stack, arithmetic, logic, memory and storage opcodes are emitted inline against a {@link JitStack};
+ * JUMP / JUMPI become direct gotos to their JUMPDEST labels. Any other opcode (CALLs, LOGs, RETURN ...)
+ * is handed back to its interpreter executor; after a call the compiled code returns and the interpreter
+ * resumes the frame once the callee is done. Static gas is charged per instruction before it runs,
+ * exactly like the interpreter loop.
+ * <p>
+ * Only code whose jump destinations are all static (PUSHn directly before JUMP / JUMPI) can be compiled,
+ * everything else keeps running in the interpreter.
+ */
+@Slf4j
+public class JitCompiler {
+
+    private static final String CLASS_NAME = Type.getInternalName(JitCompiler.class).replace("JitCompiler", "CompiledContract");
+    private static final String STACK = Type.getInternalName(JitStack.class);
+    private static final String FRAME = Type.getInternalName(CallFrame.class);
+    private static final String LONG_STACK = Type.getDescriptor(LongStack.class);
+
+    private static final int THIS = 0;
+    private static final int CONTEXT = 1;
+    private static final int FRAME_VAR = 2;
+    private static final int STACK_VAR = 3;
+    private static final int EXCEPTION_VAR = 4;
+
+    /**
+     * @return compiled code, or null if the code has dynamic jumps or could not be translated.
+     */
+    public static CompiledCode compile(DecodedCode code) {
+        if (!hasStaticJumps(code)) {
+            log.debug("[JitCompiler] Code has dynamic jumps, stay in interpreter");
+            return null;
+        }
+        try {
+            byte[] classBytes = generate(code);
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classBytes, true);
+            return (CompiledCode) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            log.warn("[JitCompiler] Failed to compile code ({} bytes), stay in interpreter: {}", code.length(), e.toString());
+            return null;
+        }
+    }
+
+    private static boolean hasStaticJumps(DecodedCode code) {
+        for (int i = 0; i < code.getInstructionCount(); i++) {
+            if (isJump(code.opAt(i))) {
+                if (i == 0 || !isPush(code.opAt(i - 1))) {
+                    return false;
+                }
+                long dest = code.immediateAt(i - 1);
+                if (dest < Integer.MIN_VALUE || dest > Integer.MAX_VALUE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static byte[] generate(DecodedCode code) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, CLASS_NAME, null, "java/lang/Object",
+                new String[]{Type.getInternalName(CompiledCode.class)});
+
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, THIS);
+        init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "run",
+                Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(EVMContext.class), Type.getType(CallFrame.class)), null, null);
+        mv.visitCode();
+        emitRun(mv, code);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void emitRun(MethodVisitor mv, DecodedCode code) {
+        int count = code.getInstructionCount();
+        Label[] jumpDests = new Label[count];
+        for (int i = 0; i < count; i++) {
+            if (code.opAt(i) == op(Opcode.JUMPDEST)) {
+                jumpDests[i] = new Label();
+            }
+        }
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        Label exit = new Label();
+        mv.visitTryCatchBlock(tryStart, tryEnd, handler, null);
+
+        // JitStack stack = new JitStack(frame.getStack());
+        mv.visitTypeInsn(NEW, STACK);
+        mv.visitInsn(DUP);
+        loadFrameStack(mv);
+        mv.visitMethodInsn(INVOKESPECIAL, STACK, "<init>", "(" + LONG_STACK + ")V", false);
+        mv.visitVarInsn(ASTORE, STACK_VAR);
+
+        mv.visitLabel(tryStart);
+        for (int i = 0; i < count; i++) {
+            if (jumpDests[i] != null) {
+                mv.visitLabel(jumpDests[i]);
+            }
+            int nextPc = i + 1 < count ? code.pcOf(i + 1) : code.length();
+            emitInstruction(mv, code, i, nextPc, jumpDests, exit);
+        }
+        // ran off the end of the code
+        updatePc(mv, code.length(), count);
+        mv.visitJumpInsn(GOTO, exit);
+        mv.visitLabel(tryEnd);
+
+        // finally: write the stack back to the frame and rethrow
+        mv.visitLabel(handler);
+        mv.visitVarInsn(ASTORE, EXCEPTION_VAR);
+        closeStack(mv);
+        mv.visitVarInsn(ALOAD, EXCEPTION_VAR);
+        mv.visitInsn(ATHROW);
+
+        mv.visitLabel(exit);
+        closeStack(mv);
+        mv.visitInsn(RETURN);
+    }
+
+    private static void emitInstruction(MethodVisitor mv, DecodedCode code, int index, int nextPc, Label[] jumpDests, Label exit) {
+        int op = code.opAt(index);
+        Opcode opcode;
+        try {
+            opcode = Opcode.fromByte((byte) op);
+        } catch (IllegalArgumentException e) {
+            // undefined byte: fails when reached, before any gas is charged
+            mv.visitLdcInsn(op);
+            mv.visitMethodInsn(INVOKESTATIC, STACK, "unknownOpcode", "(I)V", false);
+            return;
+        }
+
+        if (opcode.getGasCost() > 0) {
+            mv.visitVarInsn(ALOAD, FRAME_VAR);
+            mv.visitLdcInsn((long) opcode.getGasCost());
+            mv.visitMethodInsn(INVOKEVIRTUAL, FRAME, "consumeGas", "(J)V", false);
+        }
+
+        if (opcode.isPush()) {
+            mv.visitVarInsn(ALOAD, STACK_VAR);
+            mv.visitLdcInsn(code.immediateAt(index));
+            stackCall(mv, "push", "(J)V");
+            return;
+        }
+        if (opcode.isDup() || opcode.isSwap()) {
+            int depth = opcode.isDup() ? op - op(Opcode.DUP1) + 1 : op - op(Opcode.SWAP1) + 1;
+            mv.visitVarInsn(ALOAD, STACK_VAR);
+            mv.visitLdcInsn(depth);
+            stackCall(mv, opcode.isDup() ? "dup" : "swap", "(I)V");
+            return;
+        }
+
+        switch (opcode) {
+            case JUMPDEST -> {
+                // marks a destination only
+            }
+            case JUMP, JUMPI -> {
+                int dest = (int) code.immediateAt(index - 1);
+                Label target = code.isJumpDest(dest) ? jumpDests[code.indexOf(dest)] : null;
+                mv.visitVarInsn(ALOAD, STACK_VAR);
+                if (opcode == Opcode.JUMP) {
+                    stackCall(mv, "popJumpDest", "()V");
+                    jumpOrFail(mv, target);
+                } else {
+                    stackCall(mv, "popJumpCondition", "()Z");
+                    Label notTaken = new Label();
+                    mv.visitJumpInsn(IFEQ, notTaken);
+                    jumpOrFail(mv, target);
+                    mv.visitLabel(notTaken);
+                }
+            }
+            case ADD, MUL, SUB, DIV, LT, GT, SLT, SGT, EQ, AND, OR, XOR, SHL, SHR -> {
+                mv.visitVarInsn(ALOAD, STACK_VAR);
+                stackCall(mv, opcode.name().toLowerCase(), "()V");
+            }
+            case ISZERO -> {
+                mv.visitVarInsn(ALOAD, STACK_VAR);
+                stackCall(mv, "isZero", "()V");
+            }
+            case POP -> {
+                mv.visitVarInsn(ALOAD, STACK_VAR);
+                stackCall(mv, "popOp", "()V");
+            }
+            case MLOAD, MSTORE -> {
+                mv.visitVarInsn(ALOAD, STACK_VAR);
+                mv.visitVarInsn(ALOAD, FRAME_VAR);
+                stackCall(mv, opcode.name().toLowerCase(), "(" + Type.getDescriptor(CallFrame.class) + ")V");
+            }
+            case SLOAD, SSTORE -> {
+                mv.visitVarInsn(ALOAD, STACK_VAR);
+                mv.visitVarInsn(ALOAD, FRAME_VAR);
+                mv.visitMethodInsn(INVOKEVIRTUAL, FRAME, "getStorage", "()" + Type.getDescriptor(Storage.class), false);
+                stackCall(mv, opcode.name().toLowerCase(), "(" + Type.getDescriptor(Storage.class) + ")V");
+            }
+            default -> {
+                // frame.updatePC(nextPc, index + 1); stack.interpret(context, frame, op); if (!frame.isRunning()) return;
+                updatePc(mv, nextPc, index + 1);
+                mv.visitVarInsn(ALOAD, STACK_VAR);
+                mv.visitVarInsn(ALOAD, CONTEXT);
+                mv.visitVarInsn(ALOAD, FRAME_VAR);
+                mv.visitLdcInsn(op);
+                stackCall(mv, "interpret", "(" + Type.getDescriptor(EVMContext.class) + Type.getDescriptor(CallFrame.class) + "I)V");
+                if (opcode.isCall()) {
+                    // the callee frame is now on top of the call stack, the interpreter loop runs it and resumes this frame
+                    mv.visitJumpInsn(GOTO, exit);
+                    return;
+                }
+                Label running = new Label();
+                mv.visitVarInsn(ALOAD, FRAME_VAR);
+                mv.visitMethodInsn(INVOKEVIRTUAL, FRAME, "isRunning", "()Z", false);
+                mv.visitJumpInsn(IFNE, running);
+                mv.visitJumpInsn(GOTO, exit);
+                mv.visitLabel(running);
+            }
+        }
+    }
+
+    private static void jumpOrFail(MethodVisitor mv, Label target) {
+        if (target != null) {
+            mv.visitJumpInsn(GOTO, target);
+        } else {
+            mv.visitMethodInsn(INVOKESTATIC, STACK, "invalidJump", "()V", false);
+        }
+    }
+
+    private static void stackCall(MethodVisitor mv, String name, String descriptor) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, STACK, name, descriptor, false);
+    }
+
+    private static void loadFrameStack(MethodVisitor mv) {
+        mv.visitVarInsn(ALOAD, FRAME_VAR);
+        mv.visitMethodInsn(INVOKEVIRTUAL, FRAME, "getStack", "()" + LONG_STACK, false);
+    }
+
+    private static void closeStack(MethodVisitor mv) {
+        mv.visitVarInsn(ALOAD, STACK_VAR);
+        loadFrameStack(mv);
+        stackCall(mv, "close", "(" + LONG_STACK + ")V");
+    }
+
+    private static void updatePc(MethodVisitor mv, int pc, int index) {
+        mv.visitVarInsn(ALOAD, FRAME_VAR);
+        mv.visitLdcInsn(pc);
+        mv.visitLdcInsn(index);
+        mv.visitMethodInsn(INVOKEVIRTUAL, FRAME, "updatePC", "(II)V", false);
+    }
+
+    private static boolean isJump(int op) {
+        return op == op(Opcode.JUMP) || op == op(Opcode.JUMPI);
+    }
+
+    private static boolean isPush(int op) {
+        return op >= op(Opcode.PUSH1) && op <= op(Opcode.PUSH8);
+    }
+
+    private static int op(Opcode opcode) {
+        return opcode.getCode() & 0xFF;
+    }
+}
@@ -0,0 +1,26 @@
+package com.frizo.lab.sevm.jit;
+
+/**
+ * Execution profile of one {@link com.frizo.lab.sevm.code.DecodedCode}, kept on the code itself so the
+ * interpreter updates it without any lookup or lock.
+ * <p>
+ * The counters are plain ints: an increment lost to a race only delays compilation a little.
+ * Only the compilation itself is synchronized, and it happens once per code.
+ */
+public final class JitProfile {
+
+    // JitTier generation the counters belong to, older ones are cleared on first use
+    int generation;
+    int invocations;
+    int backwardJumps;
+    boolean compileAttempted;
+    volatile CompiledCode compiled;
+
+    void clear(int generation) {
+        this.invocations = 0;
+        this.backwardJumps = 0;
+        this.compileAttempted = false;
+        this.compiled = null;
+        this.generation = generation;
+    }
+}
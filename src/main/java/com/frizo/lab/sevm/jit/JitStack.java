@@ -0,0 +1,230 @@
+package com.frizo.lab.sevm.jit;
+
+import com.frizo.lab.sevm.context.EVMContext;
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.exception.EVMException;
+import com.frizo.lab.sevm.exec.InstructionDispatcher;
+import com.frizo.lab.sevm.memory.Memory;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.stack.LongStack;
+import com.frizo.lab.sevm.storage.Storage;
+
+/**
+ * Operand stack of compiled code: works in place on the backing array of the frame's {@link LongStack}, keeping
+ * its own top index which is written back on exit, or around any opcode that is handed back to its
+ * {@link com.frizo.lab.sevm.exec.InstructionExecutor}. Nothing is copied or allocated per run.
+ * <p>
+ * Every operation throws the same exceptions as the executor it replaces, so a failing instruction
+ * leaves the frame in the same state as in the interpreter.
+ * Called from generated code only.
+ */
+final class JitStack {
+
+    private final long[] slots;
+    private int sp;
+    // true while sp is the frame's stack size, false after writeBack()
+    private boolean attached;
+
+    public JitStack(LongStack stack) {
+        this.slots = stack.array();
+        load(stack);
+    }
+
+    private void load(LongStack stack) {
+        sp = stack.size();
+        attached = true;
+    }
+
+    private void writeBack(LongStack stack) {
+        stack.setSize(sp);
+        attached = false;
+    }
+
+    public void close(LongStack stack) {
+        if (attached) {
+            writeBack(stack);
+        }
+    }
+
+    /**
+     * Run one instruction through its interpreter executor.
+     */
+    public void interpret(EVMContext context, CallFrame frame, int op) {
+        Opcode opcode = Opcode.fromByte((byte) op);
+        writeBack(frame.getStack());
+        InstructionDispatcher.findExecutor(opcode).execute(context, opcode);
+        load(frame.getStack());
+    }
+
+    public static void unknownOpcode(int op) {
+        // throws the interpreter's IllegalArgumentException
+        Opcode.fromByte((byte) op);
+    }
+
+    public static void invalidJump() {
+        throw new EVMException.InvalidJumpException();
+    }
+
+    // ------------------------------------------------------------------------------------>
+
+    public void push(long value) {
+        if (sp >= slots.length) {
+            throw new RuntimeException("Stack overflow");
+        }
+        slots[sp++] = value;
+    }
+
+    private long pop() {
+        if (sp == 0) {
+            throw new RuntimeException("Stack underflow");
+        }
+        return slots[--sp];
+    }
+
+    private void requireSize(int size) {
+        if (sp < size) {
+            throw new EVMException.StackUnderflowException();
+        }
+    }
+
+    public void popOp() {
+        if (sp == 0) {
+            throw new EVMException.StackUnderflowException("Stack underflow: POP requires at least one item on the stack");
+        }
+        sp--;
+    }
+
+    public void dup(int depth) {
+        requireSize(depth);
+        push(slots[sp - depth]);
+    }
+
+    public void swap(int depth) {
+        requireSize(depth + 1);
+        long top = slots[sp - 1];
+        slots[sp - 1] = slots[sp - 1 - depth];
+        slots[sp - 1 - depth] = top;
+    }
+
+    // ArithmeticExecutor
+    public void add() {
+        requireSize(2);
+        long b = slots[--sp];
+        slots[sp - 1] = slots[sp - 1] + b;
+    }
+
+    public void mul() {
+        requireSize(2);
+        long b = slots[--sp];
+        slots[sp - 1] = slots[sp - 1] * b;
+    }
+
+    public void sub() {
+        requireSize(2);
+        long b = slots[--sp];
+        slots[sp - 1] = slots[sp - 1] - b;
+    }
+
+    public void div() {
+        requireSize(2);
+        long b = slots[--sp];
+        slots[sp - 1] = slots[sp - 1] / b;
+    }
+
+    // NumLogicInstruction: x is the first value popped (top), y the second
+    public void lt() {
+        long x = pop();
+        long y = pop();
+        push(x < y ? 1L : 0);
+    }
+
+    public void gt() {
+        long x = pop();
+        long y = pop();
+        push(x > y ? 1L : 0);
+    }
+
+    public void slt() {
+        long x = pop();
+        long y = pop();
+        push(x <= y ? 1L : 0);
+    }
+
+    public void sgt() {
+        long x = pop();
+        long y = pop();
+        push(x >= y ? 1L : 0);
+    }
+
+    public void eq() {
+        long x = pop();
+        long y = pop();
+        push(x == y ? 1L : 0);
+    }
+
+    public void isZero() {
+        push(pop() == 0 ? 1L : 0);
+    }
+
+    public void and() {
+        long x = pop();
+        push(x & pop());
+    }
+
+    public void or() {
+        long x = pop();
+        push(x | pop());
+    }
+
+    public void xor() {
+        long x = pop();
+        push(x ^ pop());
+    }
+
+    public void shl() {
+        long x = pop();
+        push(x << pop());
+    }
+
+    public void shr() {
+        long x = pop();
+        push(x >> pop());
+    }
+
+    // MemoryExecutor / StorageExecutor (8 bytes per word)
+    public void mstore(CallFrame frame) {
+        long offset = pop();
+        long value = pop();
+        Memory<Long, Long> memory = frame.getMemory();
+        frame.consumeGas(memory.expansionGas(offset, 8));
+        memory.put(offset, 8, value);
+    }
+
+    public void mload(CallFrame frame) {
+        long offset = pop();
+        Memory<Long, Long> memory = frame.getMemory();
+        frame.consumeGas(memory.expansionGas(offset, 8));
+        push(memory.get(offset, 8));
+    }
+
+    public void sstore(Storage<Long, Long> storage) {
+        long offset = pop();
+        long value = pop();
+        storage.put(offset, 8, value);
+    }
+
+    public void sload(Storage<Long, Long> storage) {
+        long offset = pop();
+        push(storage.get(offset, 8));
+    }
+
+    // JumpExecutor, destination is known statically so it is only popped
+    public void popJumpDest() {
+        pop();
+    }
+
+    public boolean popJumpCondition() {
+        pop();
+        return pop() != 0;
+    }
+}
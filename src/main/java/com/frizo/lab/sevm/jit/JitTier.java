@@ -0,0 +1,113 @@
+package com.frizo.lab.sevm.jit;
+
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.context.EVMContext;
+import com.frizo.lab.sevm.context.call.CallFrame;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Second execution tier: code starts in the interpreter and is compiled by {@link JitCompiler}
+ * once it becomes hot, i.e. it has been entered {@link #INVOCATION_THRESHOLD} times
+ * or has taken {@link #BACKWARD_JUMP_THRESHOLD} backward jumps (loops).
+ * <p>
+ * The profile and compiled class of a piece of code are kept in the {@link JitProfile} of its {@link DecodedCode},
+ * which is shared by every frame running the code, so a hot contract is compiled once for all of them.
+ */
+@Slf4j
+public class JitTier {
+
+    public static final int INVOCATION_THRESHOLD = 10;
+    public static final int BACKWARD_JUMP_THRESHOLD = 1000;
+
+    private static volatile boolean enabled = true;
+
+    // bumped by reset(), profiles of an older generation start over
+    private static volatile int generation;
+
+    public static void setEnabled(boolean enabled) {
+        JitTier.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run the current frame with compiled code if its code is hot.
+     * Only a frame entered at pc 0 is taken over, it runs until it halts, falls off the end of code or makes a call.
+     *
+     * @return true if the frame was executed by compiled code.
+     */
+    public static boolean tryExecute(EVMContext context) {
+        if (!enabled) {
+            return false;
+        }
+        CallFrame frame = context.getCurrentFrame();
+        if (frame.getPc() != 0 || !frame.isRunning()) {
+            return false;
+        }
+        CompiledCode compiled = compiledCodeOf(frame.getDecodedCode());
+        if (compiled == null) {
+            return false;
+        }
+        compiled.run(context, frame);
+        return true;
+    }
+
+    /**
+     * Called by the interpreter for every taken jump to a lower pc.
+     */
+    public static void recordBackwardJump(DecodedCode code) {
+        if (!enabled) {
+            return;
+        }
+        profileOf(code).backwardJumps++;
+    }
+
+    public static boolean isCompiled(DecodedCode code) {
+        JitProfile profile = code.getJitProfile();
+        return profile.generation == generation && profile.compiled != null;
+    }
+
+    /**
+     * Drop all profiles and compiled code.
+     */
+    public static synchronized void reset() {
+        generation++;
+    }
+
+    private static CompiledCode compiledCodeOf(DecodedCode code) {
+        JitProfile profile = profileOf(code);
+        CompiledCode compiled = profile.compiled;
+        if (compiled != null) {
+            return compiled;
+        }
+        int invocations = ++profile.invocations;
+        boolean hot = invocations >= INVOCATION_THRESHOLD || profile.backwardJumps >= BACKWARD_JUMP_THRESHOLD;
+        if (!hot || profile.compileAttempted) {
+            return null;
+        }
+        synchronized (profile) {
+            if (!profile.compileAttempted) {
+                profile.compileAttempted = true;
+                log.debug("[JitTier] Compiling hot code ({} bytes), invocations: {}, backward jumps: {}",
+                        code.length(), invocations, profile.backwardJumps);
+                profile.compiled = JitCompiler.compile(code);
+            }
+            return profile.compiled;
+        }
+    }
+
+    private static JitProfile profileOf(DecodedCode code) {
+        JitProfile profile = code.getJitProfile();
+        int current = generation;
+        if (profile.generation != current) {
+            synchronized (profile) {
+                if (profile.generation != current) {
+                    profile.clear(current);
+                }
+            }
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,279 @@
+package com.frizo.lab.sevm.memory;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Frame memory carved out of a {@link MemoryArena}: bytes {@code [base, base + activeWords * 8)} of the arena buffer.
+ * <p>
+ * Same behaviour and expansion gas as {@link PagedMemory}. {@link #cleanUp()} releases the memory back to the arena,
+ * any access afterwards throws {@link IllegalStateException}.
+ */
+@Slf4j
+public class ArenaMemory implements Memory<Long, Long> {
+
+    // keeps every arena position below MemoryArena.MAX_CAPACITY
+    private static final long MAX_WORDS = MemoryArena.MAX_CAPACITY >>> 4;
+
+    private final MemoryArena arena;
+    @Getter(AccessLevel.PACKAGE)
+    private final int base;
+    @Getter(AccessLevel.PACKAGE)
+    private final ArenaMemory parent;
+    @Getter
+    private long activeWords;
+    @Getter
+    private boolean released;
+
+    ArenaMemory(MemoryArena arena, int base, ArenaMemory parent) {
+        this.arena = arena;
+        this.base = base;
+        this.parent = parent;
+    }
+
+    void markReleased() {
+        released = true;
+        activeWords = 0;
+    }
+
+    void revive() {
+        released = false;
+        activeWords = 0;
+    }
+
+    @Override
+    public long expansionGas(long offset, long length) {
+        if (length <= 0 || offset < 0 || offset + length < offset) {
+            return 0;
+        }
+        long words = toWords(offset + length);
+        if (words <= activeWords) {
+            return 0;
+        }
+        if (words > MAX_WORDS) {
+            return Long.MAX_VALUE;
+        }
+        return PagedMemory.memoryGas(words) - PagedMemory.memoryGas(activeWords);
+    }
+
+    private static long toWords(long end) {
+        return (end + 7) >>> 3;
+    }
+
+    /**
+     * Grow the memory to cover {@code [0, end)}.
+     */
+    private ByteBuffer touch(long end) {
+        if (released) {
+            throw new IllegalStateException("Arena memory already released");
+        }
+        long words = toWords(end);
+        if (words > activeWords) {
+            arena.grow(this, base + words * 8);
+            activeWords = words;
+        }
+        return arena.buffer();
+    }
+
+    @Override
+    public byte get(Long key) {
+        if (key < 0) {
+            log.error("Attempted to get memory at negative offset: {}", key);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+        return touch(key + 1).get((int) (base + key));
+    }
+
+    @Override
+    public void put(Long key, byte value) {
+        if (key < 0) {
+            log.error("Attempted to put memory at negative offset: {}", key);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+        touch(key + 1).put((int) (base + key), value);
+    }
+
+    @Override
+    public boolean containsKey(Long offset) {
+        return offset >= 0 && offset < activeWords * 8;
+    }
+
+    @Override
+    public void clear(Long key) {
+        if (containsKey(key)) {
+            arena.buffer().put((int) (base + key), (byte) 0);
+        }
+    }
+
+    @Override
+    public void clear(Long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to clear memory with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to clear memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        if (offset + length > activeWords * 8) {
+            log.error("Attempted to clear memory beyond its size: offset {} + length {} exceeds memory size {}",
+                    offset, length, activeWords * 8);
+            throw new RuntimeException("Attempted to clear memory beyond its size");
+        }
+
+        ByteBuffer buffer = arena.buffer();
+        for (long i = offset; i < offset + length; i++) {
+            buffer.put((int) (base + i), (byte) 0);
+        }
+    }
+
+    @Override
+    public void printMemory() {
+        System.out.println(">> ArenaMemory contents ------------------------------------------------------>");
+        if (activeWords == 0) {
+            System.out.println("                                  Memory is empty.");
+        }
+        ByteBuffer buffer = arena.buffer();
+        for (long word = 0; word < activeWords; word++) {
+            System.out.printf("Address: %d, Value: 0x%016X%n", word * 8, buffer.getLong((int) (base + word * 8)));
+        }
+        System.out.println("<< ArenaMemory contents ------------------------------------------------------>");
+    }
+
+    /**
+     * Release this memory (and its bytes) back to the arena.
+     */
+    @Override
+    public void cleanUp() {
+        arena.release(this);
+    }
+
+    @Override
+    public void put(long offset, long maxLength, Long value) {
+        if (maxLength <= 0) {
+            log.error("Attempted to put memory with non-positive maxLength: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must be positive");
+        }
+        if (maxLength > 8) {
+            log.error("Attempted to put memory with maxLength greater than 8 bytes: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must not exceed 8 bytes");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to put memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + maxLength < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, maxLength);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        // big-endian, same layout as NumUtils.longToBytesWithPadding
+        long bits = value == null ? 0 : value;
+        int length = (int) maxLength;
+        ByteBuffer buffer = touch(offset + length);
+        int position = (int) (base + offset);
+        if (length == 8) {
+            buffer.putLong(position, bits);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            buffer.put(position + i, (byte) (bits >> ((length - 1 - i) * 8)));
+        }
+    }
+
+    @Override
+    public Long get(long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to get memory with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (length > 8) {
+            log.error("Attempted to get memory with length greater than 8 bytes: {}", length);
+            throw new IllegalArgumentException("Length must not exceed 8 bytes");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to get memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        ByteBuffer buffer = touch(offset + length);
+        int position = (int) (base + offset);
+        if (length == 8) {
+            return buffer.getLong(position);
+        }
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            result = (result << 8) | (buffer.get(position + i) & 0xFF);
+        }
+        return result;
+    }
+
+    @Override
+    public void read(long offset, byte[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        if (len == 0) {
+            return;
+        }
+        checkRange(offset, len);
+        touch(offset + len).get((int) (base + offset), dst, dstOff, len);
+    }
+
+    @Override
+    public void write(long offset, byte[] src, int srcOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        if (len == 0) {
+            return;
+        }
+        checkRange(offset, len);
+        touch(offset + len).put((int) (base + offset), src, srcOff, len);
+    }
+
+    @Override
+    public void copy(long dst, long src, long len) {
+        if (len == 0) {
+            return;
+        }
+        checkRange(dst, len);
+        checkRange(src, len);
+        ByteBuffer buffer = touch(Math.max(dst, src) + len);
+        // overlapping ranges are copied as if through an intermediate buffer
+        buffer.put((int) (base + dst), buffer, (int) (base + src), (int) len);
+    }
+
+    private static void checkRange(long offset, long length) {
+        if (length < 0) {
+            log.error("Attempted to access memory with negative length: {}", length);
+            throw new IllegalArgumentException("Length must be non-negative");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to access memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+    }
+}
@@ -74,4 +74,19 @@ public class DummyMemory implements Memory<Integer, byte[]> {
     public byte[] get(long offset, long length) {
         throw new UnsupportedOperationException("Deprecated Class: DummyMemory does not support get with offset and length");
     }
+
+    @Override
+    public void read(long offset, byte[] dst, int dstOff, int len) {
+        throw new UnsupportedOperationException("Deprecated Class: DummyMemory does not support bulk read");
+    }
+
+    @Override
+    public void write(long offset, byte[] src, int srcOff, int len) {
+        throw new UnsupportedOperationException("Deprecated Class: DummyMemory does not support bulk write");
+    }
+
+    @Override
+    public void copy(long dst, long src, long len) {
+        throw new UnsupportedOperationException("Deprecated Class: DummyMemory does not support copy");
+    }
 }
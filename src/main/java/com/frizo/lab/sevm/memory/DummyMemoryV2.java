@@ -28,7 +28,6 @@ public class DummyMemoryV2 implements Memory<Long, Long> {
             throw new IllegalArgumentException("Offset must be non-negative");
         }
         memory.put(key, value);
-        log.info("Put value {} at offset {}", NumUtils.byteToHex(value), key);
     }
 
     @Override
@@ -67,7 +66,6 @@ public class DummyMemoryV2 implements Memory<Long, Long> {
         for (long i = offset; i < offset + length; i++) {
             memory.remove(i);
         }
-        log.info("Cleared DummyMemoryV2 from offset {} to {}", offset, offset + length);
     }
 
     @Override
@@ -149,4 +147,29 @@ public class DummyMemoryV2 implements Memory<Long, Long> {
 
         return NumUtils.paddingBytesToLong(bytes, (int) length);
     }
+
+    @Override
+    public void read(long offset, byte[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++) {
+            dst[dstOff + i] = memory.getOrDefault(offset + i, (byte) 0x00);
+        }
+    }
+
+    @Override
+    public void write(long offset, byte[] src, int srcOff, int len) {
+        if (offset < 0) {
+            log.error("Attempted to put memory at negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+        for (int i = 0; i < len; i++) {
+            memory.put(offset + i, src[srcOff + i]);
+        }
+    }
+
+    @Override
+    public void copy(long dst, long src, long len) {
+        byte[] buffer = new byte[(int) len];
+        read(src, buffer, 0, buffer.length);
+        write(dst, buffer, 0, buffer.length);
+    }
 }
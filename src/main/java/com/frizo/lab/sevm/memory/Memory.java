@@ -19,4 +19,32 @@ public interface Memory<K, V> {
     void put(long offset, long maxLength, V value);
 
     V get(long offset, long length);
+
+    /**
+     * Copy {@code len} bytes starting at {@code offset} into {@code dst[dstOff, dstOff + len)}.
+     * Unwritten bytes read as 0.
+     */
+    void read(long offset, byte[] dst, int dstOff, int len);
+
+    /**
+     * Copy {@code src[srcOff, srcOff + len)} into memory starting at {@code offset}.
+     */
+    void write(long offset, byte[] src, int srcOff, int len);
+
+    /**
+     * Copy {@code len} bytes from {@code src} to {@code dst} within this memory (MCOPY).
+     * Overlapping ranges behave as if the source was first copied to a temporary buffer.
+     */
+    void copy(long dst, long src, long len);
+
+    /**
+     * Gas for growing the active memory to cover {@code [offset, offset + length)}, charged before the access.
+     * The access itself grows the active size.
+     *
+     * @return 0 if the range is already active, empty or invalid (the access then fails on its own),
+     * or if the implementation does no expansion accounting.
+     */
+    default long expansionGas(long offset, long length) {
+        return 0;
+    }
 }
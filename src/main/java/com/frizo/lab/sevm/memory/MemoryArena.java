@@ -0,0 +1,102 @@
+package com.frizo.lab.sevm.memory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One contiguous off-heap region that the frames of a transaction carve their memory out of.
+ * <p>
+ * Frame memories are nested like the call stack: a callee's {@link ArenaMemory} starts where its caller's ends,
+ * only the innermost one (the running frame's) can grow, and releasing it hands its bytes back to the caller.
+ * {@link #reset()} releases everything at once when the transaction ends; the buffer itself is kept and reused,
+ * so steady-state execution allocates no memory on or off the heap.
+ */
+public class MemoryArena {
+
+    private static final int DEFAULT_CAPACITY = 1 << 20; // 1 MiB
+    static final long MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private ByteBuffer buffer;
+    private int top;
+    private ArenaMemory current;
+    // outermost memory, revived for the entry frame of the next transaction instead of allocating a new one
+    private ArenaMemory root;
+
+    public MemoryArena() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MemoryArena(int capacity) {
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * @return empty memory starting at the end of the innermost live memory.
+     * The outermost memory object is reused once released, so handles must not be kept past their release.
+     */
+    public ArenaMemory allocate() {
+        if (current == null && root != null) {
+            root.revive();
+            current = root;
+            return current;
+        }
+        current = new ArenaMemory(this, top, current);
+        if (current.getParent() == null) {
+            root = current;
+        }
+        return current;
+    }
+
+    /**
+     * Release every memory allocated since the last reset.
+     */
+    public void reset() {
+        for (ArenaMemory memory = current; memory != null; memory = memory.getParent()) {
+            memory.markReleased();
+        }
+        current = null;
+        top = 0;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Extend the innermost memory to end at {@code end} (absolute arena position), zeroing the new bytes.
+     */
+    void grow(ArenaMemory memory, long end) {
+        if (memory != current) {
+            throw new IllegalStateException("Only the innermost arena memory can grow");
+        }
+        if (end > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Offset out of memory range: " + (end - memory.getBase()));
+        }
+        if (end > buffer.capacity()) {
+            int capacity = (int) Math.min(MAX_CAPACITY, Math.max(end, buffer.capacity() * 2L));
+            ByteBuffer larger = ByteBuffer.allocateDirect(capacity);
+            larger.put(0, buffer, 0, top);
+            buffer = larger;
+        }
+        // bytes past top may still hold data of released memories or of an earlier transaction
+        for (int i = top; i < end; i += 8) {
+            buffer.putLong(i, 0L);
+        }
+        top = (int) end;
+    }
+
+    void release(ArenaMemory memory) {
+        if (memory.isReleased()) {
+            return;
+        }
+        if (memory != current) {
+            throw new IllegalStateException("Arena memories must be released innermost first");
+        }
+        memory.markReleased();
+        current = memory.getParent();
+        top = memory.getBase();
+    }
+}
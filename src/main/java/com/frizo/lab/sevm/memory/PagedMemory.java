@@ -0,0 +1,347 @@
+package com.frizo.lab.sevm.memory;
+
+import com.frizo.lab.sevm.common.Constant;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Frame memory backed by fixed-size {@code byte[]} pages in a growable page table.
+ * Pages are allocated on first write, unwritten bytes read as 0.
+ * <p>
+ * The active size is kept in 8-byte words (the word size of this 64-bit EVM) and grows with every access.
+ * {@link #expansionGas} prices a growth with the EVM memory cost
+ * {@code MEMORY_WORD_GAS * words + words * words / MEMORY_QUAD_DIVISOR}, charged as the difference to the current size.
+ */
+@Slf4j
+public class PagedMemory implements Memory<Long, Long> {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int INITIAL_PAGES = 16;
+    // beyond this the cost exceeds any gas limit (and words * words would overflow)
+    private static final long MAX_WORDS = 1L << 31;
+
+    private byte[][] pages = new byte[INITIAL_PAGES][];
+    @Getter
+    private long activeWords;
+
+    public static long memoryGas(long words) {
+        return Constant.MEMORY_WORD_GAS * words + words * words / Constant.MEMORY_QUAD_DIVISOR;
+    }
+
+    @Override
+    public long expansionGas(long offset, long length) {
+        if (length <= 0 || offset < 0 || offset + length < offset) {
+            return 0;
+        }
+        long words = toWords(offset + length);
+        if (words <= activeWords) {
+            return 0;
+        }
+        if (words > MAX_WORDS) {
+            return Long.MAX_VALUE;
+        }
+        return memoryGas(words) - memoryGas(activeWords);
+    }
+
+    private static long toWords(long end) {
+        return (end + 7) >>> 3;
+    }
+
+    private void touch(long end) {
+        long words = toWords(end);
+        if (words > activeWords) {
+            activeWords = words;
+        }
+    }
+
+    private byte[] page(long address, boolean allocate) {
+        long index = address >>> PAGE_BITS;
+        if (index >= pages.length) {
+            if (!allocate) {
+                return null;
+            }
+            if (index >= Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Offset out of memory range: " + address);
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(index + 1, pages.length * 2L));
+            pages = Arrays.copyOf(pages, capacity);
+        }
+        byte[] page = pages[(int) index];
+        if (page == null && allocate) {
+            page = new byte[PAGE_SIZE];
+            pages[(int) index] = page;
+        }
+        return page;
+    }
+
+    private byte readByte(long address) {
+        byte[] page = page(address, false);
+        return page == null ? 0 : page[(int) (address & PAGE_MASK)];
+    }
+
+    private void writeByte(long address, byte value) {
+        page(address, true)[(int) (address & PAGE_MASK)] = value;
+    }
+
+    @Override
+    public byte get(Long key) {
+        if (key < 0) {
+            log.error("Attempted to get memory at negative offset: {}", key);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+        touch(key + 1);
+        return readByte(key);
+    }
+
+    @Override
+    public void put(Long key, byte value) {
+        if (key < 0) {
+            log.error("Attempted to put memory at negative offset: {}", key);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+        writeByte(key, value);
+        touch(key + 1);
+    }
+
+    @Override
+    public boolean containsKey(Long offset) {
+        return offset >= 0 && offset < activeWords * 8;
+    }
+
+    @Override
+    public void clear(Long key) {
+        if (key >= 0 && page(key, false) != null) {
+            writeByte(key, (byte) 0);
+        }
+    }
+
+    @Override
+    public void clear(Long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to clear memory with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to clear memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        if (offset + length > activeWords * 8) {
+            log.error("Attempted to clear memory beyond its size: offset {} + length {} exceeds memory size {}",
+                    offset, length, activeWords * 8);
+            throw new RuntimeException("Attempted to clear memory beyond its size");
+        }
+
+        for (long i = offset; i < offset + length; i++) {
+            clear(i);
+        }
+    }
+
+    @Override
+    public void printMemory() {
+        System.out.println(">> PagedMemory contents ------------------------------------------------------>");
+        if (activeWords == 0) {
+            System.out.println("                                  Memory is empty.");
+        }
+        for (long word = 0; word < activeWords; word++) {
+            System.out.printf("Address: %d, Value: 0x%016X%n", word * 8, readWord(word * 8, 8));
+        }
+        System.out.println("<< PagedMemory contents ------------------------------------------------------>");
+    }
+
+    @Override
+    public void cleanUp() {
+        pages = new byte[INITIAL_PAGES][];
+        activeWords = 0;
+    }
+
+    @Override
+    public void put(long offset, long maxLength, Long value) {
+        if (maxLength <= 0) {
+            log.error("Attempted to put memory with non-positive maxLength: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must be positive");
+        }
+        if (maxLength > 8) {
+            log.error("Attempted to put memory with maxLength greater than 8 bytes: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must not exceed 8 bytes");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to put memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + maxLength < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, maxLength);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        // big-endian, same layout as NumUtils.longToBytesWithPadding
+        long bits = value == null ? 0 : value;
+        int length = (int) maxLength;
+        int inPage = (int) (offset & PAGE_MASK);
+        if (inPage + length <= PAGE_SIZE) {
+            byte[] page = page(offset, true);
+            for (int i = 0; i < length; i++) {
+                page[inPage + i] = (byte) (bits >> ((length - 1 - i) * 8));
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                writeByte(offset + i, (byte) (bits >> ((length - 1 - i) * 8)));
+            }
+        }
+        touch(offset + length);
+    }
+
+    @Override
+    public Long get(long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to get memory with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (length > 8) {
+            log.error("Attempted to get memory with length greater than 8 bytes: {}", length);
+            throw new IllegalArgumentException("Length must not exceed 8 bytes");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to get memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        touch(offset + length);
+        return readWord(offset, (int) length);
+    }
+
+    @Override
+    public void read(long offset, byte[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        if (len == 0) {
+            return;
+        }
+        checkRange(offset, len);
+        touch(offset + len);
+        int done = 0;
+        while (done < len) {
+            long address = offset + done;
+            int inPage = (int) (address & PAGE_MASK);
+            int chunk = Math.min(len - done, PAGE_SIZE - inPage);
+            byte[] page = page(address, false);
+            if (page == null) {
+                Arrays.fill(dst, dstOff + done, dstOff + done + chunk, (byte) 0);
+            } else {
+                System.arraycopy(page, inPage, dst, dstOff + done, chunk);
+            }
+            done += chunk;
+        }
+    }
+
+    @Override
+    public void write(long offset, byte[] src, int srcOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        if (len == 0) {
+            return;
+        }
+        checkRange(offset, len);
+        int done = 0;
+        while (done < len) {
+            long address = offset + done;
+            int inPage = (int) (address & PAGE_MASK);
+            int chunk = Math.min(len - done, PAGE_SIZE - inPage);
+            System.arraycopy(src, srcOff + done, page(address, true), inPage, chunk);
+            done += chunk;
+        }
+        touch(offset + len);
+    }
+
+    @Override
+    public void copy(long dst, long src, long len) {
+        if (len == 0) {
+            return;
+        }
+        checkRange(dst, len);
+        checkRange(src, len);
+        if (dst <= src) {
+            // front to back: a chunk never overwrites source bytes that are still to be copied
+            long done = 0;
+            while (done < len) {
+                long from = src + done;
+                long to = dst + done;
+                int chunk = (int) Math.min(len - done,
+                        Math.min(PAGE_SIZE - (from & PAGE_MASK), PAGE_SIZE - (to & PAGE_MASK)));
+                copyChunk(from, to, chunk);
+                done += chunk;
+            }
+        } else {
+            // back to front for the same reason
+            long remaining = len;
+            while (remaining > 0) {
+                long fromEnd = src + remaining;
+                long toEnd = dst + remaining;
+                int chunk = (int) Math.min(remaining,
+                        Math.min(((fromEnd - 1) & PAGE_MASK) + 1, ((toEnd - 1) & PAGE_MASK) + 1));
+                copyChunk(fromEnd - chunk, toEnd - chunk, chunk);
+                remaining -= chunk;
+            }
+        }
+        touch(Math.max(dst, src) + len);
+    }
+
+    /**
+     * Copy a range that lies within a single source page and a single destination page.
+     */
+    private void copyChunk(long from, long to, int length) {
+        byte[] source = page(from, false);
+        if (source == null) {
+            byte[] target = page(to, false);
+            if (target != null) {
+                int inPage = (int) (to & PAGE_MASK);
+                Arrays.fill(target, inPage, inPage + length, (byte) 0);
+            }
+            return;
+        }
+        System.arraycopy(source, (int) (from & PAGE_MASK), page(to, true), (int) (to & PAGE_MASK), length);
+    }
+
+    private static void checkRange(long offset, long length) {
+        if (length < 0) {
+            log.error("Attempted to access memory with negative length: {}", length);
+            throw new IllegalArgumentException("Length must be non-negative");
+        }
+
+        if (offset < 0) {
+            log.error("Attempted to access memory with negative offset: {}", offset);
+            throw new IllegalArgumentException("Offset must be non-negative");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+    }
+
+    private long readWord(long offset, int length) {
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            result = (result << 8) | (readByte(offset + i) & 0xFF);
+        }
+        return result;
+    }
+}
@@ -66,6 +66,8 @@ public enum Opcode {
     JUMPI((byte) 0x57, 10, JumpExecutor.class), // Stack: [dest, condition] → JUMPI → if condition != 0 then pc = dest
     JUMPDEST((byte) 0x5B, 1, JumpExecutor.class), // mark a valid jump destination, no effect on stack or pc
 
+    MCOPY((byte) 0x5E, 3, MemoryExecutor.class), // Stack: [dest, src, length] → copy memory[src, src+length) to dest
+
     // PUSH1 ~ PUSH4 (32bit stack push opcodes)
     // 0x60 represents PUSH1, which pushes 1 byte onto the stack
     PUSH1((byte) 0x60, 3, PushExecutor.class),
@@ -145,6 +147,15 @@ public enum Opcode {
     @Getter
     private final Class<? extends InstructionExecutor> executorClass;
 
+    // raw byte (0x00 ~ 0xFF) -> Opcode, built once when the enum is loaded
+    private static final Opcode[] BY_BYTE = new Opcode[256];
+
+    static {
+        for (Opcode op : values()) {
+            BY_BYTE[op.code & 0xFF] = op;
+        }
+    }
+
     Opcode(byte code, int gasCost, Class<? extends InstructionExecutor> executorClass) {
         this.code = code;
         this.gasCost = gasCost;
@@ -152,12 +163,11 @@ public enum Opcode {
     }
 
     public static Opcode fromByte(byte b) {
-        for (Opcode op : values()) {
-            if (op.code == b) {
-                return op;
-            }
+        Opcode op = BY_BYTE[b & 0xFF];
+        if (op == null) {
+            throw new IllegalArgumentException("Unknown opcode: " + String.format("0x%02X", b));
         }
-        throw new IllegalArgumentException("Unknown opcode: " + String.format("0x%02X", b));
+        return op;
     }
 
     public static boolean isNumLogic(Opcode opcode) {
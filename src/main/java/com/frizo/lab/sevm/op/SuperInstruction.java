@@ -0,0 +1,50 @@
+package com.frizo.lab.sevm.op;
+
+import com.frizo.lab.sevm.common.Constant;
+import lombok.Getter;
+
+/**
+ * Internal instructions fused from common opcode sequences by the peephole pass in
+ * {@link com.frizo.lab.sevm.code.DecodedCode}. They never appear in bytecode.
+ * <p>
+ * PUSH1 stands for any PUSH1 ~ PUSH8 (same gas). A superinstruction charges the summed gas of its sequence,
+ * and is only used when the whole sequence can run without running out of gas or overflowing / underflowing
+ * the stack, otherwise the interpreter falls back to the single opcodes so every failure happens at the exact instruction.
+ */
+public enum SuperInstruction {
+
+    PUSH_JUMP(0, 1, Opcode.PUSH1, Opcode.JUMP),
+    PUSH_JUMPI(1, 1, Opcode.PUSH1, Opcode.JUMPI),
+    PUSH_ADD(1, 1, Opcode.PUSH1, Opcode.ADD),
+    PUSH_SUB(1, 1, Opcode.PUSH1, Opcode.SUB),
+    PUSH_SLOAD(0, 1, Opcode.PUSH1, Opcode.SLOAD),
+    // function selector matching: DUP1 PUSH4 <selector> EQ PUSHn <dest> JUMPI
+    SELECTOR_JUMPI(1, 2, Opcode.DUP1, Opcode.PUSH4, Opcode.EQ, Opcode.PUSH1, Opcode.JUMPI);
+
+    @Getter
+    private final int length; // number of fused instructions
+    @Getter
+    private final int gasCost;
+    private final int minStackSize; // items the sequence reads from the stack
+    private final int maxStackGrowth; // highest point the stack reaches above its size on entry
+
+    SuperInstruction(int minStackSize, int maxStackGrowth, Opcode... sequence) {
+        this.length = sequence.length;
+        this.minStackSize = minStackSize;
+        this.maxStackGrowth = maxStackGrowth;
+        int gas = 0;
+        for (Opcode opcode : sequence) {
+            gas += opcode.getGasCost();
+        }
+        this.gasCost = gas;
+    }
+
+    /**
+     * @return true if the whole sequence can run with the given stack size and remaining gas.
+     */
+    public boolean fits(int stackSize, long gasRemaining) {
+        return gasRemaining >= gasCost
+                && stackSize >= minStackSize
+                && stackSize + maxStackGrowth <= Constant.MAX_STACK_DEPTH;
+    }
+}
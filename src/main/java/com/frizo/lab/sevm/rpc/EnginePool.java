@@ -0,0 +1,66 @@
+package com.frizo.lab.sevm.rpc;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.vm.SEVM;
+import lombok.Getter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Fixed set of {@link SEVM} engines on one blockchain. Requests borrow an engine instead of building one, so
+ * engines, their contexts and memory arenas are reused across calls ({@link SEVM#reset()} on return).
+ * <p>
+ * The engines share the blockchain: read-only calls run concurrently, transactions run alone.
+ */
+public class EnginePool {
+
+    @Getter
+    private final Blockchain blockchain;
+    private final BlockingQueue<SEVM> idle;
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    public EnginePool(Blockchain blockchain, int size) {
+        this.blockchain = blockchain;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            idle.add(new SEVM(blockchain));
+        }
+    }
+
+    /**
+     * Run a call that does not change the state, concurrently with other reads.
+     */
+    public <T> T read(Function<SEVM, T> call) {
+        return withEngine(stateLock.readLock(), call);
+    }
+
+    /**
+     * Run a call that may change the state, with no other call running.
+     */
+    public <T> T write(Function<SEVM, T> call) {
+        return withEngine(stateLock.writeLock(), call);
+    }
+
+    private <T> T withEngine(Lock lock, Function<SEVM, T> call) {
+        SEVM engine;
+        try {
+            engine = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an engine", e);
+        }
+        lock.lock();
+        try {
+            return call.apply(engine);
+        } finally {
+            lock.unlock();
+            engine.reset();
+            idle.add(engine);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.frizo.lab.sevm.rpc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.context.txn.AccessList;
+import com.frizo.lab.sevm.utils.NumUtils;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal JSON-RPC 2.0 endpoint over HTTP for calling contracts on an {@link EnginePool}.
+ * <p>
+ * Every request runs on its own virtual thread and borrows an engine from the pool for the duration of the call.
+ * Supported methods:
+ * <ul>
+ *     <li>{@code eth_call}: read-only call, result is the return data as hex.</li>
+ *     <li>{@code eth_sendTransaction}: executes and commits a transaction, result is its status, gas used and
+ *     return data. An EIP-2930 {@code accessList} is passed on to the engine. {@code to} is required, contract
+ *     creation is not supported.</li>
+ * </ul>
+ * Quantities and data are "0x" hex strings, addresses are "0x" followed by 16 hex characters. Batch requests
+ * (a JSON array of requests) are supported.
+ */
+@Slf4j
+public class JsonRpcServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long DEFAULT_GAS = 1_000_000;
+    private static final Address DEFAULT_SENDER = Address.of(0L);
+
+    static final int PARSE_ERROR = -32700;
+    static final int INVALID_REQUEST = -32600;
+    static final int METHOD_NOT_FOUND = -32601;
+    static final int INVALID_PARAMS = -32602;
+    static final int INTERNAL_ERROR = -32603;
+    static final int EXECUTION_ERROR = 3;
+
+    private final EnginePool engines;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public JsonRpcServer(EnginePool engines, int port) throws IOException {
+        this.engines = engines;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        log.info("[JsonRpcServer] Listening on port {}", getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonNode response;
+            try (InputStream body = exchange.getRequestBody()) {
+                response = dispatch(MAPPER.readTree(body));
+            } catch (JsonProcessingException e) {
+                response = error(NullNode.getInstance(), PARSE_ERROR, "Parse error");
+            }
+            byte[] bytes = MAPPER.writeValueAsString(response).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private JsonNode dispatch(JsonNode request) {
+        if (request == null) {
+            return error(NullNode.getInstance(), INVALID_REQUEST, "Invalid request");
+        }
+        if (request.isArray()) {
+            ArrayNode responses = MAPPER.createArrayNode();
+            for (JsonNode single : request) {
+                responses.add(call(single));
+            }
+            return responses;
+        }
+        return call(request);
+    }
+
+    private JsonNode call(JsonNode request) {
+        JsonNode id = request.has("id") ? request.get("id") : NullNode.getInstance();
+        JsonNode method = request.get("method");
+        if (method == null || !method.isTextual()) {
+            return error(id, INVALID_REQUEST, "Invalid request");
+        }
+        try {
+            return switch (method.asText()) {
+                case "eth_call" -> ethCall(id, transactionParam(request));
+                case "eth_sendTransaction" -> ethSendTransaction(id, transactionParam(request));
+                default -> error(id, METHOD_NOT_FOUND, "Method not found: " + method.asText());
+            };
+        } catch (IllegalArgumentException e) {
+            return error(id, INVALID_PARAMS, "Invalid params: " + e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("[JsonRpcServer] {} failed", method.asText(), e);
+            return error(id, INTERNAL_ERROR, "Internal error: " + e.getMessage());
+        }
+    }
+
+    private JsonNode ethCall(JsonNode id, JsonNode tx) {
+        Address from = address(tx, "from", DEFAULT_SENDER);
+        Address to = address(tx, "to", null);
+        byte[] data = data(tx);
+        long gas = quantity(tx, "gas", DEFAULT_GAS);
+        if (to == null) {
+            throw new IllegalArgumentException("missing 'to'");
+        }
+        EVMResult result = engines.read(sevm -> sevm.staticCall(from, to, data, gas));
+        if (!result.isSuccess()) {
+            return executionError(id, result);
+        }
+        return success(id, MAPPER.getNodeFactory().textNode(hex(result.getReturnData())));
+    }
+
+    private JsonNode ethSendTransaction(JsonNode id, JsonNode tx) {
+        Address from = address(tx, "from", null);
+        Address to = address(tx, "to", null);
+        byte[] data = data(tx);
+        long value = quantity(tx, "value", 0);
+        long gas = quantity(tx, "gas", DEFAULT_GAS);
+        AccessList accessList = accessList(tx);
+        if (from == null) {
+            throw new IllegalArgumentException("missing 'from'");
+        }
+        if (to == null) {
+            throw new IllegalArgumentException("missing 'to'");
+        }
+        EVMResult result = engines.write(sevm -> sevm.executeTransaction(from, to, data, value, gas, accessList));
+        ObjectNode receipt = MAPPER.createObjectNode();
+        receipt.put("status", result.isSuccess() ? "0x1" : "0x0");
+        receipt.put("gasUsed", "0x" + Long.toHexString(result.getGasUsed()));
+        receipt.put("returnData", hex(result.getReturnData()));
+        return success(id, receipt);
+    }
+
+    private static JsonNode transactionParam(JsonNode request) {
+        JsonNode params = request.get("params");
+        if (params == null || !params.isArray() || params.isEmpty() || !params.get(0).isObject()) {
+            throw new IllegalArgumentException("expected [transaction]");
+        }
+        return params.get(0);
+    }
+
+    private static Address address(JsonNode tx, String field, Address defaultValue) {
+        JsonNode node = tx.get(field);
+        if (node == null || node.isNull()) {
+            return defaultValue;
+        }
+        return Address.of(node.asText());
+    }
+
+    private static byte[] data(JsonNode tx) {
+        JsonNode node = tx.has("data") ? tx.get("data") : tx.get("input");
+        if (node == null || node.isNull()) {
+            return new byte[0];
+        }
+        return NumUtils.hexStringToBytes(node.asText());
+    }
+
+    /**
+     * EIP-2930 access list: {@code [{"address": "0x..", "storageKeys": ["0x..", ..]}, ..]}, null if absent.
+     */
+    private static AccessList accessList(JsonNode tx) {
+        JsonNode node = tx.get("accessList");
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (!node.isArray()) {
+            throw new IllegalArgumentException("'accessList' must be an array");
+        }
+        AccessList accessList = new AccessList();
+        for (JsonNode entry : node) {
+            JsonNode keys = entry.path("storageKeys");
+            long[] slots = new long[keys.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = quantity(keys.get(i).asText(), "storageKeys");
+            }
+            accessList.add(Address.of(entry.path("address").asText()), slots);
+        }
+        return accessList;
+    }
+
+    private static long quantity(JsonNode tx, String field, long defaultValue) {
+        JsonNode node = tx.get(field);
+        if (node == null || node.isNull()) {
+            return defaultValue;
+        }
+        return quantity(node.asText(), field);
+    }
+
+    private static long quantity(String text, String field) {
+        if (!text.startsWith("0x") || text.length() < 3) {
+            throw new IllegalArgumentException("'" + field + "' must be a hex quantity");
+        }
+        return Long.parseUnsignedLong(text.substring(2), 16);
+    }
+
+    private static String hex(byte[] data) {
+        return data == null ? "0x" : NumUtils.bytesToHex(data).toLowerCase();
+    }
+
+    private static ObjectNode success(JsonNode id, JsonNode result) {
+        ObjectNode response = MAPPER.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        response.set("result", result);
+        return response;
+    }
+
+    private static ObjectNode executionError(JsonNode id, EVMResult result) {
+        ObjectNode response = error(id, EXECUTION_ERROR,
+                result.isReverted() ? "execution reverted" : "execution failed: " + result.getMsg());
+        ((ObjectNode) response.get("error")).put("data", hex(result.getReturnData()));
+        return response;
+    }
+
+    private static ObjectNode error(JsonNode id, int code, String message) {
+        ObjectNode response = MAPPER.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        ObjectNode error = response.putObject("error");
+        error.put("code", code);
+        error.put("message", message);
+        return response;
+    }
+}
@@ -0,0 +1,164 @@
+package com.frizo.lab.sevm.stack;
+
+import com.frizo.lab.sevm.exception.EVMException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operand stack of a frame: a fixed {@code long[]} plus a top index, no boxing.
+ * <p>
+ * The primitive operations ({@link #pushLong}, {@link #popLong}, {@link #peekLong}, {@link #dup}, {@link #swap(int)})
+ * are O(1) and used by the executors; the {@link Stack} methods are kept for callers working with boxed values.
+ * Depth 0 is the top of the stack, same as {@link Stack64Bit#get(int)}.
+ */
+public class LongStack implements Stack<Long> {
+
+    private final long[] slots;
+    private int top; // number of items, slots[top - 1] is the top
+
+    public LongStack(int stackLimit) {
+        this.slots = new long[stackLimit];
+    }
+
+    public void pushLong(long value) {
+        if (top >= slots.length) {
+            throw new RuntimeException("Stack overflow");
+        }
+        slots[top++] = value;
+    }
+
+    public long popLong() {
+        if (top == 0) {
+            throw new RuntimeException("Stack underflow");
+        }
+        return slots[--top];
+    }
+
+    /**
+     * @param depth 0 for the top item
+     */
+    public long peekLong(int depth) {
+        if (depth < 0 || depth >= top) {
+            throw new IndexOutOfBoundsException("Index out of bounds: " + depth);
+        }
+        return slots[top - 1 - depth];
+    }
+
+    /**
+     * DUPn: push a copy of the n-th item (1 for the top).
+     */
+    public void dup(int n) {
+        if (top < n) {
+            throw new EVMException.StackUnderflowException();
+        }
+        pushLong(slots[top - n]);
+    }
+
+    /**
+     * SWAPn: exchange the top item with the (n + 1)-th item.
+     */
+    public void swap(int n) {
+        if (top < n + 1) {
+            throw new EVMException.StackUnderflowException();
+        }
+        int a = top - 1;
+        int b = top - 1 - n;
+        long value = slots[a];
+        slots[a] = slots[b];
+        slots[b] = value;
+    }
+
+    /**
+     * @return the backing array, items bottom first up to {@link #size()}, for code working on the stack in place.
+     */
+    public long[] array() {
+        return slots;
+    }
+
+    /**
+     * Set the number of items after the {@link #array()} was modified in place.
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > slots.length) {
+            throw new IndexOutOfBoundsException("Invalid stack size: " + size);
+        }
+        top = size;
+    }
+
+    // ------------------------------------------------------------------------------------>
+
+    @Override
+    public Long safePop() {
+        return popLong();
+    }
+
+    @Override
+    public List<Long> safePop(int count) {
+        if (top < count) {
+            throw new EVMException.StackUnderflowException("Not enough elements in stack to pop " + count + " items. Current size: " + top);
+        }
+        List<Long> poppedValues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            poppedValues.add(slots[--top]);
+        }
+        return poppedValues;
+    }
+
+    @Override
+    public void safePush(Long value) {
+        pushLong(value);
+    }
+
+    @Override
+    public void printStack() {
+        StringBuilder sb = new StringBuilder("Stack: [");
+        for (int i = top - 1; i >= 0; i--) {
+            sb.append(slots[i]);
+            if (i > 0) {
+                sb.append(", ");
+            }
+        }
+        System.out.println(sb.append(']'));
+    }
+
+    @Override
+    public Long peek() {
+        if (top == 0) {
+            throw new RuntimeException("Stack is empty");
+        }
+        return slots[top - 1];
+    }
+
+    @Override
+    public int size() {
+        return top;
+    }
+
+    @Override
+    public Long get(int index) {
+        return peekLong(index);
+    }
+
+    @Override
+    public void swap(int indexOfA, int indexOfB) {
+        if (indexOfA < 0 || indexOfA >= top || indexOfB < 0 || indexOfB >= top) {
+            throw new IndexOutOfBoundsException("Index out of bounds: " + indexOfA + " or " + indexOfB);
+        }
+        int a = top - 1 - indexOfA;
+        int b = top - 1 - indexOfB;
+        long value = slots[a];
+        slots[a] = slots[b];
+        slots[b] = value;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return top == 0;
+    }
+
+    @Override
+    public void clear() {
+        top = 0;
+    }
+}
@@ -22,14 +22,12 @@ public class CallStack implements Stack<CallFrame> {
         this.maxDepth = maxDepth;
     }
 
-
     @Override
     public CallFrame safePop() {
         if (frames.isEmpty()) {
             throw new EVMException.CallStackUnderFlowException();
         }
         CallFrame popped = frames.pop();
-        log.info("[CallStack] Popped frame, depth: {}", frames.size());
 
         CallFrame previousFrame = frames.peek();
 
@@ -39,7 +37,6 @@ public class CallStack implements Stack<CallFrame> {
             // Collect logs to previous frame buffer.
             List<LogEntry> logs = popped.getLogs();
             previousFrame.addLogs(logs);
-            log.info("[CallStack] Collected {} logs to previous frame:{}", logs.size(), previousFrame.getFrameId());
         }
 
         if (previousFrame!= null && popped.isReverted()) {
@@ -61,7 +58,6 @@ public class CallStack implements Stack<CallFrame> {
             throw new EVMException.CallStackOverFlowException();
         }
         frames.push(frame);
-        log.info("[CallStack] Pushed frame, depth: {}", frames.size());
     }
 
     @Override
@@ -38,7 +38,6 @@ public class DummyStorageV2 implements Storage<Long, Long> {
             throw new IllegalArgumentException("Offset must be non-negative");
         }
         S.put(key, value);
-        log.info("Put value {} at offset {}", NumUtils.byteToHex(value), key);
     }
 
     @Override
@@ -84,7 +83,6 @@ public class DummyStorageV2 implements Storage<Long, Long> {
         for (long i = offset; i < offset + length; i++) {
             S.remove(i);
         }
-        log.info("Cleared DummyStorageV2 from offset {} to {}", offset, offset + length);
     }
 
     @Override
@@ -0,0 +1,176 @@
+package com.frizo.lab.sevm.storage;
+
+import com.frizo.lab.sevm.common.Address;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Storage view of one call frame on top of the {@link TransactionStorage} of its transaction.
+ * <p>
+ * Slots are addressed in the storage of the frame's contract address (the caller's for DELEGATECALL and CALLCODE).
+ * Writes go straight to the transaction cache, so reads always see the latest value with one probe; the frame keeps
+ * the set of slots it dirtied together with their value before its first write. When the frame returns
+ * successfully, {@link #commit()} folds that dirty set into the parent frame's; when it reverts, {@link #revert()}
+ * writes the old values back to the cache and drops the set.
+ * <p>
+ * Narrow accesses address the leading bytes of a slot, like {@link SlotStorage}.
+ */
+@Slf4j
+public class FrameStorage implements Storage<Long, Long> {
+
+    private final TransactionStorage transaction;
+    private final FrameStorage parent;
+    private final Supplier<Address> contractAddress;
+    // dirty slots of this frame (and of its successful callees), mapped to their value before the first write
+    private final Map<TransactionStorage.ContractSlots, LongLongHashMap> dirty = new HashMap<>();
+
+    private Address boundAddress;
+    private TransactionStorage.ContractSlots bound;
+
+    /**
+     * @param parent          storage of the calling frame, null for the entry frame of the transaction
+     * @param contractAddress address whose storage the frame accesses, read on every access since the entry
+     *                        frame's address is only set once the transaction is set up
+     */
+    public FrameStorage(TransactionStorage transaction, FrameStorage parent, Supplier<Address> contractAddress) {
+        this.transaction = transaction;
+        this.parent = parent;
+        this.contractAddress = contractAddress;
+    }
+
+    private TransactionStorage.ContractSlots slots() {
+        Address address = contractAddress.get();
+        if (address != boundAddress) {
+            bound = transaction.slotsOf(address);
+            boundAddress = address;
+        }
+        return bound;
+    }
+
+    private long load(long slot) {
+        return slots().load(slot);
+    }
+
+    private void store(long slot, long value) {
+        TransactionStorage.ContractSlots slots = slots();
+        LongLongHashMap originals = dirty.computeIfAbsent(slots, k -> new LongLongHashMap());
+        if (!originals.containsKey(slot)) {
+            originals.put(slot, slots.load(slot));
+        }
+        slots.store(slot, value);
+    }
+
+    /**
+     * The frame returned successfully: hand its dirty set to the parent frame.
+     * For the entry frame the writes are already in the transaction cache.
+     */
+    public void commit() {
+        if (parent != null) {
+            dirty.forEach((slots, originals) -> {
+                LongLongHashMap parentOriginals = parent.dirty.computeIfAbsent(slots, k -> new LongLongHashMap());
+                // the parent's older value wins for slots it dirtied itself
+                originals.forEach((slot, original) -> {
+                    if (!parentOriginals.containsKey(slot)) {
+                        parentOriginals.put(slot, original);
+                    }
+                });
+            });
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Reuse this storage for the entry frame of the next transaction (after {@link TransactionStorage#reset()}).
+     */
+    public void reset() {
+        dirty.clear();
+        boundAddress = null;
+        bound = null;
+    }
+
+    /**
+     * The frame reverted: restore every slot it dirtied.
+     */
+    public void revert() {
+        dirty.forEach((slots, originals) -> originals.forEach(slots::store));
+        dirty.clear();
+    }
+
+    @Override
+    public byte get(Long key) {
+        return (byte) get(key.longValue(), 1).longValue();
+    }
+
+    @Override
+    public void put(Long key, byte value) {
+        put(key.longValue(), 1, (long) value);
+    }
+
+    @Override
+    public boolean containsKey(Long key) {
+        return load(key) != 0;
+    }
+
+    @Override
+    public void clear(Long key) {
+        store(key, 0);
+    }
+
+    @Override
+    public void clear(Long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to clear storage with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        for (long slot = offset; slot < offset + length; slot++) {
+            store(slot, 0);
+        }
+    }
+
+    @Override
+    public void printStorage() {
+        System.out.println("-- FrameStorage contents ------------------------------------------------------>");
+        System.out.println("Storage contents of " + contractAddress.get() + ":");
+        slots().forEach((slot, value) -> System.out.printf("Slot: %d, Value: 0x%016X%n", slot, value));
+        System.out.println("<------------------------------------------------------ FrameStorage contents --");
+    }
+
+    @Override
+    public void put(long offset, long maxLength, Long value) {
+        if (maxLength <= 0) {
+            log.error("Attempted to put storage with non-positive maxLength: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must be positive");
+        }
+        if (maxLength > 8) {
+            log.error("Attempted to put storage with maxLength greater than 8 bytes: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must not exceed 8 bytes");
+        }
+
+        long bits = value == null ? 0 : value;
+        store(offset, maxLength == 8 ? bits : SlotStorage.overwriteLeading(load(offset), (int) maxLength, bits));
+    }
+
+    @Override
+    public Long get(long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to get storage with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (length > 8) {
+            log.error("Attempted to get storage with length greater than 8 bytes: {}", length);
+            throw new IllegalArgumentException("Length must not exceed 8 bytes");
+        }
+
+        return SlotStorage.leading(load(offset), (int) length);
+    }
+}
@@ -0,0 +1,190 @@
+package com.frizo.lab.sevm.storage;
+
+import java.util.Arrays;
+
+/**
+ * Primitive {@code long -> long} hash map with open addressing and linear probing, no boxing.
+ * <p>
+ * Key 0 marks an empty bucket, so an entry with key 0 is kept outside the table. The table doubles once it is
+ * half full, and {@link #remove} shifts the following entries of the probe run back instead of leaving tombstones.
+ */
+public class LongLongHashMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int bucket(long key) {
+        // Fibonacci hashing spreads sequential slots over the whole table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        for (int i = bucket(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return true;
+            }
+            if (k == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the value mapped to {@code key}, or {@code defaultValue} if there is none.
+     */
+    public long get(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        for (int i = bucket(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == 0) {
+                return defaultValue;
+            }
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int i = bucket(key);
+        for (; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            if (k == 0) {
+                break;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * @return true if {@code key} was mapped.
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            boolean had = hasZeroKey;
+            hasZeroKey = false;
+            zeroValue = 0;
+            return had;
+        }
+        int i = bucket(key);
+        for (; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                break;
+            }
+            if (k == 0) {
+                return false;
+            }
+        }
+        // backward shift: pull later entries of the probe run into the hole when their home bucket allows it
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = bucket(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0L);
+            Arrays.fill(values, 0L);
+            size = 0;
+        }
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    /**
+     * Visit every entry, in table order.
+     */
+    public void forEach(Visitor visitor) {
+        if (hasZeroKey) {
+            visitor.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int j = bucket(key);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = key;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,118 @@
+package com.frizo.lab.sevm.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contract storage keyed by 64-bit slot: every SSTORE / SLOAD is a single probe of a {@link LongLongHashMap}.
+ * <p>
+ * A slot holds one 8-byte word. Narrower accesses address the leading (big-endian) bytes of the slot, the way
+ * {@link DummyStorageV2} lays a word out from its offset; unlike DummyStorageV2, neighbouring slots never overlap.
+ * Storing 0 removes the slot, unwritten slots read as 0.
+ */
+@Slf4j
+public class SlotStorage implements Storage<Long, Long> {
+
+    private final LongLongHashMap slots = new LongLongHashMap();
+
+    @Override
+    public byte get(Long key) {
+        return (byte) get(key.longValue(), 1).longValue();
+    }
+
+    @Override
+    public void put(Long key, byte value) {
+        put(key.longValue(), 1, (long) value);
+    }
+
+    @Override
+    public boolean containsKey(Long key) {
+        return slots.containsKey(key);
+    }
+
+    @Override
+    public void clear(Long key) {
+        slots.remove(key);
+    }
+
+    @Override
+    public void clear(Long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to clear storage with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (offset + length < offset) {
+            log.error("Overflow detected when calculating end offset: {} + {}", offset, length);
+            throw new RuntimeException("Overflow detected");
+        }
+
+        for (long slot = offset; slot < offset + length; slot++) {
+            slots.remove(slot);
+        }
+    }
+
+    @Override
+    public void printStorage() {
+        System.out.println("-- SlotStorage contents ------------------------------------------------------>");
+        System.out.println("Storage contents:");
+        slots.forEach((slot, value) -> System.out.printf("Slot: %d, Value: 0x%016X%n", slot, value));
+        System.out.println("<------------------------------------------------------ SlotStorage contents --");
+    }
+
+    @Override
+    public void put(long offset, long maxLength, Long value) {
+        if (maxLength <= 0) {
+            log.error("Attempted to put storage with non-positive maxLength: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must be positive");
+        }
+        if (maxLength > 8) {
+            log.error("Attempted to put storage with maxLength greater than 8 bytes: {}", maxLength);
+            throw new IllegalArgumentException("maxLength must not exceed 8 bytes");
+        }
+
+        long bits = value == null ? 0 : value;
+        long word = maxLength == 8 ? bits : overwriteLeading(slots.get(offset, 0), (int) maxLength, bits);
+        if (word == 0) {
+            slots.remove(offset);
+        } else {
+            slots.put(offset, word);
+        }
+    }
+
+    @Override
+    public Long get(long offset, long length) {
+        if (length <= 0) {
+            log.error("Attempted to get storage with non-positive length: {}", length);
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        if (length > 8) {
+            log.error("Attempted to get storage with length greater than 8 bytes: {}", length);
+            throw new IllegalArgumentException("Length must not exceed 8 bytes");
+        }
+
+        return leading(slots.get(offset, 0), (int) length);
+    }
+
+    /**
+     * @return {@code word} with its leading {@code length} bytes replaced by the low bytes of {@code bits}.
+     */
+    static long overwriteLeading(long word, int length, long bits) {
+        if (length == 8) {
+            return bits;
+        }
+        int shift = (8 - length) * 8;
+        return (bits << shift) | (word & ((1L << shift) - 1));
+    }
+
+    /**
+     * @return the leading {@code length} bytes of {@code word}.
+     */
+    static long leading(long word, int length) {
+        return length == 8 ? word : word >>> (8 - length) * 8;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+}
@@ -0,0 +1,138 @@
+package com.frizo.lab.sevm.storage;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.wal.ChangeSet;
+import com.frizo.lab.sevm.common.Address;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Write-back cache of contract storage for one transaction, keyed by (contract address, slot).
+ * <p>
+ * A slot is read from the world state ({@link Blockchain#getStorage}) once, every later access in the transaction
+ * is a single probe of the contract's slot table. Writes stay in the cache until {@link #commit()} flushes the
+ * written slots to the world state. The frames of the transaction access it through {@link FrameStorage}.
+ */
+@Slf4j
+public class TransactionStorage {
+
+    // reset() keeps the slot tables of at most this many contracts for the next transaction
+    private static final int RETAINED_CONTRACTS = 64;
+
+    private final Blockchain worldState;
+    private final Map<Address, ContractSlots> contracts = new HashMap<>();
+
+    public TransactionStorage(Blockchain worldState) {
+        this.worldState = worldState;
+    }
+
+    ContractSlots slotsOf(Address contractAddress) {
+        return contracts.computeIfAbsent(contractAddress, address -> new ContractSlots(address, worldState));
+    }
+
+    public long load(Address contractAddress, long slot) {
+        return slotsOf(contractAddress).load(slot);
+    }
+
+    public void store(Address contractAddress, long slot, long value) {
+        slotsOf(contractAddress).store(slot, value);
+    }
+
+    /**
+     * @return true if the slot has already been accessed in this transaction (a warm slot in EIP-2929 terms).
+     */
+    public boolean isCached(Address contractAddress, long slot) {
+        ContractSlots slots = contracts.get(contractAddress);
+        return slots != null && slots.values.containsKey(slot);
+    }
+
+    /**
+     * Write every slot written in this transaction to the world state.
+     */
+    public void commit() {
+        commit(null);
+    }
+
+    /**
+     * Write every slot written in this transaction to the world state and record it in {@code changes}.
+     */
+    public void commit(ChangeSet changes) {
+        for (ContractSlots slots : contracts.values()) {
+            slots.flush(changes);
+        }
+        log.debug("[TransactionStorage] Committed storage of {} contracts", contracts.size());
+    }
+
+    /**
+     * Drop the cache, including uncommitted writes.
+     */
+    public void clear() {
+        contracts.clear();
+    }
+
+    /**
+     * Drop the cache for the next transaction, keeping the slot tables of a bounded number of contracts
+     * (emptied) so repeated calls to the same contracts do not allocate them again.
+     */
+    public void reset() {
+        if (contracts.size() > RETAINED_CONTRACTS) {
+            contracts.clear();
+            return;
+        }
+        for (ContractSlots slots : contracts.values()) {
+            slots.values.clear();
+            slots.written.clear();
+        }
+    }
+
+    /**
+     * Cached slots of one contract.
+     */
+    static final class ContractSlots {
+
+        private static final long MISSING = Long.MIN_VALUE;
+
+        private final Address address;
+        private final Blockchain worldState;
+        // current value of every slot accessed in the transaction
+        private final LongLongHashMap values = new LongLongHashMap();
+        // slots written in the transaction, values unused
+        private final LongLongHashMap written = new LongLongHashMap();
+
+        ContractSlots(Address address, Blockchain worldState) {
+            this.address = address;
+            this.worldState = worldState;
+        }
+
+        long load(long slot) {
+            long value = values.get(slot, MISSING);
+            if (value == MISSING && !values.containsKey(slot)) {
+                value = worldState.getStorage(address, slot);
+                values.put(slot, value);
+            }
+            return value;
+        }
+
+        void store(long slot, long value) {
+            values.put(slot, value);
+            written.put(slot, 0);
+        }
+
+        void forEach(LongLongHashMap.Visitor visitor) {
+            values.forEach(visitor);
+        }
+
+        private void flush(ChangeSet changes) {
+            written.forEach((slot, ignored) -> {
+                long value = values.get(slot, 0);
+                worldState.setStorage(address, slot, value);
+                if (changes != null) {
+                    changes.storage(address, slot, value);
+                }
+            });
+            written.clear();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.frizo.lab.sevm.trace;
+
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.context.log.LogEntry;
+import com.frizo.lab.sevm.op.Opcode;
+
+/**
+ * Hooks called by the interpreter while it executes, attached with {@code EVMContext.setTracer}.
+ * <p>
+ * Every hook is a no-op by default. Without a tracer the context holds {@link #NOOP}, whose calls the JVM
+ * inlines away, so the interpreter does no diagnostic work at all.
+ * With a tracer attached the interpreter steps one opcode at a time (no superinstructions, no compiled code),
+ * so {@link #onStep} sees every instruction.
+ */
+public interface ExecutionTracer {
+
+    ExecutionTracer NOOP = new ExecutionTracer() {
+    };
+
+    /**
+     * Called before an opcode executes, after its static gas is charged.
+     *
+     * @param frame  frame executing the opcode
+     * @param pc     byte pc of the opcode
+     * @param opcode opcode to execute
+     */
+    default void onStep(CallFrame frame, int pc, Opcode opcode) {
+    }
+
+    /**
+     * Called when a frame starts running: the entry frame, or a callee pushed by a call instruction.
+     *
+     * @param depth call stack depth including this frame
+     */
+    default void onFrameEnter(CallFrame frame, int depth) {
+    }
+
+    /**
+     * Called when a frame halts or runs out of code, before it is popped.
+     *
+     * @param depth call stack depth including this frame
+     */
+    default void onFrameExit(CallFrame frame, int depth) {
+    }
+
+    default void onStorageRead(CallFrame frame, long key, long value) {
+    }
+
+    default void onStorageWrite(CallFrame frame, long key, long value) {
+    }
+
+    default void onLog(CallFrame frame, LogEntry logEntry) {
+    }
+}
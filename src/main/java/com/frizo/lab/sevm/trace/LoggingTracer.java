@@ -0,0 +1,50 @@
+package com.frizo.lab.sevm.trace;
+
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.context.log.LogEntry;
+import com.frizo.lab.sevm.op.Opcode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Debug tracer: logs every step, call, storage access and log entry,
+ * and dumps the stack, memory and storage of each frame when it exits.
+ */
+@Slf4j
+public class LoggingTracer implements ExecutionTracer {
+
+    @Override
+    public void onStep(CallFrame frame, int pc, Opcode opcode) {
+        log.info("[LoggingTracer] pc: {}, opcode: {} ({} gas), gasRemaining: {}",
+                pc, opcode, opcode.getGasCost(), frame.getGasRemaining());
+    }
+
+    @Override
+    public void onFrameEnter(CallFrame frame, int depth) {
+        log.info("[LoggingTracer] Enter frame: {}, depth: {}, contract address: {}, gas: {}",
+                frame.getFrameId(), depth, frame.getContractAddress(), frame.getGasRemaining());
+    }
+
+    @Override
+    public void onFrameExit(CallFrame frame, int depth) {
+        log.info("[LoggingTracer] Exit frame: {}, depth: {}, reverted: {}, gasRemaining: {}",
+                frame.getFrameId(), depth, frame.isReverted(), frame.getGasRemaining());
+        frame.getStack().printStack();
+        frame.getMemory().printMemory();
+        frame.getStorage().printStorage();
+    }
+
+    @Override
+    public void onStorageRead(CallFrame frame, long key, long value) {
+        log.info("[LoggingTracer] SLOAD key: {}, value: {}", key, value);
+    }
+
+    @Override
+    public void onStorageWrite(CallFrame frame, long key, long value) {
+        log.info("[LoggingTracer] SSTORE key: {}, value: {}", key, value);
+    }
+
+    @Override
+    public void onLog(CallFrame frame, LogEntry logEntry) {
+        log.info("[LoggingTracer] Emitted log entry: {}", logEntry);
+    }
+}
@@ -24,6 +24,9 @@ public class EVMResult {
 
     private Address contractAddress;
 
+    private EVMResult() {
+    }
+
     private EVMResult(EVMException ex, EVMContext context) {
         this.success = context.getCurrentFrame().isSuccess();
         this.isReverted = context.getCurrentFrame().isReverted();
@@ -56,6 +59,15 @@ public class EVMResult {
         return new EVMResult(e, context);
     }
 
+    /**
+     * Failure of an execution that did not produce a result, e.g. one that was abandoned.
+     */
+    public static EVMResult failed(EVMException e) {
+        EVMResult result = new EVMResult();
+        result.msg = e.getMessage();
+        return result;
+    }
+
     public static EVMResult OK(EVMContext context) {
         return new EVMResult(null, context);
     }
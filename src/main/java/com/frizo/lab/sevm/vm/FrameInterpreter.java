@@ -0,0 +1,138 @@
+package com.frizo.lab.sevm.vm;
+
+import com.frizo.lab.sevm.context.EVMContext;
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.exception.EVMException;
+import com.frizo.lab.sevm.exec.InstructionDispatcher;
+import com.frizo.lab.sevm.exec.impl.CallExecutor;
+import com.frizo.lab.sevm.jit.JitTier;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.op.SuperInstruction;
+import com.frizo.lab.sevm.stack.call.CallStack;
+import com.frizo.lab.sevm.trace.ExecutionTracer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Non-recursive interpreter loop shared by {@link SEVM} and {@link SimpleEVM}.
+ * <p>
+ * CALL, CALLCODE, DELEGATECALL, STATICCALL and ICALL only push the callee frame onto the {@link CallStack}
+ * (see {@link CallExecutor}). This loop always runs the frame on top of the call stack; when a callee halts
+ * or runs out of code it is popped and its caller resumes right after the call instruction.
+ * Call depth is bounded by the call stack only, not by the Java stack.
+ * <p>
+ * With an {@link ExecutionTracer} attached to the context, frames run one opcode at a time
+ * (no superinstructions, no compiled code) so the tracer sees every step.
+ */
+@Slf4j
+class FrameInterpreter {
+
+    private final EVMContext context;
+    private final InstructionDispatcher dispatcher;
+    private final ExecutionTracer tracer;
+    private final boolean tracing;
+
+    FrameInterpreter(EVMContext context, InstructionDispatcher dispatcher) {
+        this.context = context;
+        this.dispatcher = dispatcher;
+        this.tracer = context.getTracer();
+        this.tracing = context.isTracing();
+    }
+
+    /**
+     * Run the current frame, and every frame it calls, until it halts or runs out of code.
+     * An error in a callee reverts that callee and resumes its caller.
+     * An error in the entry frame is thrown, with the gas prepaid for its current basic block refunded.
+     */
+    void run() {
+        CallStack callStack = context.getCallStack();
+        int entryDepth = callStack.size();
+        CallFrame entered = null;
+        int enteredDepth = entryDepth - 1;
+
+        while (true) {
+            CallFrame frame = context.getCurrentFrame();
+            if (frame != entered) {
+                if (tracing && callStack.size() > enteredDepth) {
+                    tracer.onFrameEnter(frame, callStack.size());
+                }
+                entered = frame;
+                enteredDepth = callStack.size();
+                // a new callee (or the entry frame) starting at pc 0 may run compiled
+                if (!tracing && frame.getPc() == 0) {
+                    try {
+                        JitTier.tryExecute(context);
+                    } catch (RuntimeException e) {
+                        fail(frame, e, entryDepth);
+                    }
+                    continue;
+                }
+            }
+
+            if (!frame.isRunning() || !frame.hasMoreCode()) {
+                if (tracing) {
+                    tracer.onFrameExit(frame, callStack.size());
+                }
+                if (callStack.size() == entryDepth) {
+                    return;
+                }
+                try {
+                    CallExecutor.returnFromCall(context);
+                } catch (RuntimeException e) {
+                    // e.g. a failed ICALL fails its caller
+                    fail(context.getCurrentFrame(), e, entryDepth);
+                }
+                continue;
+            }
+
+            try {
+                step();
+            } catch (RuntimeException e) {
+                fail(frame, e, entryDepth);
+            }
+        }
+    }
+
+    private void step() {
+        if (!tracing) {
+            SuperInstruction fused = context.getCurrentSuperInstruction();
+            if (fused != null) {
+                context.consumeStaticGas(fused.getGasCost());
+                dispatcher.dispatch(context, fused);
+                return;
+            }
+        }
+
+        Opcode opcode = context.getCurrentOpcode();
+        context.consumeStaticGas(opcode.getGasCost());
+        if (tracing) {
+            CallFrame frame = context.getCurrentFrame();
+            tracer.onStep(frame, frame.getPc(), opcode);
+        }
+        context.advanceCurrentPC();
+        dispatcher.dispatch(context, opcode);
+    }
+
+    private void fail(CallFrame frame, RuntimeException e, int entryDepth) {
+        frame.refundBlockGas();
+        if (context.getCallStack().size() == entryDepth) {
+            if (tracing) {
+                tracer.onFrameExit(frame, entryDepth);
+            }
+            throw e;
+        }
+        log.debug("[FrameInterpreter] Callee frame failed: {}, {}", frame.getFrameId(), e.getMessage());
+        frame.setReverted(true, revertReason(e));
+        frame.halt();
+    }
+
+    private static String revertReason(RuntimeException e) {
+        if (e instanceof EVMException.OutOfGasException) {
+            return "Out of gas";
+        } else if (e instanceof EVMException.InvalidJumpException) {
+            return "Invalid jump destination";
+        } else if (e instanceof EVMException.StackUnderflowException) {
+            return "Stack underflow";
+        }
+        return "Execution error: " + e.getMessage();
+    }
+}
@@ -1,36 +1,98 @@
 package com.frizo.lab.sevm.vm;
 
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.wal.WriteAheadLog;
+import com.frizo.lab.sevm.code.DecodedCode;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.common.Constant;
 import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.context.log.LogEntry;
+import com.frizo.lab.sevm.context.txn.AccessList;
 import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionDispatcher;
-import com.frizo.lab.sevm.op.Opcode;
-import com.frizo.lab.sevm.stack.Stack;
+import com.frizo.lab.sevm.memory.MemoryArena;
+import com.frizo.lab.sevm.stack.LongStack;
+import com.frizo.lab.sevm.storage.TransactionStorage;
+import com.frizo.lab.sevm.trace.ExecutionTracer;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class SEVM {
 
     @Getter
     private EVMContext context;
+    // state every execution of this engine reads and writes
+    @Getter
+    private final Blockchain blockchain;
     private final InstructionDispatcher dispatcher;
+    // frame memory of the running transaction, released in bulk when it returns and reused by the next one
+    private final MemoryArena memoryArena = new MemoryArena();
+    // attached to the context of every execution, see ExecutionTracer
+    @Setter
+    private ExecutionTracer tracer = ExecutionTracer.NOOP;
+    // when set, a transaction or creation only returns once its state changes are logged durably
+    @Setter
+    private WriteAheadLog writeAheadLog;
+
+    private static final byte[] NO_CODE = new byte[0];
 
     public SEVM() {
+        this(BlockChainFactory.getMockStateDB());
+    }
+
+    /**
+     * @param blockchain state of this engine. Engines running on different threads need one each, or a
+     *                   fork of a shared {@link com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain} each.
+     */
+    public SEVM(Blockchain blockchain) {
+        this.blockchain = blockchain;
         this.dispatcher = new InstructionDispatcher();
     }
 
+    /**
+     * Set up the context for the next execution: the first one builds it, later ones reset it in place,
+     * so an engine reused across transactions keeps its call stack, entry frame and caches.
+     */
+    private void prepareContext(byte[] bytecode, long value, long gasLimit, Address origin) {
+        if (context == null) {
+            this.context = new EVMContext(blockchain, bytecode, value, gasLimit, origin, memoryArena);
+        } else {
+            context.reset(bytecode, value, gasLimit, origin);
+        }
+        context.setTracer(tracer);
+    }
+
+    /**
+     * Return the engine to its idle state before it goes back to a pool: drops the state of the last execution
+     * (frames, return data, storage cache) while keeping the reusable structures. The results of earlier executions
+     * stay valid, {@link #getContext()} and the inspection methods below no longer show the last execution.
+     */
+    public void reset() {
+        // every execution resets the arena when it ends, this releases the entry frame memory taken by context.reset
+        if (context != null) {
+            context.reset(NO_CODE, 0, 0, context.getTxOrigin());
+        }
+        memoryArena.reset();
+    }
+
     // ------------------------------------------------------------------------------------>
 
     public EVMResult create(Address caller, Address contractAddress, byte[] code, long value, long gasLimit) {
-        log.info("[SEVM] Creating contract from: {}", caller);
-        this.context = new EVMContext(new byte[]{}, value, gasLimit, caller);
+        log.debug("[SEVM] Creating contract from: {}", caller);
+        prepareContext(NO_CODE, value, gasLimit, caller);
         // Initialize context for contract creation
-        return executeContractCreation(caller, contractAddress, code, value);
+        try {
+            return executeContractCreation(caller, contractAddress, code, value);
+        } finally {
+            context.getBlockchain().discardSnapshots();
+            memoryArena.reset();
+        }
     }
 
     /**
@@ -44,27 +106,97 @@ public class SEVM {
      */
     public EVMResult executeTransaction(Address from, Address to, byte[] data,
                                         long value, long gasLimit) {
+        return executeTransaction(from, to, data, value, gasLimit, null);
+    }
+
+    /**
+     * Execute a transaction with an access list: the declared storage slots are loaded into the transaction's
+     * storage cache before the interpreter starts. Start {@link #prefetch} with the same list while the previous
+     * transaction runs to make these loads warm.
+     *
+     * @param accessList state the transaction declares it will access, may be null
+     */
+    public EVMResult executeTransaction(Address from, Address to, byte[] data,
+                                        long value, long gasLimit, AccessList accessList) {
         if (from == null || data == null || gasLimit <= 0) {
             throw new IllegalArgumentException("Invalid transaction parameters");
         }
-        this.context = new EVMContext(data, value, gasLimit, from);
-        return executeContractCall(from, to, data, value);
+        // the entry frame gets the contract code in executeContractCall, data is its calldata
+        prepareContext(NO_CODE, value, gasLimit, from);
+        if (accessList != null) {
+            warm(accessList);
+        }
+        long snapshot = context.getBlockchain().takeSnapshot();
+        boolean committed = false;
+        try {
+            EVMResult result = executeContractCall(from, to, data, value);
+            if (!context.getCurrentFrame().isReverted()) {
+                context.commitStorage();
+                // committed only once durable: if the log cannot be written the finally block reverts the state
+                logChanges();
+                committed = true;
+            }
+            return result;
+        } finally {
+            if (!committed) {
+                context.getBlockchain().revertToSnapshot(snapshot);
+            }
+            context.getBlockchain().discardSnapshots();
+            memoryArena.reset();
+        }
     }
 
     /**
      * Execute a static call (read-only)
      */
     public EVMResult staticCall(Address from, Address to, byte[] callData, long gasLimit) {
-        log.info("[SEVM] Executing static call from: {} to: {}", from, to);
-
         // Initialize context for static call
-        this.context = new EVMContext(new byte[0], gasLimit, from);
+        prepareContext(NO_CODE, 0, gasLimit, from);
         context.setStaticCall(true);
+        try {
+            return executeStaticCall(to, callData);
+        } finally {
+            memoryArena.reset();
+        }
+    }
 
+    /**
+     * Start reading the state named by the access list of an upcoming transaction in the background, so its loads
+     * overlap with the transaction running now. Only reads: safe on a blockchain that allows reads concurrent with
+     * writes, see {@link StatePrefetcher}.
+     *
+     * @return completes once the state has been read
+     */
+    public CompletableFuture<Void> prefetch(AccessList accessList) {
+        return StatePrefetcher.prefetch(blockchain, accessList);
+    }
+
+    private void warm(AccessList accessList) {
+        TransactionStorage storage = context.getTransactionStorage();
+        for (AccessList.Entry entry : accessList.getEntries()) {
+            for (long slot : entry.getStorageKeys()) {
+                storage.load(entry.getAddress(), slot);
+            }
+        }
+    }
+
+    /**
+     * Run many read-only calls in parallel on one state, results in request order.
+     * <p>
+     * On a {@link com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain} the calls all see the version current
+     * when the batch starts, even while transactions keep being applied. Other blockchains are read in place and
+     * must not be written until the batch returns, which then waits for every call, timed-out ones included.
+     * Each call has its own gas limit and optional timeout, counted from when the call starts running.
+     */
+    public List<EVMResult> staticCallBatch(List<StaticCallRequest> requests) {
+        return StaticCallBatch.run(blockchain, requests, Runtime.getRuntime().availableProcessors());
+    }
+
+    private EVMResult executeStaticCall(Address to, byte[] callData) {
         // Load contract bytecode
-        byte[] contractCode;
+        DecodedCode contractCode;
         try {
-            contractCode = context.getBlockchain().loadCode(to);
+            contractCode = context.getBlockchain().loadDecodedCode(to);
         } catch (EVMException.ContractNotFoundException e) {
             log.error("[SEVM] Contract not found: {}", to, e);
             return EVMResult.failed(e, context);
@@ -73,9 +205,9 @@ public class SEVM {
         // Set up context
         context.setContractAddress(to);
         context.setCallData(callData);
-        context.setByteCode(contractCode);
+        context.setCode(contractCode);
 
-        return executeInternal(contractCode);
+        return executeInternal(contractCode.getCode());
     }
 
     // ------------------------------------------------------------------------------------>
@@ -84,7 +216,7 @@ public class SEVM {
      * Execute contract creation
      */
     private EVMResult executeContractCreation(Address from, Address creationAddress, byte[] initCode, long value) {
-        log.info("[SEVM] Executing contract creation from: {}", from);
+        log.debug("[SEVM] Executing contract creation from: {}", from);
         if (context.getDepth() > Constant.MAX_STACK_DEPTH) {
             return EVMResult.failed(new EVMException.StackOverflowException(), context);
         }
@@ -145,13 +277,18 @@ public class SEVM {
                     return EVMResult.failed(new EVMException.ErrCodeStoreOutOfGas(), context);
                 }
                 context.consumeGas(codeStoreGas);
-                log.info("[SEVM] consumeGas for code storage: {} ({} gas), gasRemaining: {}",
+                log.debug("[SEVM] consumeGas for code storage: {} ({} gas), gasRemaining: {}",
                         deployedCode.length, codeStoreGas, context.getGasRemaining());
 
-                // 14. store deployed code in blockchain state
+                // 14. store deployed code and the storage written by the constructor in blockchain state
                 context.getBlockchain().setCode(creationAddress, deployedCode);
+                context.commitStorage();
+                recordAccount(from);
+                recordAccount(creationAddress);
+                context.getChanges().code(creationAddress, deployedCode);
+                logChanges();
 
-                log.info("[SEVM] Contract created successfully at address: {}", creationAddress);
+                log.debug("[SEVM] Contract created successfully at address: {}", creationAddress);
                 return EVMResult.created(context, creationAddress);
             } else if (result.isReverted()) {
                 context.getBlockchain().revertToSnapshot(snapshot);
@@ -168,17 +305,31 @@ public class SEVM {
         }
     }
 
+    private void recordAccount(Address address) {
+        context.getChanges().account(address, blockchain.balance(address), blockchain.getNonce(address));
+    }
+
+    /**
+     * Append the state changes to the write-ahead log, if any, and wait until they are durable.
+     * Called before the changes count as committed, a failure here must revert them.
+     */
+    private void logChanges() {
+        if (writeAheadLog != null && !context.getChanges().isEmpty()) {
+            writeAheadLog.append(context.getChanges());
+        }
+    }
+
     /**
      * Execute contract call
      */
     private EVMResult executeContractCall(Address from, Address to, byte[] callData, long value) {
-        log.info("[SEVM] Executing contract call from: {} to: {}", from, to);
+        log.debug("[SEVM] Executing contract call from: {} to: {}", from, to);
 
         // Load contract bytecode from blockchain state
-        byte[] contractCode;
+        DecodedCode contractCode;
         try{
-            contractCode = context.getBlockchain().loadCode(to);
-            if (contractCode == null || contractCode.length == 0) {
+            contractCode = context.getBlockchain().loadDecodedCode(to);
+            if (contractCode == null || contractCode.length() == 0) {
                 throw new EVMException.ContractNotFoundException("Contract not found: " + to);
             }
         } catch (EVMException.ContractNotFoundException e) {
@@ -187,12 +338,12 @@ public class SEVM {
         }
 
         // Set up context for contract call
-        context.setByteCode(contractCode);
+        context.setCode(contractCode);
         context.setCallData(callData);
         context.setContractAddress(to);
         context.setValue(value);
 
-        return executeInternal(contractCode);
+        return executeInternal(contractCode.getCode());
     }
 
     /**
@@ -202,37 +353,30 @@ public class SEVM {
         try {
             // Set the bytecode to execute
             context.setByteCode(bytecode);
-            // Pre-process bytecode
-            context.preExecHandle();
-
-            // Execute
-            while (context.isRunning() && context.hasMoreCode()) {
-                Opcode opcode = context.getCurrentOpcode();
-                consumeGas(opcode);
-                context.advanceCurrentPC();
-
-                try {
-                    dispatcher.dispatch(context, opcode);
-                } catch (EVMException e) {
-                    log.error("[SEVM] Error executing opcode: {}", opcode, e);
-                    context.halt();
-                    context.getCurrentFrame().setReverted(true, e.getMessage());
-                    return EVMResult.failed(e, context);
-                }
+
+            // Execute, frames pushed by CALLs run in the same loop
+            try {
+                new FrameInterpreter(context, dispatcher).run();
+            } catch (EVMException.OutOfGasException e) {
+                throw e;
+            } catch (EVMException e) {
+                log.error("[SEVM] Error executing frame: {}", context.getCurrentFrame(), e);
+                return failed(e);
             }
 
             return EVMResult.OK(context);
 
         } catch (Exception e) {
             log.error("[SEVM] Execution failed", e);
-            return EVMResult.failed(new EVMException.UnknownSystemException(e), context);
+            return failed(new EVMException.UnknownSystemException(e));
         }
     }
 
-    private void consumeGas(Opcode opcode) {
-        context.consumeGas(opcode.getGasCost());
-        log.info("[SEVM] consumeGas: {} ({} gas), gasRemaining: {}",
-                opcode, opcode.getGasCost(), context.getGasRemaining());
+    private EVMResult failed(EVMException e) {
+        context.getCurrentFrame().refundBlockGas();
+        context.halt();
+        context.getCurrentFrame().setReverted(true, e.getMessage());
+        return EVMResult.failed(e, context);
     }
 
     // Utility methods for debugging and inspection
@@ -244,7 +388,7 @@ public class SEVM {
         return context != null ? context.getGasUsed() : 0;
     }
 
-    public Stack<Long> getStack() {
+    public LongStack getStack() {
         return context != null ? context.getCurrentStack() : null;
     }
 
@@ -253,9 +397,7 @@ public class SEVM {
     }
 
     public void registerContract(Address contractAddress, byte[] contractBytecode) {
-        if (context != null) {
-            context.getBlockchain().registerContract(contractAddress, contractBytecode);
-        }
+        blockchain.registerContract(contractAddress, contractBytecode);
     }
 
     // Debug methods
@@ -3,9 +3,9 @@ package com.frizo.lab.sevm.vm;
 import com.frizo.lab.sevm.common.Address;
 import com.frizo.lab.sevm.context.EVMContext;
 import com.frizo.lab.sevm.context.log.LogEntry;
+import com.frizo.lab.sevm.exception.EVMException;
 import com.frizo.lab.sevm.exec.InstructionDispatcher;
-import com.frizo.lab.sevm.op.Opcode;
-import com.frizo.lab.sevm.stack.Stack;
+import com.frizo.lab.sevm.stack.LongStack;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,7 +24,6 @@ public class SimpleEVM {
         this.dispatcher = new InstructionDispatcher();
     }
 
-    // for CallFrame execution
     public SimpleEVM(EVMContext context) {
         this.context = context;
         this.dispatcher = new InstructionDispatcher();
@@ -34,43 +33,20 @@ public class SimpleEVM {
         return context.getGasRemaining();
     }
 
-    /**
-     * scan the bytecode to find valid jump destinations
-     */
-    private void preHandle() {
-        log.info("[SimpleEVM] Pre-handling bytecode to find valid jump destinations...");
-        for (int i = 0; i < context.getCurrentCode().length; i++) {
-            if (context.getCurrentCode()[i] == Opcode.JUMPDEST.getCode()) {
-                context.getValidJumpDestIdx().add(i);
-            }
-        }
-    }
-
     public void run() {
         log.info("[SimpleEVM] Starting execution, Frame:{}, ...",
                 getContext().getCurrentFrame());
-        preHandle();
-
-        while (context.isRunning() && context.hasMoreCode()) {
-            Opcode opcode = context.getCurrentOpcode();
-            consumeGas(opcode);
-            context.advanceCurrentPC();
-
-            try {
-                dispatcher.dispatch(context, opcode);
-            } catch (Exception e) {
-                log.error("[SimpleEVM] Error executing frame: {}", getContext().getCurrentFrame(), e);
-                context.halt();
-                context.getCurrentFrame().setReverted(true, e.getMessage());
-                throw e;
-            }
-        }
-    }
-
 
-    private void consumeGas(Opcode opcode) {
-        context.consumeGas(opcode.getGasCost());
-        log.info("[SimpleEVM] consumeGas: {} ({} gas), gasRemaining: {}", opcode, opcode.getGasCost(), context.getGasRemaining());
+        try {
+            new FrameInterpreter(context, dispatcher).run();
+        } catch (EVMException.OutOfGasException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("[SimpleEVM] Error executing frame: {}", getContext().getCurrentFrame(), e);
+            context.halt();
+            context.getCurrentFrame().setReverted(true, e.getMessage());
+            throw e;
+        }
     }
 
     public long peek() {
@@ -89,7 +65,7 @@ public class SimpleEVM {
         context.getStorage().printStorage();
     }
 
-    public Stack<Long> getStack() {
+    public LongStack getStack() {
         return context.getCurrentStack();
     }
 
@@ -0,0 +1,58 @@
+package com.frizo.lab.sevm.vm;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.context.txn.AccessList;
+import com.frizo.lab.sevm.exception.EVMException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads the state named by an {@link AccessList} in the background: code, account record and storage slots of
+ * every entry.
+ * <p>
+ * The values read are dropped, they may be outdated by the time the transaction runs. The point is to take the
+ * cold loads of a disk-backed state (page faults of a {@link com.frizo.lab.sevm.blockchain.impl.MappedBlockChain},
+ * index lookups) off the transaction's critical path, so its own reads of the same state are warm.
+ */
+@Slf4j
+final class StatePrefetcher {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private StatePrefetcher() {
+    }
+
+    /**
+     * @param blockchain must allow reads concurrent with the writes of the running transaction, e.g. a
+     *                   {@link com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain} or a
+     *                   {@link com.frizo.lab.sevm.blockchain.impl.MappedBlockChain}
+     * @return completes once every entry has been read; read failures are ignored
+     */
+    static CompletableFuture<Void> prefetch(Blockchain blockchain, AccessList accessList) {
+        return CompletableFuture.runAsync(() -> {
+            for (AccessList.Entry entry : accessList.getEntries()) {
+                try {
+                    load(blockchain, entry);
+                } catch (RuntimeException e) {
+                    log.debug("[StatePrefetcher] Prefetch of {} failed: {}", entry.getAddress(), e.getMessage());
+                }
+            }
+        }, EXECUTOR);
+    }
+
+    private static void load(Blockchain blockchain, AccessList.Entry entry) {
+        try {
+            blockchain.loadCode(entry.getAddress());
+        } catch (EVMException.ContractNotFoundException e) {
+            // an account without code
+        }
+        blockchain.balance(entry.getAddress());
+        blockchain.getNonce(entry.getAddress());
+        for (long slot : entry.getStorageKeys()) {
+            blockchain.getStorage(entry.getAddress(), slot);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.frizo.lab.sevm.vm;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.blockchain.state.WorldState;
+import com.frizo.lab.sevm.exception.EVMException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the calls of {@link SEVM#staticCallBatch} on a few virtual threads.
+ * <p>
+ * Each worker owns one engine, reused for every call it takes (see {@link SEVM#reset()}), and takes the next
+ * request until none is left. The caller waits for the results in request order. The timeout of a call runs from
+ * the moment a worker takes it, so time spent queued behind other calls does not count. A call still running when
+ * its timeout expires gets a {@link EVMException.TimeoutException} result; its worker finishes it (execution is
+ * bounded by the call's gas limit) and the late result is dropped. Calls whose result is already settled, e.g.
+ * after the caller gave up, are skipped.
+ * <p>
+ * A {@link PersistentBlockChain} is read through pinned forks, so the batch returns as soon as every result is in,
+ * even while a timed-out call is still running. Any other blockchain is read in place: the batch then also waits
+ * for its workers to finish before returning, so no read outlives the call.
+ */
+@Slf4j
+final class StaticCallBatch {
+
+    private final List<StaticCallRequest> requests;
+    private final List<CompletableFuture<EVMResult>> results;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private StaticCallBatch(List<StaticCallRequest> requests) {
+        this.requests = requests;
+        this.results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * @param parallelism maximum number of calls running at once
+     */
+    static List<EVMResult> run(Blockchain blockchain, List<StaticCallRequest> requests, int parallelism) {
+        long start = System.nanoTime();
+        StaticCallBatch batch = new StaticCallBatch(requests);
+        Supplier<Blockchain> stateOfWorker = pinnedState(blockchain);
+        int workers = Math.min(parallelism, requests.size());
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name("static-call-batch-" + i).start(batch.worker(stateOfWorker.get())));
+        }
+        List<EVMResult> collected = new ArrayList<>(requests.size());
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                collected.add(batch.await(i));
+            }
+            if (!(blockchain instanceof PersistentBlockChain)) {
+                // read in place: timed-out calls must not keep reading after we return
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for static calls", e);
+        } finally {
+            // calls not taken yet are skipped by the workers
+            batch.results.forEach(result -> result.cancel(false));
+        }
+        log.debug("[StaticCallBatch] {} calls on {} workers in {} us", requests.size(), workers,
+                (System.nanoTime() - start) / 1000);
+        return collected;
+    }
+
+    /**
+     * A {@link PersistentBlockChain} is pinned at its current version, each worker reads it through its own fork so
+     * later writes are not seen. Other blockchains are read in place by every worker.
+     */
+    private static Supplier<Blockchain> pinnedState(Blockchain blockchain) {
+        if (blockchain instanceof PersistentBlockChain persistent) {
+            WorldState snapshot = persistent.getState();
+            return () -> new PersistentBlockChain(snapshot);
+        }
+        return () -> blockchain;
+    }
+
+    private Runnable worker(Blockchain state) {
+        return () -> {
+            SEVM engine = new SEVM(state);
+            for (int i = next.getAndIncrement(); i < requests.size(); i = next.getAndIncrement()) {
+                StaticCallRequest request = requests.get(i);
+                CompletableFuture<EVMResult> result = results.get(i);
+                if (result.isDone()) {
+                    continue;
+                }
+                Duration timeout = request.getTimeout();
+                if (timeout != null) {
+                    result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                try {
+                    result.complete(engine.staticCall(
+                            request.getFrom(), request.getTo(), request.getCallData(), request.getGasLimit()));
+                } catch (RuntimeException e) {
+                    log.error("[StaticCallBatch] Call {} failed", i, e);
+                    result.complete(EVMResult.failed(new EVMException.UnknownSystemException(e)));
+                } finally {
+                    engine.reset();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wait for the result of a call, its timeout (if any) is enforced by the worker taking it.
+     */
+    private EVMResult await(int index) throws InterruptedException {
+        try {
+            return results.get(index).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.warn("[StaticCallBatch] Call {} timed out", index);
+                return EVMResult.failed(new EVMException.TimeoutException(requests.get(index).getTimeout().toMillis()));
+            }
+            throw new IllegalStateException("Static call failed", e.getCause());
+        }
+    }
+}
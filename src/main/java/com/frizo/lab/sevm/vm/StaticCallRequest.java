@@ -0,0 +1,26 @@
+package com.frizo.lab.sevm.vm;
+
+import com.frizo.lab.sevm.common.Address;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * One read-only call of {@link SEVM#staticCallBatch}.
+ */
+@Getter
+@AllArgsConstructor
+public class StaticCallRequest {
+
+    private final Address from;
+    private final Address to;
+    private final byte[] callData;
+    private final long gasLimit;
+    // counted from the start of the batch, null for no timeout
+    private final Duration timeout;
+
+    public StaticCallRequest(Address from, Address to, byte[] callData, long gasLimit) {
+        this(from, to, callData, gasLimit, null);
+    }
+}
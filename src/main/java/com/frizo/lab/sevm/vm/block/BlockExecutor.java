@@ -0,0 +1,154 @@
+package com.frizo.lab.sevm.vm.block;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the transactions of a block optimistically in parallel, with the result of running them one after
+ * another in block order (Block-STM style).
+ * <p>
+ * Transactions run in waves on a worker pool. Each execution sees the writes of the lower transactions in a
+ * {@link MultiVersionState} and records what it read (storage slots, balances, nonces, code). After a wave the
+ * transactions are validated in block order: a transaction whose reads still match what it would read now is
+ * valid, and the valid prefix of the block is committed. Transactions that read a value a lower transaction has
+ * since (re)written run again in the next wave. The lowest uncommitted transaction only depends on committed
+ * ones, so every wave commits at least one transaction.
+ * <p>
+ * Blocks of transactions on disjoint state finish in one wave. The state passed to {@link #execute} is only
+ * read while the block runs and receives the net writes of the block at the end.
+ */
+@Slf4j
+public class BlockExecutor implements AutoCloseable {
+
+    private final ExecutorService workers;
+
+    public BlockExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "block-executor-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run the transactions in block order and write their changes to {@code state}.
+     *
+     * @param state must allow concurrent reads, e.g. a {@link com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain}
+     */
+    public BlockResult execute(Blockchain state, List<Transaction> transactions) {
+        int n = transactions.size();
+        MultiVersionState versions = new MultiVersionState(state);
+        SpeculativeBlockchain[] executions = new SpeculativeBlockchain[n];
+        EVMResult[] results = new EVMResult[n];
+        RuntimeException[] failures = new RuntimeException[n];
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            pending.add(i);
+        }
+        int committed = 0;
+        int executionCount = 0;
+        int waves = 0;
+        while (committed < n) {
+            waves++;
+            executionCount += pending.size();
+            runWave(transactions, pending, versions, executions, results, failures);
+
+            // validate in block order, commit the valid prefix
+            pending = new ArrayList<>();
+            for (int i = committed; i < n; i++) {
+                if (!executions[i].isValid()) {
+                    pending.add(i);
+                } else if (pending.isEmpty()) {
+                    if (failures[i] != null) {
+                        throw new IllegalStateException("Transaction " + i + " of the block failed", failures[i]);
+                    }
+                    committed = i + 1;
+                }
+            }
+            log.debug("[BlockExecutor] Wave {}: {} of {} transactions committed, {} to re-execute", waves, committed, n, pending.size());
+        }
+
+        applyWrites(versions, state, n);
+        return new BlockResult(List.of(results), executionCount, waves);
+    }
+
+    private void runWave(List<Transaction> transactions, List<Integer> wave, MultiVersionState versions,
+                         SpeculativeBlockchain[] executions, EVMResult[] results, RuntimeException[] failures) {
+        List<Future<?>> running = new ArrayList<>(wave.size());
+        for (int index : wave) {
+            running.add(workers.submit(() -> {
+                Transaction tx = transactions.get(index);
+                SpeculativeBlockchain execution = new SpeculativeBlockchain(versions, index);
+                try {
+                    results[index] = new SEVM(execution)
+                            .executeTransaction(tx.getFrom(), tx.getTo(), tx.getData(), tx.getValue(), tx.getGasLimit());
+                    failures[index] = null;
+                } catch (RuntimeException e) {
+                    // may come from an inconsistent speculative state, only reported once the execution is valid
+                    results[index] = null;
+                    failures[index] = e;
+                }
+                SpeculativeBlockchain previous = executions[index];
+                versions.publish(index, previous == null ? null : previous.getWrites().keySet(), execution.getWrites());
+                executions[index] = execution;
+            }));
+        }
+        for (Future<?> execution : running) {
+            try {
+                execution.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while executing a block", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Block execution failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Write the final value of every key the block wrote.
+     */
+    private static void applyWrites(MultiVersionState versions, Blockchain state, int n) {
+        Set<Address> accounts = new HashSet<>();
+        for (StateKey key : versions.writtenKeys()) {
+            switch (key.kind()) {
+                case ACCOUNT, BALANCE, NONCE -> accounts.add(key.address());
+                case CODE -> {
+                    byte[] code = (byte[]) versions.read(key, n);
+                    if (code != null) {
+                        state.setCode(key.address(), code);
+                    }
+                }
+                case STORAGE -> state.setStorage(key.address(), key.slot(), (Long) versions.read(key, n));
+            }
+        }
+        for (Address account : accounts) {
+            if ((Boolean) versions.read(StateKey.of(StateKey.Kind.ACCOUNT, account), n)) {
+                state.setAccount(account,
+                        (Long) versions.read(StateKey.of(StateKey.Kind.BALANCE, account), n),
+                        (Long) versions.read(StateKey.of(StateKey.Kind.NONCE, account), n));
+            }
+        }
+        state.discardSnapshots();
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+package com.frizo.lab.sevm.vm.block;
+
+import com.frizo.lab.sevm.vm.EVMResult;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link BlockExecutor#execute}.
+ */
+@Getter
+@AllArgsConstructor
+public class BlockResult {
+
+    // result of every transaction, in block order
+    private final List<EVMResult> results;
+    // executions run, including re-executions of transactions that read stale state
+    private final int executionCount;
+    // parallel rounds of executions
+    private final int waves;
+}
@@ -0,0 +1,72 @@
+package com.frizo.lab.sevm.vm.block;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.code.CodeCache;
+import com.frizo.lab.sevm.code.DecodedCode;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Writes of the transactions of a block, kept per state key and per transaction index, on top of the state
+ * before the block. Transaction {@code i} sees the write of the highest transaction below {@code i}.
+ */
+final class MultiVersionState {
+
+    // stands for a null value, e.g. removed code
+    private static final Object NONE = new Object();
+
+    private final Blockchain base;
+    private final Map<StateKey, ConcurrentSkipListMap<Integer, Object>> versions = new ConcurrentHashMap<>();
+    // decoded code by code array identity (arrays do not override equals), for the whole block
+    private final Map<byte[], DecodedCode> decoded = new ConcurrentHashMap<>();
+
+    MultiVersionState(Blockchain base) {
+        this.base = base;
+    }
+
+    /**
+     * @return the value transaction {@code txIndex} reads for the key.
+     */
+    Object read(StateKey key, int txIndex) {
+        ConcurrentSkipListMap<Integer, Object> writes = versions.get(key);
+        Map.Entry<Integer, Object> latest = writes == null ? null : writes.lowerEntry(txIndex);
+        if (latest == null) {
+            return key.readFrom(base);
+        }
+        return latest.getValue() == NONE ? null : latest.getValue();
+    }
+
+    /**
+     * @return the decoded form of a code array read from this state, decoded once per block
+     * however many executions run it.
+     */
+    DecodedCode decode(byte[] code) {
+        return decoded.computeIfAbsent(code, CodeCache::get);
+    }
+
+    /**
+     * Replace the writes of the previous execution of the transaction, if any, with those of its latest one.
+     */
+    void publish(int txIndex, Set<StateKey> previous, Map<StateKey, Object> writes) {
+        if (previous != null) {
+            for (StateKey key : previous) {
+                if (!writes.containsKey(key)) {
+                    versions.get(key).remove(txIndex);
+                }
+            }
+        }
+        writes.forEach((key, value) -> versions
+                .computeIfAbsent(key, k -> new ConcurrentSkipListMap<>())
+                .put(txIndex, value == null ? NONE : value));
+    }
+
+    /**
+     * @return every key written by some transaction of the block.
+     */
+    Set<StateKey> writtenKeys() {
+        return versions.keySet();
+    }
+}
@@ -0,0 +1,200 @@
+package com.frizo.lab.sevm.vm.block;
+
+import com.frizo.lab.sevm.blockchain.impl.AbstractBlockchain;
+import com.frizo.lab.sevm.blockchain.impl.StateJournal;
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.exception.EVMException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * State seen by one execution of a transaction of a block: the writes of earlier transactions in the
+ * {@link MultiVersionState} over the state before the block.
+ * <p>
+ * The first value read for each key is recorded, later reads of the key return that value, so the execution sees a
+ * consistent state even while other transactions publish. Writes stay local (journaled for snapshots) until the
+ * execution finishes and {@link BlockExecutor} publishes them.
+ */
+@Slf4j
+final class SpeculativeBlockchain extends AbstractBlockchain {
+
+    private final MultiVersionState versions;
+    private final int txIndex;
+    private final Map<StateKey, Object> reads = new HashMap<>();
+    private final Map<StateKey, Object> writes = new HashMap<>();
+    private final StateJournal journal = new StateJournal();
+
+    SpeculativeBlockchain(MultiVersionState versions, int txIndex) {
+        this.versions = versions;
+        this.txIndex = txIndex;
+    }
+
+    Map<StateKey, Object> getWrites() {
+        return writes;
+    }
+
+    /**
+     * @return true if every value this execution read is still what the transaction would read now.
+     */
+    boolean isValid() {
+        for (Map.Entry<StateKey, Object> read : reads.entrySet()) {
+            if (!Objects.deepEquals(read.getValue(), versions.read(read.getKey(), txIndex))) {
+                log.debug("[SpeculativeBlockchain] Transaction {} read a stale {}", txIndex, read.getKey());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object read(StateKey key) {
+        if (writes.containsKey(key)) {
+            return writes.get(key);
+        }
+        if (reads.containsKey(key)) {
+            return reads.get(key);
+        }
+        Object value = versions.read(key, txIndex);
+        reads.put(key, value);
+        return value;
+    }
+
+    private void write(StateKey key, Object value) {
+        boolean written = writes.containsKey(key);
+        Object previous = writes.put(key, value);
+        journal.record(() -> {
+            if (written) {
+                writes.put(key, previous);
+            } else {
+                writes.remove(key);
+            }
+        });
+    }
+
+    private boolean accountExists(Address address) {
+        return (Boolean) read(StateKey.of(StateKey.Kind.ACCOUNT, address));
+    }
+
+    private byte[] code(Address address) {
+        return (byte[]) read(StateKey.of(StateKey.Kind.CODE, address));
+    }
+
+    @Override
+    public byte[] loadCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        byte[] code = code(contractAddress);
+        if (code == null) {
+            throw new EVMException.ContractNotFoundException("Contract not found at address: " + contractAddress);
+        }
+        return code;
+    }
+
+    @Override
+    public DecodedCode loadDecodedCode(Address contractAddress) throws EVMException.ContractNotFoundException {
+        return versions.decode(loadCode(contractAddress));
+    }
+
+    @Override
+    public void transfer(Address from, Address to, long value) {
+        long fromBalance = balance(from);
+        if (fromBalance < value) {
+            throw new EVMException.ValueTransferException("Transfer failed from " + from + " to " + to + " with value: " + value,
+                    "Insufficient balance for transfer");
+        }
+        write(StateKey.of(StateKey.Kind.BALANCE, from), fromBalance - value);
+        // the recipient account is created by the transfer if it does not exist
+        if (!accountExists(to)) {
+            write(StateKey.of(StateKey.Kind.ACCOUNT, to), true);
+            write(StateKey.of(StateKey.Kind.NONCE, to), 1L);
+        }
+        write(StateKey.of(StateKey.Kind.BALANCE, to), balance(to) + value);
+    }
+
+    @Override
+    public void registerContract(Address contractAddress, byte[] contractBytecode) {
+        if (code(contractAddress) != null) {
+            throw new EVMException.ContractAlreadyExistsException("Contract already exists at address: " + contractAddress);
+        }
+        write(StateKey.of(StateKey.Kind.CODE, contractAddress), contractBytecode);
+    }
+
+    @Override
+    public long balance(Address address) {
+        return (Long) read(StateKey.of(StateKey.Kind.BALANCE, address));
+    }
+
+    @Override
+    public boolean exist(Address creationAddress) {
+        return code(creationAddress) != null;
+    }
+
+    @Override
+    public void createContract(Address creationAddress) {
+        if (accountExists(creationAddress)) {
+            throw new IllegalArgumentException("Account already exists for address: " + creationAddress);
+        }
+        setAccount(creationAddress, 0, 1);
+    }
+
+    @Override
+    public int getNonce(Address creationAddress) {
+        return (int) (long) (Long) read(StateKey.of(StateKey.Kind.NONCE, creationAddress));
+    }
+
+    @Override
+    public Object getCodeHash(Address creationAddress) {
+        if (!accountExists(creationAddress)) {
+            return null;
+        }
+        byte[] code = code(creationAddress);
+        return code == null ? 0 : Arrays.hashCode(code);
+    }
+
+    @Override
+    public void setNonce(Address from, int number) {
+        if (!accountExists(from)) {
+            throw new IllegalArgumentException("Address not found: " + from);
+        }
+        write(StateKey.of(StateKey.Kind.NONCE, from), (long) number);
+    }
+
+    @Override
+    public void setAccount(Address address, long balance, long nonce) {
+        write(StateKey.of(StateKey.Kind.ACCOUNT, address), true);
+        write(StateKey.of(StateKey.Kind.BALANCE, address), balance);
+        write(StateKey.of(StateKey.Kind.NONCE, address), nonce);
+    }
+
+    @Override
+    public long takeSnapshot() {
+        return journal.snapshot();
+    }
+
+    @Override
+    public void revertToSnapshot(long snapshot) {
+        journal.revertTo(snapshot);
+    }
+
+    @Override
+    public void discardSnapshots() {
+        journal.clear();
+    }
+
+    @Override
+    public void setCode(Address creationAddress, byte[] deployedCode) {
+        write(StateKey.of(StateKey.Kind.CODE, creationAddress), deployedCode);
+    }
+
+    @Override
+    public long getStorage(Address contractAddress, long slot) {
+        return (Long) read(StateKey.storage(contractAddress, slot));
+    }
+
+    @Override
+    public void setStorage(Address contractAddress, long slot, long value) {
+        write(StateKey.storage(contractAddress, slot), value);
+    }
+}
@@ -0,0 +1,80 @@
+package com.frizo.lab.sevm.vm.block;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.common.Address;
+
+/**
+ * One item of blockchain state a transaction can read or write: an account's existence, balance, nonce or code,
+ * or a storage slot.
+ */
+final class StateKey {
+
+    enum Kind {
+        ACCOUNT, BALANCE, NONCE, CODE, STORAGE
+    }
+
+    private final Kind kind;
+    private final long address;
+    private final long slot;
+
+    private StateKey(Kind kind, long address, long slot) {
+        this.kind = kind;
+        this.address = address;
+        this.slot = slot;
+    }
+
+    static StateKey of(Kind kind, Address address) {
+        return new StateKey(kind, address.getAddressLong(), 0);
+    }
+
+    static StateKey storage(Address address, long slot) {
+        return new StateKey(Kind.STORAGE, address.getAddressLong(), slot);
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    Address address() {
+        return Address.of(address);
+    }
+
+    long slot() {
+        return slot;
+    }
+
+    /**
+     * @return the value in the state before the block: Boolean, Long or byte[] (null if there is no code).
+     */
+    Object readFrom(Blockchain state) {
+        Address account = address();
+        return switch (kind) {
+            case ACCOUNT -> state.getCodeHash(account) != null;
+            case BALANCE -> state.balance(account);
+            case NONCE -> (long) state.getNonce(account);
+            case CODE -> state.exist(account) ? state.loadCode(account) : null;
+            case STORAGE -> state.getStorage(account, slot);
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StateKey other)) {
+            return false;
+        }
+        return kind == other.kind && address == other.address && slot == other.slot;
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * kind.hashCode() + Long.hashCode(address)) * 31 + Long.hashCode(slot);
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.STORAGE ? kind + "(" + address() + ", " + slot + ")" : kind + "(" + address() + ")";
+    }
+}
@@ -0,0 +1,19 @@
+package com.frizo.lab.sevm.vm.block;
+
+import com.frizo.lab.sevm.common.Address;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A call transaction of a block, the arguments of {@link com.frizo.lab.sevm.vm.SEVM#executeTransaction}.
+ */
+@Getter
+@AllArgsConstructor
+public class Transaction {
+
+    private final Address from;
+    private final Address to;
+    private final byte[] data;
+    private final long value;
+    private final long gasLimit;
+}
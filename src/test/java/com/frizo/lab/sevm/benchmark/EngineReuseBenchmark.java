@@ -0,0 +1,74 @@
+package com.frizo.lab.sevm.benchmark;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost and allocation of a simple read-only call on a new engine per call vs. one engine reused across calls
+ * (context, entry frame, stack, memory and storage cache reset in place).
+ * <p>
+ * Run {@link #main(String[])} from the test classpath, the GC profiler reports bytes allocated per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineReuseBenchmark {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+    private static final Address CONTRACT = Address.of("0x0A0A0A0A0A0A0D01");
+    private static final byte[] CALL_DATA = new byte[0];
+
+    // return storage[1]
+    private static final byte[] GETTER_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    private Blockchain blockchain;
+    private SEVM engine;
+
+    @Setup
+    public void setUp() {
+        blockchain = BlockChainFactory.createMockStateDB();
+        blockchain.registerContract(CONTRACT, GETTER_CODE);
+        blockchain.setStorage(CONTRACT, 1, 42);
+        engine = new SEVM(blockchain);
+    }
+
+    @Benchmark
+    public Object newEnginePerCall() {
+        return new SEVM(blockchain).staticCall(ORIGIN, CONTRACT, CALL_DATA, 100000);
+    }
+
+    @Benchmark
+    public Object reusedEngine() {
+        return engine.staticCall(ORIGIN, CONTRACT, CALL_DATA, 100000);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EngineReuseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.frizo.lab.sevm.benchmark;
+
+import com.frizo.lab.sevm.blockchain.impl.mock.MockContractStorage;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.exec.InstructionDispatcher;
+import com.frizo.lab.sevm.exec.InstructionExecutor;
+import com.frizo.lab.sevm.exec.impl.*;
+import com.frizo.lab.sevm.op.Opcode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode + executor lookup cost per instruction:
+ * legacy path (linear scan over Opcode.values() + HashMap<Class, executor> + canHandle)
+ * vs. the 256-entry byte-indexed tables in {@link Opcode#fromByte} and {@link InstructionDispatcher}.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpcodeDispatchBenchmark {
+
+    private byte[] opcodes;
+    private Map<Class<? extends InstructionExecutor>, InstructionExecutor> legacyExecutors;
+
+    @Setup
+    public void setUp() {
+        // opcode bytes (PUSH data skipped) of the selector-dispatch calculator contract
+        byte[] code = new MockContractStorage().get(Address.of("0x0202020202020202"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int pc = 0; pc < code.length; pc++) {
+            Opcode opcode = Opcode.fromByte(code[pc]);
+            out.write(code[pc]);
+            if (opcode.isPush()) {
+                pc += opcode.getCode() - Opcode.PUSH1.getCode() + 1;
+            }
+        }
+        this.opcodes = out.toByteArray();
+
+        this.legacyExecutors = new HashMap<>();
+        this.legacyExecutors.put(StopExecutor.class, new StopExecutor());
+        this.legacyExecutors.put(ArithmeticExecutor.class, new ArithmeticExecutor());
+        this.legacyExecutors.put(MemoryExecutor.class, new MemoryExecutor());
+        this.legacyExecutors.put(JumpExecutor.class, new JumpExecutor());
+        this.legacyExecutors.put(DupExecutor.class, new DupExecutor());
+        this.legacyExecutors.put(PushExecutor.class, new PushExecutor());
+        this.legacyExecutors.put(StorageExecutor.class, new StorageExecutor());
+        this.legacyExecutors.put(SwapExecutor.class, new SwapExecutor());
+        this.legacyExecutors.put(CallExecutor.class, new CallExecutor());
+        this.legacyExecutors.put(PopExecutor.class, new PopExecutor());
+        this.legacyExecutors.put(ReturnRevertExecutor.class, new ReturnRevertExecutor());
+        this.legacyExecutors.put(LogExecutor.class, new LogExecutor());
+        this.legacyExecutors.put(NumLogicInstruction.class, new NumLogicInstruction());
+        this.legacyExecutors.put(PrintExecutor.class, new PrintExecutor());
+        this.legacyExecutors.put(ReturnDataExecutor.class, new ReturnDataExecutor());
+        this.legacyExecutors.put(CallDataExecutor.class, new CallDataExecutor());
+    }
+
+    @Benchmark
+    public void legacyDecodeAndLookup(Blackhole bh) {
+        for (byte b : opcodes) {
+            Opcode opcode = legacyFromByte(b);
+            InstructionExecutor executor = legacyExecutors.get(opcode.getExecutorClass());
+            if (executor == null || !executor.canHandle(opcode)) {
+                throw new UnsupportedOperationException("No executor found for opcode: " + opcode);
+            }
+            bh.consume(executor);
+        }
+    }
+
+    @Benchmark
+    public void tableDecodeAndLookup(Blackhole bh) {
+        for (byte b : opcodes) {
+            Opcode opcode = Opcode.fromByte(b);
+            bh.consume(InstructionDispatcher.findExecutor(opcode));
+        }
+    }
+
+    private static Opcode legacyFromByte(byte b) {
+        for (Opcode op : Opcode.values()) {
+            if (op.getCode() == b) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown opcode: " + String.format("0x%02X", b));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OpcodeDispatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
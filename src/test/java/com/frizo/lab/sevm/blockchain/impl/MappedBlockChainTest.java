@@ -0,0 +1,95 @@
+package com.frizo.lab.sevm.blockchain.impl;
+
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.exception.EVMException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedBlockChainTest {
+
+    private static final Address ALICE = Address.of("0x0D0D0D0D0D0D0D01");
+    private static final Address BOB = Address.of("0x0D0D0D0D0D0D0D02");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testStateSurvivesRestart() throws IOException {
+        try (MappedBlockChain blockchain = MappedBlockChain.open(directory)) {
+            blockchain.createContract(ALICE);
+            blockchain.getStore().putAccount(ALICE.getAddressLong(),
+                    blockchain.getStore().account(ALICE.getAddressLong()).withBalance(1000));
+            blockchain.transfer(ALICE, BOB, 300);
+            blockchain.setCode(BOB, new byte[]{0x60, 0x01});
+            blockchain.setStorage(BOB, 3, 42);
+            blockchain.setNonce(ALICE, 5);
+        }
+        try (MappedBlockChain blockchain = MappedBlockChain.open(directory)) {
+            assertEquals(700, blockchain.balance(ALICE));
+            assertEquals(300, blockchain.balance(BOB));
+            assertEquals(5, blockchain.getNonce(ALICE));
+            assertArrayEquals(new byte[]{0x60, 0x01}, blockchain.loadCode(BOB));
+            assertEquals(42, blockchain.getStorage(BOB, 3));
+        }
+    }
+
+    @Test
+    void testSnapshotRevert() throws IOException {
+        try (MappedBlockChain blockchain = MappedBlockChain.open(directory)) {
+            blockchain.createContract(ALICE);
+            blockchain.setStorage(ALICE, 1, 7);
+            long snapshot = blockchain.takeSnapshot();
+            blockchain.createContract(BOB);
+            blockchain.setCode(BOB, new byte[]{0x00});
+            blockchain.setStorage(ALICE, 1, 8);
+
+            blockchain.revertToSnapshot(snapshot);
+
+            assertFalse(blockchain.exist(BOB));
+            assertNull(blockchain.getCodeHash(BOB));
+            assertEquals(7, blockchain.getStorage(ALICE, 1));
+            assertThrows(EVMException.ContractNotFoundException.class, () -> blockchain.loadCode(BOB));
+        }
+    }
+
+    @Test
+    void testCodeIsDecodedOnce() throws IOException {
+        try (MappedBlockChain blockchain = MappedBlockChain.open(directory)) {
+            blockchain.setCode(BOB, new byte[]{0x60, 0x01});
+            byte[] code = blockchain.loadCode(BOB);
+            assertSame(code, blockchain.loadCode(BOB));
+            assertSame(code, blockchain.loadDecodedCode(BOB).getCode());
+
+            long snapshot = blockchain.takeSnapshot();
+            blockchain.setCode(BOB, new byte[]{0x00});
+            assertArrayEquals(new byte[]{0x00}, blockchain.loadCode(BOB));
+
+            blockchain.revertToSnapshot(snapshot);
+            assertArrayEquals(new byte[]{0x60, 0x01}, blockchain.loadCode(BOB));
+            assertEquals(1, blockchain.loadDecodedCode(BOB).getInstructionCount());
+        }
+    }
+
+    @Test
+    void testCodeHashFollowsCode() throws IOException {
+        try (MappedBlockChain blockchain = MappedBlockChain.open(directory)) {
+            blockchain.createContract(BOB);
+            assertFalse(blockchain.exist(BOB));
+            assertEquals(0, blockchain.getCodeHash(BOB));
+
+            blockchain.setCode(BOB, new byte[]{0x60, 0x01});
+            assertTrue(blockchain.exist(BOB));
+            Object hash = blockchain.getCodeHash(BOB);
+            assertEquals(hash, blockchain.getCodeHash(BOB));
+
+            blockchain.setCode(BOB, new byte[]{0x60, 0x02});
+            assertNotEquals(hash, blockchain.getCodeHash(BOB));
+            assertArrayEquals(new byte[]{0x60, 0x02}, blockchain.loadCode(BOB));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.frizo.lab.sevm.blockchain.impl;
+
+import com.frizo.lab.sevm.blockchain.state.AccountState;
+import com.frizo.lab.sevm.blockchain.state.WorldState;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.exception.EVMException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentBlockChainTest {
+
+    private static final Address ALICE = Address.of("0x0D0D0D0D0D0D0D01");
+    private static final Address BOB = Address.of("0x0D0D0D0D0D0D0D02");
+
+    private static PersistentBlockChain funded() {
+        return new PersistentBlockChain(WorldState.EMPTY.withAccount(ALICE, new AccountState(1000, 1)));
+    }
+
+    @Test
+    void testReadersKeepTheirVersion() {
+        PersistentBlockChain blockchain = funded();
+        WorldState before = blockchain.getState();
+        PersistentBlockChain fork = blockchain.fork();
+
+        blockchain.transfer(ALICE, BOB, 300);
+        blockchain.setStorage(BOB, 1, 7);
+
+        assertEquals(700, blockchain.balance(ALICE));
+        assertEquals(300, blockchain.balance(BOB));
+        assertEquals(7, blockchain.getStorage(BOB, 1));
+        // the old version and the fork still see the state before the writes
+        assertEquals(1000, before.account(ALICE).getBalance());
+        assertNull(before.account(BOB));
+        assertEquals(0, fork.getStorage(BOB, 1));
+
+        fork.setStorage(BOB, 1, 9);
+        assertEquals(7, blockchain.getStorage(BOB, 1));
+    }
+
+    @Test
+    void testSnapshotRevert() {
+        PersistentBlockChain blockchain = funded();
+        long snapshot = blockchain.takeSnapshot();
+        blockchain.createContract(BOB);
+        blockchain.setCode(BOB, new byte[]{0x00});
+        blockchain.setNonce(ALICE, 2);
+
+        blockchain.revertToSnapshot(snapshot);
+
+        assertFalse(blockchain.exist(BOB));
+        assertNull(blockchain.getCodeHash(BOB));
+        assertEquals(1, blockchain.getNonce(ALICE));
+        assertThrows(EVMException.ContractNotFoundException.class, () -> blockchain.loadCode(BOB));
+    }
+
+    @Test
+    void testInsufficientBalance() {
+        PersistentBlockChain blockchain = funded();
+
+        assertThrows(EVMException.ValueTransferException.class, () -> blockchain.transfer(ALICE, BOB, 1001));
+        assertEquals(1000, blockchain.balance(ALICE));
+        assertEquals(0, blockchain.balance(BOB));
+    }
+}
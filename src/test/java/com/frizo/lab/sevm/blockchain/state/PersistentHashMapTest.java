@@ -0,0 +1,78 @@
+package com.frizo.lab.sevm.blockchain.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentHashMapTest {
+
+    // every instance hashes alike, so all keys end up in one collision node
+    private record Colliding(int id) {
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @Test
+    void testAgainstReference() {
+        PersistentHashMap<Long, Long> map = PersistentHashMap.empty();
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                map = map.remove(key);
+                reference.remove(key);
+            } else {
+                long value = random.nextLong();
+                map = map.put(key, value);
+                reference.put(key, value);
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertEquals(reference.get(key), map.get(key));
+        }
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(reference, visited);
+    }
+
+    @Test
+    void testOldVersionsUnchanged() {
+        PersistentHashMap<String, Integer> v1 = PersistentHashMap.<String, Integer>empty().put("a", 1).put("b", 2);
+        PersistentHashMap<String, Integer> v2 = v1.put("a", 10).remove("b").put("c", 3);
+
+        assertEquals(1, v1.get("a"));
+        assertEquals(2, v1.get("b"));
+        assertNull(v1.get("c"));
+        assertEquals(10, v2.get("a"));
+        assertNull(v2.get("b"));
+        assertEquals(2, v2.size());
+        // no-op updates keep the same instance
+        assertSame(v2, v2.put("c", v2.get("c")));
+        assertSame(v2, v2.remove("missing"));
+    }
+
+    @Test
+    void testHashCollisions() {
+        PersistentHashMap<Colliding, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.put(new Colliding(i), i);
+        }
+        PersistentHashMap<Colliding, Integer> removed = map.remove(new Colliding(3));
+
+        assertEquals(10, map.size());
+        assertEquals(9, removed.size());
+        assertEquals(3, map.get(new Colliding(3)));
+        assertNull(removed.get(new Colliding(3)));
+        assertEquals(9, removed.get(new Colliding(9)));
+    }
+}
@@ -0,0 +1,196 @@
+package com.frizo.lab.sevm.blockchain.store;
+
+import com.frizo.lab.sevm.blockchain.state.AccountState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedStateStoreTest {
+
+    private static final int CHUNK = 4096;
+
+    @TempDir
+    Path directory;
+
+    private MappedStateStore open() throws IOException {
+        return MappedStateStore.open(directory, CHUNK, Long.MAX_VALUE);
+    }
+
+    private static void fill(MappedStateStore store) {
+        for (long address = 1; address <= 500; address++) {
+            store.putAccount(address, new AccountState(address * 10, 1));
+            store.putStorage(address, 0, address);
+            store.putStorage(address, 7, -address);
+        }
+        store.putCode(42, new byte[]{0x60, 0x01, 0x00});
+        store.putCode(43, new byte[]{0x00});
+        store.putCode(43, null);
+        store.removeAccount(500);
+        store.putStorage(499, 7, 0);
+    }
+
+    private static void assertFilled(MappedStateStore store) {
+        assertEquals(499, store.accountCount());
+        assertEquals(2500, store.account(250).getBalance());
+        assertEquals(1, store.account(250).getNonce());
+        assertNull(store.account(500));
+        assertEquals(250, store.storage(250, 0));
+        assertEquals(-250, store.storage(250, 7));
+        assertEquals(0, store.storage(499, 7));
+        assertArrayEquals(new byte[]{0x60, 0x01, 0x00}, store.code(42));
+        assertNull(store.code(43));
+    }
+
+    @Test
+    void testReopenFromCheckpoint() throws IOException {
+        try (MappedStateStore store = open()) {
+            fill(store);
+            assertFilled(store);
+        }
+        try (MappedStateStore store = open()) {
+            assertFilled(store);
+        }
+    }
+
+    @Test
+    void testReplayTailAfterCheckpoint() throws IOException {
+        MappedStateStore store = open();
+        fill(store);
+        store.checkpoint();
+        store.putStorage(1, 0, 99);
+        store.putAccount(501, new AccountState(5, 2));
+        // no close: the later records are only in the segment
+
+        try (MappedStateStore reopened = open()) {
+            assertEquals(99, reopened.storage(1, 0));
+            assertEquals(5, reopened.account(501).getBalance());
+            assertEquals(500, reopened.accountCount());
+        }
+        store.close();
+    }
+
+    @Test
+    void testFullReplayWithoutCheckpoint() throws IOException {
+        try (MappedStateStore store = open()) {
+            fill(store);
+        }
+        Files.delete(directory.resolve("state.idx"));
+        try (MappedStateStore store = open()) {
+            assertFilled(store);
+        }
+    }
+
+    @Test
+    void testTornRecordIsCutOff() throws IOException {
+        try (MappedStateStore store = open()) {
+            fill(store);
+            store.putStorage(1, 0, 99);
+        }
+        Files.delete(directory.resolve("state.idx"));
+        // damage the last byte of the last record, as if its page never reached the disk
+        try (FileChannel channel = FileChannel.open(directory.resolve("state.seg"), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer segment = ByteBuffer.allocate((int) channel.size());
+            channel.read(segment, 0);
+            int last = segment.limit() - 1;
+            while (segment.get(last) == 0) {
+                last--;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) (segment.get(last) ^ 1)}), last);
+        }
+
+        try (MappedStateStore store = open()) {
+            assertFilled(store);
+            assertEquals(1, store.storage(1, 0));
+            store.putStorage(1, 0, 7);
+        }
+        Files.delete(directory.resolve("state.idx"));
+        try (MappedStateStore store = open()) {
+            assertFilled(store);
+            assertEquals(7, store.storage(1, 0));
+        }
+    }
+
+    @Test
+    void testCompactionKeepsLiveRecords() throws IOException {
+        try (MappedStateStore store = open()) {
+            fill(store);
+            for (int i = 0; i < 1000; i++) {
+                store.putStorage(1, 1, i + 1);
+            }
+            long before = Files.size(directory.resolve("state.seg"));
+            assertTrue(store.garbageBytes() > 0);
+
+            store.compact();
+
+            assertEquals(0, store.garbageBytes());
+            assertTrue(Files.size(directory.resolve("state.seg")) < before);
+            assertFilled(store);
+            assertEquals(1000, store.storage(1, 1));
+            store.putStorage(1, 1, 5);
+        }
+        try (MappedStateStore store = open()) {
+            assertFilled(store);
+            assertEquals(5, store.storage(1, 1));
+        }
+    }
+
+    @Test
+    void testWritesDuringCompaction() throws Exception {
+        try (MappedStateStore store = open()) {
+            fill(store);
+            for (int i = 0; i < 1000; i++) {
+                store.putStorage(1, 1, i + 1);
+            }
+            // writes racing with the copy land either in the copied records or in the tail copied at the swap
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    store.putStorage(2, 1, i + 1);
+                    store.putAccount(600 + i % 10, new AccountState(i, 1));
+                }
+            });
+            writer.start();
+            store.compact();
+            writer.join();
+
+            assertEquals(509, store.accountCount());
+            assertEquals(-250, store.storage(250, 7));
+            assertEquals(2000, store.storage(2, 1));
+            assertEquals(1999, store.account(609).getBalance());
+        }
+        try (MappedStateStore store = open()) {
+            assertEquals(1000, store.storage(1, 1));
+            assertEquals(2000, store.storage(2, 1));
+            assertEquals(1999, store.account(609).getBalance());
+        }
+    }
+
+    @Test
+    void testBackgroundCompaction() throws Exception {
+        try (MappedStateStore store = MappedStateStore.open(directory, CHUNK, 1024)) {
+            for (int i = 0; i < 500; i++) {
+                store.putStorage(1, 1, i + 1);
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (store.garbageBytes() > 1024 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(store.garbageBytes() <= 1024);
+            assertEquals(500, store.storage(1, 1));
+        }
+    }
+
+    @Test
+    void testRecordLargerThanChunk() throws IOException {
+        try (MappedStateStore store = open()) {
+            assertThrows(IllegalArgumentException.class, () -> store.putCode(1, new byte[CHUNK]));
+        }
+    }
+}
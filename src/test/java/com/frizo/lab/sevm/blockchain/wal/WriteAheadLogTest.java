@@ -0,0 +1,126 @@
+package com.frizo.lab.sevm.blockchain.wal;
+
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    private static final Address ALICE = Address.of("0x0E0E0E0E0E0E0E01");
+    private static final Address CONTRACT = Address.of("0x0E0E0E0E0E0E0E02");
+
+    @TempDir
+    Path directory;
+
+    private static ChangeSet changes(long value) {
+        ChangeSet changes = new ChangeSet();
+        changes.storage(CONTRACT, value, value * 10);
+        changes.account(ALICE, 1000 - value, value);
+        return changes;
+    }
+
+    @Test
+    void testRecoveryReplaysLog() throws IOException {
+        Path file = directory.resolve("state.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, changes -> fail("empty log"))) {
+            ChangeSet deploy = changes(1);
+            deploy.code(CONTRACT, new byte[]{0x60, 0x01, 0x00});
+            wal.append(deploy);
+            wal.append(changes(2));
+        }
+
+        PersistentBlockChain recovered = new PersistentBlockChain();
+        try (WriteAheadLog wal = WriteAheadLog.open(file, changes -> changes.applyTo(recovered))) {
+            assertEquals(0, wal.getAppendCount());
+        }
+        assertEquals(10, recovered.getStorage(CONTRACT, 1));
+        assertEquals(20, recovered.getStorage(CONTRACT, 2));
+        assertEquals(998, recovered.balance(ALICE));
+        assertEquals(2, recovered.getNonce(ALICE));
+        assertArrayEquals(new byte[]{0x60, 0x01, 0x00}, recovered.loadCode(CONTRACT));
+    }
+
+    @Test
+    void testTornTailIsCutOff() throws IOException {
+        Path file = directory.resolve("state.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, changes -> { })) {
+            wal.append(changes(1));
+            wal.append(changes(2));
+        }
+        long complete = Files.size(file);
+        // a crash in the middle of the third record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 5}));
+        }
+
+        List<ChangeSet> replayed = new ArrayList<>();
+        try (WriteAheadLog wal = WriteAheadLog.open(file, replayed::add)) {
+            assertEquals(complete, Files.size(file));
+            wal.append(changes(3));
+        }
+        assertEquals(2, replayed.size());
+
+        replayed.clear();
+        try (WriteAheadLog ignored = WriteAheadLog.open(file, replayed::add)) {
+            assertEquals(3, replayed.size());
+            assertEquals(30, replayed.get(2).getStorageWrites().get(0).getValue());
+        }
+    }
+
+    @Test
+    void testReset() throws IOException {
+        Path file = directory.resolve("state.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, changes -> { })) {
+            wal.append(changes(1));
+            wal.reset();
+            wal.append(changes(2));
+        }
+        List<ChangeSet> replayed = new ArrayList<>();
+        try (WriteAheadLog ignored = WriteAheadLog.open(file, replayed::add)) {
+            assertEquals(1, replayed.size());
+        }
+    }
+
+    @Test
+    void testConcurrentCommitsShareForce() throws Exception {
+        Path file = directory.resolve("state.wal");
+        int threads = 8;
+        int perThread = 50;
+        try (WriteAheadLog wal = WriteAheadLog.open(file, 2, TimeUnit.MILLISECONDS, changes -> { })) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        wal.append(changes(i));
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            assertEquals(threads * perThread, wal.getAppendCount());
+            assertTrue(wal.getForceCount() < wal.getAppendCount(),
+                    "forces: " + wal.getForceCount() + ", appends: " + wal.getAppendCount());
+        }
+
+        int[] replayed = new int[1];
+        try (WriteAheadLog ignored = WriteAheadLog.open(file, changes -> replayed[0]++)) {
+            assertEquals(threads * perThread, replayed[0]);
+        }
+    }
+}
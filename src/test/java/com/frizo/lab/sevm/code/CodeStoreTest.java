@@ -0,0 +1,65 @@
+package com.frizo.lab.sevm.code;
+
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeStoreTest {
+
+    private static final byte[] PROXY = {
+            Opcode.PUSH1.getCode(), 0x04,
+            Opcode.JUMP.getCode(),
+            Opcode.INVALID.getCode(),
+            Opcode.JUMPDEST.getCode(),
+            Opcode.STOP.getCode()
+    };
+
+    @Test
+    void testClonesShareOneEntry() {
+        CodeStore store = new CodeStore();
+        for (long i = 1; i <= 1000; i++) {
+            store.put(Address.of(i), PROXY.clone());
+        }
+
+        assertEquals(1000, store.size());
+        assertEquals(1, store.uniqueCodeCount());
+        byte[] first = store.get(Address.of(1));
+        assertSame(first, store.get(Address.of(1000)));
+        assertArrayEquals(PROXY, first);
+
+        // the analysis is shared, owned by the store and decoded from the canonical code
+        DecodedCode decoded = store.entryOf(Address.of(500)).getDecodedCode();
+        assertSame(decoded, store.entryOf(Address.of(1)).getDecodedCode());
+        assertSame(first, decoded.getCode());
+        assertTrue(decoded.isJumpDest(4));
+
+        // not kept in the shared cache
+        CodeCache.clear();
+        assertNotSame(decoded, CodeCache.get(first));
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        CodeStore store = new CodeStore();
+        Address a = Address.of(1);
+        Address b = Address.of(2);
+        byte[] other = {Opcode.STOP.getCode()};
+
+        store.put(a, PROXY);
+        store.put(b, PROXY);
+        store.put(b, other);
+        assertEquals(2, store.uniqueCodeCount());
+        assertEquals(1, store.entryOf(a).getReferences());
+
+        store.remove(a);
+        assertEquals(1, store.uniqueCodeCount());
+        assertNull(store.get(a));
+        assertFalse(store.contains(a));
+        assertArrayEquals(other, store.get(b));
+
+        store.remove(b);
+        assertEquals(0, store.uniqueCodeCount());
+    }
+}
@@ -0,0 +1,120 @@
+package com.frizo.lab.sevm.code;
+
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.op.SuperInstruction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecodedCodeTest {
+
+    @Test
+    void decode() {
+        byte[] code = {
+                Opcode.PUSH2.getCode(), 0x01, 0x02,     // 0: PUSH2 0x0102
+                Opcode.JUMPDEST.getCode(),              // 3: JUMPDEST
+                Opcode.PUSH1.getCode(), (byte) 0xFF,    // 4: PUSH1 0xFF
+                Opcode.ADD.getCode(),                   // 6: ADD
+                Opcode.PUSH4.getCode(), 0x0A            // 7: PUSH4, truncated
+        };
+
+        DecodedCode decoded = DecodedCode.decode(code);
+
+        assertEquals(5, decoded.getInstructionCount());
+        assertEquals(0x0102, decoded.immediateAt(0));
+        assertEquals(0xFF, decoded.immediateAt(2));
+        assertEquals(0x0A000000L, decoded.immediateAt(4));
+
+        // jump targets map to instruction indexes, PUSH data is not an instruction
+        assertEquals(1, decoded.indexOf(3));
+        assertEquals(3, decoded.indexOf(6));
+        assertEquals(-1, decoded.indexOf(1));
+        assertEquals(-1, decoded.indexOf(5));
+        assertEquals(6, decoded.pcOf(3));
+        assertEquals(Opcode.ADD, decoded.opcodeAt(decoded.indexOf(6)));
+
+        // only the JUMPDEST instruction is a jump destination
+        assertTrue(decoded.isJumpDest(3));
+        assertFalse(decoded.isJumpDest(0));
+        assertFalse(decoded.isJumpDest(-1));
+        assertFalse(decoded.isJumpDest(code.length));
+    }
+
+    @Test
+    void jumpDestInsidePushData() {
+        byte[] code = {
+                Opcode.PUSH2.getCode(), Opcode.JUMPDEST.getCode(), Opcode.JUMPDEST.getCode(),  // 0: PUSH2 0x5B5B
+                Opcode.JUMPDEST.getCode()                                                    // 3: JUMPDEST
+        };
+
+        DecodedCode decoded = DecodedCode.decode(code);
+
+        assertFalse(decoded.isJumpDest(1));
+        assertFalse(decoded.isJumpDest(2));
+        assertTrue(decoded.isJumpDest(3));
+    }
+
+    @Test
+    void fuseSuperInstructions() {
+        byte[] code = {
+                Opcode.DUP1.getCode(),                                      // 0: DUP1
+                Opcode.PUSH4.getCode(), 0x77, 0x16, 0x02, (byte) 0xF7,      // 1: PUSH4 selector
+                Opcode.EQ.getCode(),                                        // 6: EQ
+                Opcode.PUSH1.getCode(), 0x10,                               // 7: PUSH1 0x10
+                Opcode.JUMPI.getCode(),                                     // 9: JUMPI
+                Opcode.PUSH1.getCode(), 0x01,                               // 10: PUSH1 0x01
+                Opcode.ADD.getCode(),                                       // 12: ADD
+                Opcode.PUSH1.getCode(), 0x00,                               // 13: PUSH1 0x00
+                Opcode.SLOAD.getCode(),                                     // 15: SLOAD
+                Opcode.STOP.getCode(),                                      // 16: STOP
+        };
+
+        DecodedCode decoded = DecodedCode.decode(code);
+
+        assertEquals(SuperInstruction.SELECTOR_JUMPI, decoded.superInstructionAt(decoded.indexOf(0)));
+        // the tail of the selector idiom is a PUSH + JUMPI of its own, used when jumped into
+        assertEquals(SuperInstruction.PUSH_JUMPI, decoded.superInstructionAt(decoded.indexOf(7)));
+        assertEquals(SuperInstruction.PUSH_ADD, decoded.superInstructionAt(decoded.indexOf(10)));
+        assertEquals(SuperInstruction.PUSH_SLOAD, decoded.superInstructionAt(decoded.indexOf(13)));
+        assertNull(decoded.superInstructionAt(decoded.indexOf(6)));
+        assertNull(decoded.superInstructionAt(decoded.indexOf(16)));
+        assertEquals(10, decoded.pcAfter(0, SuperInstruction.SELECTOR_JUMPI.getLength()));
+        assertEquals(code.length, decoded.pcAfter(decoded.indexOf(16), 1));
+
+        // gas of the unfused sequence: DUP1 + PUSH4 + EQ + PUSH1 + JUMPI
+        assertEquals(3 + 3 + 3 + 3 + 10, SuperInstruction.SELECTOR_JUMPI.getGasCost());
+    }
+
+    @Test
+    void basicBlockGas() {
+        byte[] code = {
+                Opcode.PUSH1.getCode(), 0x00,           // 0: PUSH1 0x00
+                Opcode.PUSH1.getCode(), 0x05,           // 2: PUSH1 0x05
+                Opcode.JUMPI.getCode(),                 // 4: JUMPI, ends the block
+                Opcode.JUMPDEST.getCode(),              // 5: JUMPDEST
+                Opcode.PUSH1.getCode(), 0x00,           // 6: PUSH1 0x00
+                Opcode.SLOAD.getCode(),                 // 8: SLOAD
+                Opcode.STOP.getCode()                   // 9: STOP
+        };
+
+        DecodedCode decoded = DecodedCode.decode(code);
+
+        assertEquals(3 + 3 + 10, decoded.blockGasAt(decoded.indexOf(0)));
+        assertEquals(1 + 3 + 100, decoded.blockGasAt(decoded.indexOf(5)));
+        assertEquals(0, decoded.blockGasAt(decoded.indexOf(2)));
+        assertEquals(-1, decoded.indexOf(1)); // PUSH data, never a block start
+    }
+
+    @Test
+    void cachedByCodeHash() {
+        byte[] code = {Opcode.PUSH1.getCode(), 0x01, Opcode.STOP.getCode()};
+        assertSame(CodeCache.get(code), CodeCache.get(code.clone()));
+    }
+
+    @Test
+    void emptyCodeIsNotHashed() {
+        DecodedCode decoded = CodeCache.get(new byte[0]);
+        assertSame(DecodedCode.EMPTY, decoded);
+        assertEquals(0, decoded.getInstructionCount());
+    }
+}
@@ -0,0 +1,134 @@
+package com.frizo.lab.sevm.jit;
+
+import com.frizo.lab.sevm.code.CodeCache;
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.utils.NumUtils;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import com.frizo.lab.sevm.vm.SimpleEVM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.frizo.lab.sevm.TestConstant.TEST_ORIGIN;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JitTierTest {
+
+    private static final int INITIAL_GAS = 1000000;
+
+    /*
+     * 0:  PUSH1 0x05    // counter
+     * 2:  JUMPDEST      // loop
+     * 3:  PUSH1 0x01
+     * 5:  SUB           // counter - 1
+     * 6:  DUP1
+     * 7:  PUSH1 0x02
+     * 9:  JUMPI         // back to loop while counter != 0
+     * 10: PUSH1 0x2A
+     * 12: PUSH1 0x00
+     * 14: SSTORE
+     * 15: PUSH1 0x00
+     * 17: SLOAD
+     * 18: STOP
+     */
+    private static final byte[] LOOP_CODE = {
+            Opcode.PUSH1.getCode(), 0x05,
+            Opcode.JUMPDEST.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SUB.getCode(),
+            Opcode.DUP1.getCode(),
+            Opcode.PUSH1.getCode(), 0x02,
+            Opcode.JUMPI.getCode(),
+            Opcode.PUSH1.getCode(), 0x2A,
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.SLOAD.getCode(),
+            Opcode.STOP.getCode()
+    };
+
+    @BeforeEach
+    void setUp() {
+        JitTier.reset();
+        JitTier.setEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        JitTier.reset();
+        JitTier.setEnabled(true);
+    }
+
+    @Test
+    @DisplayName("熱點程式碼編譯後，結果與 gas 與直譯器一致")
+    void testCompiledLoopMatchesInterpreter() {
+        JitTier.setEnabled(false);
+        SimpleEVM interpreted = new SimpleEVM(LOOP_CODE, INITIAL_GAS, TEST_ORIGIN);
+        interpreted.run();
+        JitTier.setEnabled(true);
+
+        for (int i = 0; i < JitTier.INVOCATION_THRESHOLD * 2; i++) {
+            SimpleEVM evm = new SimpleEVM(LOOP_CODE, INITIAL_GAS, TEST_ORIGIN);
+            evm.run();
+            assertEquals(interpreted.peek(), evm.peek());
+            assertEquals(interpreted.getStack().size(), evm.getStack().size());
+            assertEquals(interpreted.getGasRemaining(), evm.getGasRemaining());
+        }
+
+        assertTrue(JitTier.isCompiled(CodeCache.get(LOOP_CODE)));
+        assertEquals(0x2A, interpreted.peek());
+    }
+
+    @Test
+    @DisplayName("編譯後的 RETURN 回傳資料與 gas 不變")
+    void testCompiledReturnMatchesInterpreter() {
+        Address contractAddress = Address.of("0x0101010101010102");
+
+        JitTier.setEnabled(false);
+        EVMResult expected = new SEVM().executeTransaction(TEST_ORIGIN, contractAddress, new byte[0], 0, INITIAL_GAS);
+        JitTier.setEnabled(true);
+
+        for (int i = 0; i < JitTier.INVOCATION_THRESHOLD * 2; i++) {
+            EVMResult result = new SEVM().executeTransaction(TEST_ORIGIN, contractAddress, new byte[0], 0, INITIAL_GAS);
+            assertTrue(result.isSuccess());
+            assertEquals(expected.getGasRemaining(), result.getGasRemaining());
+            assertEquals(NumUtils.bytesToHex(expected.getReturnData()), NumUtils.bytesToHex(result.getReturnData()));
+        }
+    }
+
+    @Test
+    @DisplayName("動態跳轉目標的程式碼不編譯")
+    void testDynamicJumpStaysInterpreted() {
+        byte[] bytecode = {
+                Opcode.PUSH1.getCode(), 0x04,
+                Opcode.DUP1.getCode(),
+                Opcode.JUMP.getCode(),      // target is not a PUSH immediate
+                Opcode.JUMPDEST.getCode(),
+                Opcode.STOP.getCode()
+        };
+        DecodedCode code = DecodedCode.decode(bytecode);
+        assertNull(JitCompiler.compile(code));
+    }
+
+    @Test
+    @DisplayName("編譯後跳轉到無效目標，與直譯器拋出相同異常")
+    void testCompiledInvalidJump() {
+        byte[] bytecode = {
+                Opcode.PUSH1.getCode(), 0x04,
+                Opcode.JUMP.getCode(),
+                Opcode.STOP.getCode(),
+                Opcode.PUSH1.getCode(), 0x42
+        };
+
+        for (int i = 0; i < JitTier.INVOCATION_THRESHOLD * 2; i++) {
+            SimpleEVM evm = new SimpleEVM(bytecode, INITIAL_GAS, TEST_ORIGIN);
+            RuntimeException exception = assertThrows(RuntimeException.class, evm::run);
+            assertTrue(exception.getMessage().contains("Invalid jump destination"));
+        }
+        assertTrue(JitTier.isCompiled(CodeCache.get(bytecode)));
+    }
+}
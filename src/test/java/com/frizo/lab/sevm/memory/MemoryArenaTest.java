@@ -0,0 +1,73 @@
+package com.frizo.lab.sevm.memory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryArenaTest {
+
+    @Test
+    void testNestedMemories() {
+        MemoryArena arena = new MemoryArena(64);
+        ArenaMemory caller = arena.allocate();
+        caller.put(0L, 8, 0x1111L);
+
+        ArenaMemory callee = arena.allocate();
+        callee.put(0L, 8, 0x2222L);
+        // the caller is suspended while its callee runs
+        assertThrows(IllegalStateException.class, () -> caller.put(8L, 8, 1L));
+
+        callee.cleanUp();
+        assertTrue(callee.isReleased());
+        assertThrows(IllegalStateException.class, () -> callee.get(0L, 8));
+
+        // the callee's bytes are handed back and zeroed when the caller grows over them
+        assertEquals(0L, caller.get(8L, 8));
+        assertEquals(0x1111L, caller.get(0L, 8));
+    }
+
+    @Test
+    void testGrowBeyondCapacity() {
+        MemoryArena arena = new MemoryArena(16);
+        ArenaMemory memory = arena.allocate();
+        memory.put(0L, 8, 42L);
+        memory.put(1000L, 4, 0x01020304L);
+
+        assertTrue(arena.capacity() >= 1004);
+        assertEquals(42L, memory.get(0L, 8));
+        assertEquals(0x01020304L, memory.get(1000L, 4));
+        assertEquals(126, memory.getActiveWords());
+    }
+
+    @Test
+    void testResetReleasesEverything() {
+        MemoryArena arena = new MemoryArena(64);
+        ArenaMemory first = arena.allocate();
+        first.put(0L, 8, -1L);
+        arena.allocate();
+        arena.reset();
+
+        assertTrue(first.isReleased());
+        // the next transaction reuses the buffer and never sees old bytes
+        ArenaMemory next = arena.allocate();
+        assertEquals(0L, next.get(0L, 8));
+        assertEquals(PagedMemory.memoryGas(2) - PagedMemory.memoryGas(1), next.expansionGas(8, 8));
+    }
+
+    @Test
+    void testBulkAccessAndOverlappingCopy() {
+        MemoryArena arena = new MemoryArena(64);
+        ArenaMemory memory = arena.allocate();
+        byte[] blob = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        memory.write(0L, blob, 0, blob.length);
+
+        memory.copy(3L, 0L, blob.length);
+        byte[] read = new byte[13];
+        memory.read(0L, read, 0, read.length);
+        assertArrayEquals(new byte[]{1, 2, 3, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, read);
+        assertEquals(2, memory.getActiveWords());
+
+        memory.cleanUp();
+        assertThrows(IllegalStateException.class, () -> memory.read(0L, read, 0, 1));
+    }
+}
@@ -0,0 +1,107 @@
+package com.frizo.lab.sevm.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedMemoryTest {
+
+    @Test
+    void testWordAcrossPages() {
+        PagedMemory memory = new PagedMemory();
+        // straddles the first page boundary
+        memory.put(4092L, 8, 0x0102030405060708L);
+
+        assertEquals(0x0102030405060708L, memory.get(4092L, 8));
+        assertEquals((byte) 0x01, memory.get(4092L));
+        assertEquals((byte) 0x08, memory.get(4099L));
+        assertEquals(0x05060708L, memory.get(4096L, 4));
+    }
+
+    @Test
+    void testUnwrittenMemoryReadsZero() {
+        PagedMemory memory = new PagedMemory();
+
+        assertEquals(0L, memory.get(1_000_000L, 8));
+        assertEquals((byte) 0, memory.get(42L));
+    }
+
+    @Test
+    void testExpansionGas() {
+        PagedMemory memory = new PagedMemory();
+
+        assertEquals(PagedMemory.memoryGas(1), memory.expansionGas(0, 8));
+        assertEquals(0, memory.expansionGas(0, 0));
+
+        memory.put(0L, 8, 1L);
+        assertEquals(1, memory.getActiveWords());
+        assertEquals(0, memory.expansionGas(0, 8));
+
+        // growing to 1024 words pays the difference, including the quadratic part
+        long expected = (3 * 1024 + 1024 * 1024 / 512) - (3 + 0);
+        assertEquals(expected, memory.expansionGas(1023 * 8, 8));
+        assertEquals(Long.MAX_VALUE, memory.expansionGas(Long.MAX_VALUE - 8, 8));
+    }
+
+    @Test
+    void testInvalidAccess() {
+        PagedMemory memory = new PagedMemory();
+
+        assertThrows(IllegalArgumentException.class, () -> memory.put(-1L, 8, 1L));
+        assertThrows(IllegalArgumentException.class, () -> memory.get(0L, 9));
+        assertEquals(0, memory.expansionGas(-1, 8));
+    }
+
+    @Test
+    void testBulkReadWriteAcrossPages() {
+        PagedMemory memory = new PagedMemory();
+        byte[] blob = new byte[5000];
+        for (int i = 0; i < blob.length; i++) {
+            blob[i] = (byte) i;
+        }
+        memory.write(100L, blob, 0, blob.length);
+        assertEquals((100 + 5000 + 7) / 8, memory.getActiveWords());
+
+        byte[] copy = new byte[blob.length + 8];
+        memory.read(96L, copy, 0, copy.length);
+        assertArrayEquals(blob, Arrays.copyOfRange(copy, 4, 5004));
+        // untouched bytes on both sides read as 0
+        assertEquals(0, copy[0]);
+        assertEquals(0, copy[copy.length - 1]);
+    }
+
+    @Test
+    void testOverlappingCopyAcrossPages() {
+        PagedMemory memory = new PagedMemory();
+        byte[] blob = new byte[6000];
+        for (int i = 0; i < blob.length; i++) {
+            blob[i] = (byte) (i * 7);
+        }
+        memory.write(0L, blob, 0, blob.length);
+
+        // forward overlap: destination after source
+        memory.copy(10L, 0L, blob.length);
+        byte[] shifted = new byte[blob.length];
+        memory.read(10L, shifted, 0, shifted.length);
+        assertArrayEquals(blob, shifted);
+
+        // backward overlap: destination before source
+        memory.copy(0L, 10L, blob.length);
+        byte[] restored = new byte[blob.length];
+        memory.read(0L, restored, 0, restored.length);
+        assertArrayEquals(blob, restored);
+    }
+
+    @Test
+    void testCopyFromUnwrittenMemoryZeroes() {
+        PagedMemory memory = new PagedMemory();
+        memory.put(0L, 8, -1L);
+
+        memory.copy(0L, 100_000L, 8);
+        assertEquals(0L, memory.get(0L, 8));
+        assertEquals((100_000 + 8) / 8, memory.getActiveWords());
+        assertThrows(IllegalArgumentException.class, () -> memory.copy(-1L, 0L, 8));
+    }
+}
@@ -19,4 +19,14 @@ class OpcodeTest {
 
         Assertions.assertFalse(Opcode.UNKNOWN.isPush());
     }
-}
\ No newline at end of file
+
+    @Test
+    void fromByte() {
+        for (Opcode opcode : Opcode.values()) {
+            Assertions.assertSame(opcode, Opcode.fromByte(opcode.getCode()));
+        }
+
+        // 0x0C is not defined
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Opcode.fromByte((byte) 0x0C));
+    }
+}
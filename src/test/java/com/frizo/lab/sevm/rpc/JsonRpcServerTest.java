@@ -0,0 +1,144 @@
+package com.frizo.lab.sevm.rpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRpcServerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ORIGIN = "0x1234567890abcdef";
+    private static final String COUNTER = "0x0A0A0A0A0A0A0B01";
+
+    // no calldata: storage[1] += 1, return storage[1]; with calldata: return storage[1]
+    private static final byte[] COUNTER_CODE = {
+            Opcode.CALLDATASIZE.getCode(),
+            Opcode.PUSH1.getCode(), 0x18,
+            Opcode.JUMPI.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.ADD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode(),
+            Opcode.JUMPDEST.getCode(),      // 0x18
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    private JsonRpcServer server;
+    private HttpClient client;
+    private URI endpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Blockchain blockchain = BlockChainFactory.createMockStateDB();
+        blockchain.registerContract(Address.of(COUNTER), COUNTER_CODE);
+        server = new JsonRpcServer(new EnginePool(blockchain, 4), 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+        endpoint = URI.create("http://127.0.0.1:" + server.getPort() + "/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private JsonNode post(String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return MAPPER.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    private static String request(int id, String method, String tx) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"" + method + "\",\"params\":[" + tx + "]}";
+    }
+
+    private static String ethCall(int id) {
+        return request(id, "eth_call", "{\"to\":\"" + COUNTER + "\",\"data\":\"0x01\"}");
+    }
+
+    private static String sendTransaction(int id) {
+        return request(id, "eth_sendTransaction", "{\"from\":\"" + ORIGIN + "\",\"to\":\"" + COUNTER + "\",\"gas\":\"0x186a0\"}");
+    }
+
+    @Test
+    void testSendTransactionThenCall() throws Exception {
+        JsonNode receipt = post(sendTransaction(1));
+        assertEquals(1, receipt.get("id").asInt());
+        assertEquals("0x1", receipt.get("result").get("status").asText());
+        assertEquals("0x0000000000000001", receipt.get("result").get("returnData").asText());
+
+        post(sendTransaction(2));
+        JsonNode call = post(ethCall(3));
+        assertEquals("0x0000000000000002", call.get("result").asText());
+    }
+
+    @Test
+    void testErrors() throws Exception {
+        assertEquals(JsonRpcServer.METHOD_NOT_FOUND,
+                post(request(1, "eth_unknown", "{}")).get("error").get("code").asInt());
+        assertEquals(JsonRpcServer.INVALID_PARAMS,
+                post(request(2, "eth_call", "{\"to\":\"0x01\"}")).get("error").get("code").asInt());
+        assertEquals(JsonRpcServer.INVALID_PARAMS,
+                post(request(4, "eth_sendTransaction", "{\"from\":\"" + ORIGIN + "\"}")).get("error").get("code").asInt());
+        assertEquals(JsonRpcServer.PARSE_ERROR, post("{not json").get("error").get("code").asInt());
+        assertEquals(JsonRpcServer.EXECUTION_ERROR,
+                post(request(3, "eth_call", "{\"to\":\"0x0A0A0A0A0A0A0BFF\"}")).get("error").get("code").asInt());
+    }
+
+    @Test
+    void testBatch() throws Exception {
+        JsonNode responses = post("[" + sendTransaction(1) + "," + ethCall(2) + "]");
+        assertEquals(2, responses.size());
+        assertEquals("0x0000000000000001", responses.get(1).get("result").asText());
+    }
+
+    @Test
+    void testConcurrentCalls() throws Exception {
+        post(sendTransaction(0));
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+        for (int i = 1; i <= 64; i++) {
+            String body = i % 8 == 0 ? sendTransaction(i) : ethCall(i);
+            calls.add(client.sendAsync(HttpRequest.newBuilder(endpoint)
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> call : calls) {
+            JsonNode response = MAPPER.readTree(call.get().body());
+            assertNull(response.get("error"));
+        }
+        // one increment before and one for every eighth request
+        assertEquals("0x0000000000000009", post(ethCall(100)).get("result").asText());
+    }
+}
@@ -0,0 +1,80 @@
+package com.frizo.lab.sevm.sevm_v1;
+
+import com.frizo.lab.sevm.exception.EVMException;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.SimpleEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.frizo.lab.sevm.TestConstant.TEST_ORIGIN;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasicBlockGasTest {
+
+    private static final byte[] PUSH_FOUR_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.PUSH1.getCode(), 0x02,
+            Opcode.PUSH1.getCode(), 0x03,
+            Opcode.PUSH1.getCode(), 0x04,
+            Opcode.STOP.getCode()
+    };
+
+    @Test
+    @DisplayName("整個區塊一次扣 gas，總量與逐條扣相同")
+    void testBlockGasCharged() {
+        SimpleEVM evm = new SimpleEVM(PUSH_FOUR_CODE, 100, TEST_ORIGIN);
+        evm.run();
+
+        assertEquals(4, evm.peek());
+        assertEquals(100 - 4 * 3, evm.getGasRemaining());
+    }
+
+    @Test
+    @DisplayName("gas 不足以支付整個區塊時，逐條扣並在原本的指令上 out of gas")
+    void testOutOfGasInsideBlock() {
+        SimpleEVM evm = new SimpleEVM(PUSH_FOUR_CODE, 10, TEST_ORIGIN);
+
+        assertThrows(EVMException.OutOfGasException.class, evm::run);
+        assertEquals(3, evm.getStack().size());
+        assertEquals(1, evm.getGasRemaining());
+    }
+
+    @Test
+    @DisplayName("區塊中途出錯時，退回尚未執行指令的 gas")
+    void testBlockGasRefundedOnError() {
+        byte[] bytecode = {
+                Opcode.PUSH1.getCode(), 0x01,
+                Opcode.POP.getCode(),
+                Opcode.POP.getCode(),       // stack underflow
+                Opcode.PUSH1.getCode(), 0x05,
+                Opcode.STOP.getCode()
+        };
+        SimpleEVM evm = new SimpleEVM(bytecode, 100, TEST_ORIGIN);
+
+        assertThrows(EVMException.StackUnderflowException.class, evm::run);
+        // PUSH1 + POP + POP, the last PUSH1 never ran
+        assertEquals(100 - (3 + 2 + 2), evm.getGasRemaining());
+    }
+
+    @Test
+    @DisplayName("區塊內的記憶體擴充 gas 不足時，改回逐條扣，在原本的指令上 out of gas")
+    void testMemoryGasInsidePrepaidBlock() {
+        byte[] bytecode = {
+                Opcode.PUSH1.getCode(), 0x07,
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.MSTORE.getCode(),        // + 3 gas memory expansion
+                Opcode.PUSH1.getCode(), 0x01,
+                Opcode.PUSH1.getCode(), 0x02,
+                Opcode.STOP.getCode()
+        };
+        long blockGas = 3 + 3 + 12 + 3 + 3;
+        // enough to prepay the block, one gas short of its memory expansion
+        SimpleEVM evm = new SimpleEVM(bytecode, blockGas + 1, TEST_ORIGIN);
+
+        assertThrows(EVMException.OutOfGasException.class, evm::run);
+        // per instruction: MSTORE and the first PUSH1 after it still run, the second PUSH1 is out of gas
+        assertEquals(1, evm.getStack().size());
+        assertEquals(7L, evm.getContext().getCurrentMemory().get(0, 8));
+        assertEquals(1, evm.getGasRemaining());
+    }
+}
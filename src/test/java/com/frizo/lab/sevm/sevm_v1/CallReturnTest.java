@@ -68,6 +68,31 @@ public class CallReturnTest {
         assertEquals(1, evm.getContext().getCallStack().size());
     }
 
+    @Test
+    @DisplayName("測試內部呼叫跳入 PUSH 資料")
+    public void testInternalCallIntoPushData() {
+        // ICALL 跳到 PUSH2 的資料中 (address 13), 資料本身是 PUSH1 42, 之後回到正常解碼的指令
+        byte[] bytecode = {
+                Opcode.PUSH4.getCode(), (byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0xFF,  // PUSH4 255 (gas)
+                Opcode.PUSH4.getCode(), 0x00, 0x00, 0x00, 0x0D,  // PUSH4 13 (bytecode address)
+                Opcode.ICALL.getCode(),         // ICALL
+                Opcode.STOP.getCode(),          // STOP
+                Opcode.PUSH2.getCode(), Opcode.PUSH1.getCode(), 0x2A,  // PUSH2 (data at address 13: PUSH1 42)
+                Opcode.PUSH1.getCode(), 0x00,  // PUSH1 0
+                Opcode.MSTORE.getCode(),        // MSTORE
+                Opcode.PUSH1.getCode(), 0x08,  // PUSH1 size
+                Opcode.PUSH1.getCode(), 0x00,  // PUSH1 0 offset
+                Opcode.RETURN.getCode()         // RETURN
+        };
+
+        evm = new SimpleEVM(bytecode, 1000, TEST_ORIGIN);
+        evm.run();
+
+        assertEquals("0x000000000000002A", NumUtils.bytesToHex(evm.getContext().getCurrentFrame().getCallReturnBuffer().getReturnData()));
+        assertFalse(evm.isRunning());
+        assertEquals(1, evm.getContext().getCallStack().size());
+    }
+
     @Test
     @DisplayName("測試外部呼叫 (CALL)")
     public void testExternalCall() {
@@ -0,0 +1,90 @@
+package com.frizo.lab.sevm.sevm_v1;
+
+import com.frizo.lab.sevm.exception.EVMException;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.SimpleEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.frizo.lab.sevm.TestConstant.TEST_ORIGIN;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeepCallTest {
+
+    private static final int INITIAL_GAS = 1000000;
+    private static final int GAS_PER_LEVEL = 100;
+
+    /*
+     * Recursive internal call, n on the (shared) stack counts down to 0:
+     * 0:  PUSH2 n
+     * 3:  PUSH1 0x06
+     * 5:  JUMP
+     * 6:  JUMPDEST          // F(n)
+     * 7:  DUP1
+     * 8:  ISZERO
+     * 9:  PUSH1 0x1B
+     * 11: JUMPI             // n == 0 -> LEAF
+     * 12: DUP1
+     * 13: PUSH1 100
+     * 15: MUL               // gas for the callee: n * 100
+     * 16: SWAP1
+     * 17: PUSH1 0x01
+     * 19: SUB
+     * 20: SWAP1             // [n - 1, gas]
+     * 21: PUSH1 0x06
+     * 23: ICALL             // F(n - 1)
+     * 24: PUSH1 0x1E
+     * 26: JUMP              // -> EXIT
+     * 27: JUMPDEST          // LEAF
+     * 28: PUSH1 0x2A
+     * 30: JUMPDEST          // EXIT
+     */
+    private static byte[] recursiveCallCode(int depth) {
+        return new byte[]{
+                Opcode.PUSH2.getCode(), (byte) (depth >> 8), (byte) depth,
+                Opcode.PUSH1.getCode(), 0x06,
+                Opcode.JUMP.getCode(),
+                Opcode.JUMPDEST.getCode(),
+                Opcode.DUP1.getCode(),
+                Opcode.ISZERO.getCode(),
+                Opcode.PUSH1.getCode(), 0x1B,
+                Opcode.JUMPI.getCode(),
+                Opcode.DUP1.getCode(),
+                Opcode.PUSH1.getCode(), (byte) GAS_PER_LEVEL,
+                Opcode.MUL.getCode(),
+                Opcode.SWAP1.getCode(),
+                Opcode.PUSH1.getCode(), 0x01,
+                Opcode.SUB.getCode(),
+                Opcode.SWAP1.getCode(),
+                Opcode.PUSH1.getCode(), 0x06,
+                Opcode.ICALL.getCode(),
+                Opcode.PUSH1.getCode(), 0x1E,
+                Opcode.JUMP.getCode(),
+                Opcode.JUMPDEST.getCode(),
+                Opcode.PUSH1.getCode(), 0x2A,
+                Opcode.JUMPDEST.getCode()
+        };
+    }
+
+    @Test
+    @DisplayName("測試深層內部調用 - 1000 層不會耗盡 Java stack")
+    void testDeepInternalCalls() {
+        int depth = 1000;
+        SimpleEVM evm = new SimpleEVM(recursiveCallCode(depth), INITIAL_GAS, TEST_ORIGIN);
+        evm.run();
+
+        // the innermost frame left its marker on the shared stack
+        assertEquals(0x2A, evm.peek());
+        assertEquals(2, evm.getStack().size());
+        // entry (PUSH2 + PUSH1 + JUMP) + 70 gas per calling level + leaf (JUMPDEST DUP1 ISZERO PUSH1 JUMPI JUMPDEST PUSH1 JUMPDEST)
+        assertEquals(INITIAL_GAS - (14 + 70L * depth + 25), evm.getGasRemaining());
+    }
+
+    @Test
+    @DisplayName("測試超過 call stack 深度 - 內部調用失敗")
+    void testCallDepthExceeded() {
+        SimpleEVM evm = new SimpleEVM(recursiveCallCode(1100), INITIAL_GAS, TEST_ORIGIN);
+
+        assertThrows(EVMException.CallInternalException.class, evm::run);
+    }
+}
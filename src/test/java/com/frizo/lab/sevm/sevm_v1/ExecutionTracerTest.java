@@ -0,0 +1,123 @@
+package com.frizo.lab.sevm.sevm_v1;
+
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.context.log.LogEntry;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.trace.ExecutionTracer;
+import com.frizo.lab.sevm.vm.SimpleEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.frizo.lab.sevm.TestConstant.TEST_ORIGIN;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionTracerTest {
+
+    private static class RecordingTracer implements ExecutionTracer {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onStep(CallFrame frame, int pc, Opcode opcode) {
+            events.add(pc + ":" + opcode);
+        }
+
+        @Override
+        public void onFrameEnter(CallFrame frame, int depth) {
+            events.add("enter:" + depth);
+        }
+
+        @Override
+        public void onFrameExit(CallFrame frame, int depth) {
+            events.add("exit:" + depth);
+        }
+
+        @Override
+        public void onStorageRead(CallFrame frame, long key, long value) {
+            events.add("sload:" + key + "=" + value);
+        }
+
+        @Override
+        public void onStorageWrite(CallFrame frame, long key, long value) {
+            events.add("sstore:" + key + "=" + value);
+        }
+
+        @Override
+        public void onLog(CallFrame frame, LogEntry logEntry) {
+            events.add("log:" + logEntry.getTopics());
+        }
+    }
+
+    private static final byte[] STORAGE_CODE = {
+            Opcode.PUSH1.getCode(), 0x07,   // value
+            Opcode.PUSH1.getCode(), 0x01,   // key
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),         // PUSH1 SLOAD is fused when not tracing
+            Opcode.STOP.getCode()
+    };
+
+    @Test
+    @DisplayName("掛上 tracer 後逐條回報指令與 storage 存取，gas 與不追蹤時相同")
+    void testTraceSteps() {
+        SimpleEVM untraced = new SimpleEVM(STORAGE_CODE, 100000, TEST_ORIGIN);
+        untraced.run();
+
+        SimpleEVM evm = new SimpleEVM(STORAGE_CODE, 100000, TEST_ORIGIN);
+        RecordingTracer tracer = new RecordingTracer();
+        evm.getContext().setTracer(tracer);
+        evm.run();
+
+        assertEquals(List.of(
+                "enter:1",
+                "0:PUSH1", "2:PUSH1", "4:SSTORE", "sstore:1=7",
+                "5:PUSH1", "7:SLOAD", "sload:1=7",
+                "8:STOP",
+                "exit:1"
+        ), tracer.events);
+        assertEquals(7, evm.peek());
+        assertEquals(untraced.getGasRemaining(), evm.getGasRemaining());
+    }
+
+    @Test
+    @DisplayName("內部調用時回報 frame 進入與離開，LOG 也會被回報")
+    void testTraceFramesAndLogs() {
+        byte[] bytecode = {
+                Opcode.PUSH2.getCode(), 0x27, 0x10, // gas for the callee
+                Opcode.PUSH1.getCode(), 0x07,
+                Opcode.ICALL.getCode(),
+                Opcode.STOP.getCode(),
+                Opcode.JUMPDEST.getCode(),          // 7: callee
+                Opcode.PUSH1.getCode(), 0x2A,       // topic
+                Opcode.PUSH1.getCode(), 0x00,       // size
+                Opcode.PUSH1.getCode(), 0x00,       // offset
+                Opcode.LOG1.getCode(),
+                Opcode.STOP.getCode()
+        };
+        SimpleEVM evm = new SimpleEVM(bytecode, 100000, TEST_ORIGIN);
+        RecordingTracer tracer = new RecordingTracer();
+        evm.getContext().setTracer(tracer);
+        evm.run();
+
+        assertEquals(List.of(
+                "enter:1",
+                "0:PUSH2", "3:PUSH1", "5:ICALL",
+                "enter:2",
+                "7:JUMPDEST", "8:PUSH1", "10:PUSH1", "12:PUSH1", "14:LOG1", "log:[42]", "15:STOP",
+                "exit:2",
+                "6:STOP",
+                "exit:1"
+        ), tracer.events);
+    }
+
+    @Test
+    @DisplayName("預設不掛 tracer")
+    void testNoTracerByDefault() {
+        SimpleEVM evm = new SimpleEVM(STORAGE_CODE, 100000, TEST_ORIGIN);
+
+        assertFalse(evm.getContext().isTracing());
+        assertSame(ExecutionTracer.NOOP, evm.getContext().getTracer());
+    }
+}
@@ -139,6 +139,32 @@ public class JumpInstructionTest {
         assertTrue(exception.getMessage().contains("Invalid jump destination"));
     }
 
+    @Test
+    @DisplayName("測試跳轉到 PUSH 資料中的 0x5B - 應該拋出異常")
+    void testJumpIntoPushData() {
+        /*
+         * 字節碼結構：
+         * 0: PUSH1 0x04    // 推送跳轉目標地址 4
+         * 2: JUMP          // 跳轉指令
+         * 3: PUSH1 0x5B    // 地址 4 是 PUSH1 的資料，不是 JUMPDEST
+         * 5: STOP          // 停止執行
+         */
+        byte[] bytecode = {
+                0x60, 0x04,       // PUSH1 0x04
+                0x56,             // JUMP
+                0x60, 0x5B,       // PUSH1 0x5B (0x5B inside PUSH data)
+                0x00              // STOP
+        };
+
+        evm = new SimpleEVM(bytecode, INITIAL_GAS, TEST_ORIGIN);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            evm.run();
+        });
+
+        assertTrue(exception.getMessage().contains("Invalid jump destination"));
+    }
+
     @Test
     @DisplayName("測試跳轉到超出字節碼範圍的地址")
     void testJumpToOutOfBounds() {
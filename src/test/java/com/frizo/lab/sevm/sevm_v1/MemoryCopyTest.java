@@ -0,0 +1,74 @@
+package com.frizo.lab.sevm.sevm_v1;
+
+import com.frizo.lab.sevm.exception.EVMException;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.SimpleEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.frizo.lab.sevm.TestConstant.TEST_ORIGIN;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryCopyTest {
+
+    @Test
+    @DisplayName("MCOPY 重疊區間的複製結果等同先複製到暫存區")
+    void testOverlappingCopy() {
+        byte[] bytecode = {
+                Opcode.PUSH8.getCode(),
+                0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08,
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.MSTORE.getCode(),        // memory[0..8) = 01..08
+
+                Opcode.PUSH1.getCode(), 0x08,   // length
+                Opcode.PUSH1.getCode(), 0x00,   // src
+                Opcode.PUSH1.getCode(), 0x02,   // dest
+                Opcode.MCOPY.getCode(),         // memory[2..10) = 01..08
+
+                Opcode.PUSH1.getCode(), 0x02,
+                Opcode.MLOAD.getCode(),
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.MLOAD.getCode(),
+                Opcode.STOP.getCode()
+        };
+        SimpleEVM evm = new SimpleEVM(bytecode, 1000, TEST_ORIGIN);
+        evm.run();
+
+        assertEquals(0x0102010203040506L, evm.getStack().popLong());
+        assertEquals(0x0102030405060708L, evm.getStack().popLong());
+    }
+
+    @Test
+    @DisplayName("MCOPY 收取擴充 gas 與每個 word 的複製 gas")
+    void testCopyGas() {
+        byte[] bytecode = {
+                Opcode.PUSH1.getCode(), 0x2A,
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.MSTORE.getCode(),        // 3 + 3 + 12 + 1 word expansion (3)
+
+                Opcode.PUSH1.getCode(), 0x08,
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.PUSH1.getCode(), 0x04,
+                Opcode.MCOPY.getCode(),         // 3 * 3 + 3 + expansion to 2 words (3) + 1 word copied (3)
+                Opcode.STOP.getCode()
+        };
+        SimpleEVM evm = new SimpleEVM(bytecode, 1000, TEST_ORIGIN);
+        evm.run();
+
+        assertEquals(1000 - 21 - 18, evm.getGasRemaining());
+    }
+
+    @Test
+    @DisplayName("MCOPY 參數不足時 stack underflow")
+    void testStackUnderflow() {
+        byte[] bytecode = {
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.MCOPY.getCode(),
+                Opcode.STOP.getCode()
+        };
+        SimpleEVM evm = new SimpleEVM(bytecode, 1000, TEST_ORIGIN);
+
+        assertThrows(EVMException.StackUnderflowException.class, evm::run);
+    }
+}
@@ -0,0 +1,65 @@
+package com.frizo.lab.sevm.sevm_v1;
+
+import com.frizo.lab.sevm.exception.EVMException;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.SimpleEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.frizo.lab.sevm.TestConstant.TEST_ORIGIN;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuperInstructionTest {
+
+    /*
+     * 0:  PUSH4 0x771602F7   // calldata selector
+     * 5:  DUP1               // --- selector idiom, fused into SELECTOR_JUMPI
+     * 6:  PUSH4 0x771602F7
+     * 11: EQ
+     * 12: PUSH1 0x11
+     * 14: JUMPI              // ---
+     * 15: PUSH1 0x99
+     * 17: JUMPDEST
+     * 18: PUSH1 0x42
+     * 20: STOP
+     */
+    private static final byte[] SELECTOR_CODE = {
+            Opcode.PUSH4.getCode(), 0x77, 0x16, 0x02, (byte) 0xF7,
+            Opcode.DUP1.getCode(),
+            Opcode.PUSH4.getCode(), 0x77, 0x16, 0x02, (byte) 0xF7,
+            Opcode.EQ.getCode(),
+            Opcode.PUSH1.getCode(), 0x11,
+            Opcode.JUMPI.getCode(),
+            Opcode.PUSH1.getCode(), (byte) 0x99,
+            Opcode.JUMPDEST.getCode(),
+            Opcode.PUSH1.getCode(), 0x42,
+            Opcode.STOP.getCode()
+    };
+
+    @Test
+    @DisplayName("測試選擇器比對 superinstruction - gas 與逐條執行相同")
+    void testSelectorJumpGas() {
+        long initialGas = 1000;
+        SimpleEVM evm = new SimpleEVM(SELECTOR_CODE, initialGas, TEST_ORIGIN);
+        evm.run();
+
+        assertEquals(0x42, evm.peek());
+        assertEquals(2, evm.getStack().size());
+        // PUSH4 + (DUP1 + PUSH4 + EQ + PUSH1 + JUMPI) + JUMPDEST + PUSH1
+        assertEquals(initialGas - (3 + 3 + 3 + 3 + 3 + 10 + 1 + 3), evm.getGasRemaining());
+    }
+
+    @Test
+    @DisplayName("gas 不足以執行整個序列時，在原本的指令上 out of gas")
+    void testOutOfGasAtExactInstruction() {
+        // enough for PUSH4, DUP1, PUSH4, EQ and PUSH1 but not for JUMPI
+        long initialGas = 3 + 3 + 3 + 3 + 3 + 9;
+        SimpleEVM evm = new SimpleEVM(SELECTOR_CODE, initialGas, TEST_ORIGIN);
+
+        assertThrows(EVMException.OutOfGasException.class, evm::run);
+        // selector, EQ result and jump destination are still on the stack
+        assertEquals(3, evm.getStack().size());
+        assertEquals(0x11, evm.peek());
+        assertEquals(9, evm.getGasRemaining());
+    }
+}
@@ -0,0 +1,102 @@
+package com.frizo.lab.sevm.sevm_v2;
+
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.context.txn.AccessList;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.storage.TransactionStorage;
+import com.frizo.lab.sevm.utils.NumUtils;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessListTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+    private static final Address COUNTER = Address.of("0x0A0A0A0A0A0A0F01");
+    private static final Address MISSING = Address.of("0x0A0A0A0A0A0A0FFF");
+
+    // storage[1] += 1, return storage[1]
+    private static final byte[] COUNTER_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.ADD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    /**
+     * Records every storage slot and code read from the state.
+     */
+    private static class RecordingBlockChain extends PersistentBlockChain {
+        private final Set<String> reads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public long getStorage(Address contractAddress, long slot) {
+            reads.add("storage:" + contractAddress + ":" + slot);
+            return super.getStorage(contractAddress, slot);
+        }
+
+        @Override
+        public byte[] loadCode(Address contractAddress) {
+            reads.add("code:" + contractAddress);
+            return super.loadCode(contractAddress);
+        }
+    }
+
+    @Test
+    @DisplayName("prefetch 在背景讀取 access list 的 code 與 storage，缺少的合約不影響其他項目")
+    void testPrefetch() {
+        RecordingBlockChain blockchain = new RecordingBlockChain();
+        blockchain.registerContract(COUNTER, COUNTER_CODE);
+        SEVM sevm = new SEVM(blockchain);
+
+        sevm.prefetch(new AccessList()
+                .add(MISSING, 9)
+                .add(COUNTER, 1, 2)).join();
+
+        assertTrue(blockchain.reads.contains("code:" + COUNTER));
+        assertTrue(blockchain.reads.contains("storage:" + COUNTER + ":1"));
+        assertTrue(blockchain.reads.contains("storage:" + COUNTER + ":2"));
+        assertTrue(blockchain.reads.contains("storage:" + MISSING + ":9"));
+    }
+
+    @Test
+    @DisplayName("access list 宣告的 slot 在交易開始前載入 transaction cache，結果與不宣告時相同")
+    void testDeclaredSlotsAreWarm() {
+        PersistentBlockChain blockchain = new PersistentBlockChain();
+        blockchain.registerContract(COUNTER, COUNTER_CODE);
+        blockchain.setStorage(COUNTER, 7, 70);
+        SEVM sevm = new SEVM(blockchain);
+
+        AccessList accessList = new AccessList().add(COUNTER, 1, 7);
+        sevm.prefetch(accessList);
+        EVMResult result = sevm.executeTransaction(ORIGIN, COUNTER, new byte[0], 0, 100000, accessList);
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, NumUtils.bytesToLong(result.getReturnData()));
+        TransactionStorage storage = sevm.getContext().getTransactionStorage();
+        // slot 7 is never touched by the code, only declared
+        assertTrue(storage.isCached(COUNTER, 7));
+        assertFalse(storage.isCached(COUNTER, 8));
+        assertEquals(70, blockchain.getStorage(COUNTER, 7));
+
+        EVMResult withoutList = sevm.executeTransaction(ORIGIN, COUNTER, new byte[0], 0, 100000);
+        assertEquals(2, NumUtils.bytesToLong(withoutList.getReturnData()));
+        assertEquals(result.getGasUsed(), withoutList.getGasUsed());
+    }
+}
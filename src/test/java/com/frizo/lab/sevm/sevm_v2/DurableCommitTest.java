@@ -0,0 +1,96 @@
+package com.frizo.lab.sevm.sevm_v2;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.blockchain.wal.WriteAheadLog;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DurableCommitTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("成功的交易寫入 WAL，重播後得到相同的 storage；revert 的交易不寫入")
+    void testCommittedTransactionsAreLogged() throws IOException {
+        Blockchain blockchain = BlockChainFactory.getMockStateDB();
+        Address writer = Address.of("0x0F0F0F0F0F0F0F01");
+        Address reverting = Address.of("0x0F0F0F0F0F0F0F02");
+        blockchain.registerContract(writer, new byte[]{
+                Opcode.PUSH1.getCode(), 0x2A,
+                Opcode.PUSH1.getCode(), 0x05,
+                Opcode.SSTORE.getCode(),        // storage[5] = 42
+                Opcode.STOP.getCode()
+        });
+        blockchain.registerContract(reverting, new byte[]{
+                Opcode.PUSH1.getCode(), 0x09,
+                Opcode.PUSH1.getCode(), 0x06,
+                Opcode.SSTORE.getCode(),        // storage[6] = 9
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.REVERT.getCode()
+        });
+
+        Path file = directory.resolve("state.wal");
+        try (WriteAheadLog wal = WriteAheadLog.open(file, changes -> { })) {
+            SEVM sevm = new SEVM();
+            sevm.setWriteAheadLog(wal);
+            EVMResult ok = sevm.executeTransaction(ORIGIN, writer, new byte[0], 0, 100000);
+            EVMResult failed = sevm.executeTransaction(ORIGIN, reverting, new byte[0], 0, 100000);
+
+            assertTrue(ok.isSuccess());
+            assertTrue(failed.isReverted());
+            assertEquals(1, wal.getAppendCount());
+        }
+
+        PersistentBlockChain recovered = new PersistentBlockChain();
+        try (WriteAheadLog ignored = WriteAheadLog.open(file, changes -> changes.applyTo(recovered))) {
+            assertEquals(42, recovered.getStorage(writer, 5));
+            assertEquals(0, recovered.getStorage(reverting, 6));
+        }
+    }
+
+    @Test
+    @DisplayName("WAL 寫入失敗時交易不生效，state 回到交易前")
+    void testFailedLogRevertsTransaction() throws IOException {
+        Blockchain blockchain = BlockChainFactory.createMockStateDB();
+        Address writer = Address.of("0x0F0F0F0F0F0F0F03");
+        blockchain.registerContract(writer, new byte[]{
+                Opcode.PUSH1.getCode(), 0x2A,
+                Opcode.PUSH1.getCode(), 0x05,
+                Opcode.SSTORE.getCode(),        // storage[5] = 42
+                Opcode.STOP.getCode()
+        });
+
+        WriteAheadLog wal = WriteAheadLog.open(directory.resolve("closed.wal"), changes -> { });
+        wal.close();
+        SEVM sevm = new SEVM(blockchain);
+        sevm.setWriteAheadLog(wal);
+
+        assertThrows(UncheckedIOException.class,
+                () -> sevm.executeTransaction(ORIGIN, writer, new byte[0], 0, 100000));
+        assertEquals(0, blockchain.getStorage(writer, 5));
+
+        // the engine stays usable
+        sevm.setWriteAheadLog(null);
+        assertTrue(sevm.executeTransaction(ORIGIN, writer, new byte[0], 0, 100000).isSuccess());
+        assertEquals(42, blockchain.getStorage(writer, 5));
+    }
+}
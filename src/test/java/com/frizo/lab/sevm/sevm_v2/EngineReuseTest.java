@@ -0,0 +1,165 @@
+package com.frizo.lab.sevm.sevm_v2;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.context.EVMContext;
+import com.frizo.lab.sevm.context.call.CallFrame;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.utils.NumUtils;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineReuseTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+    private static final Address COUNTER = Address.of("0x0A0A0A0A0A0A0C01");
+    private static final Address REVERTING = Address.of("0x0A0A0A0A0A0A0C02");
+    // the result and its return data, nothing per frame, per instruction or per code lookup
+    private static final long MAX_BYTES_PER_CALL = 512;
+
+    // no calldata: storage[1] += 1, return storage[1]; with calldata: return storage[1]
+    private static final byte[] COUNTER_CODE = {
+            Opcode.CALLDATASIZE.getCode(),
+            Opcode.PUSH1.getCode(), 0x18,
+            Opcode.JUMPI.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.ADD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode(),
+            Opcode.JUMPDEST.getCode(),      // 0x18
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    // storage[1] = 42, then revert
+    private static final byte[] REVERTING_CODE = {
+            Opcode.PUSH1.getCode(), 0x2A,
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.REVERT.getCode()
+    };
+
+    private static Blockchain newState() {
+        Blockchain blockchain = BlockChainFactory.createMockStateDB();
+        blockchain.registerContract(COUNTER, COUNTER_CODE);
+        blockchain.registerContract(REVERTING, REVERTING_CODE);
+        return blockchain;
+    }
+
+    private static long increment(SEVM sevm) {
+        EVMResult result = sevm.executeTransaction(ORIGIN, COUNTER, new byte[0], 0, 100000);
+        assertTrue(result.isSuccess());
+        return NumUtils.bytesToLong(result.getReturnData());
+    }
+
+    private static long read(SEVM sevm) {
+        EVMResult result = sevm.staticCall(ORIGIN, COUNTER, new byte[]{1}, 100000);
+        assertTrue(result.isSuccess());
+        return NumUtils.bytesToLong(result.getReturnData());
+    }
+
+    @Test
+    @DisplayName("同一個引擎連續執行交易時重用 context、entry frame 與 stack")
+    void testContextIsReused() {
+        SEVM sevm = new SEVM(newState());
+        assertEquals(1, increment(sevm));
+        EVMContext context = sevm.getContext();
+        CallFrame entryFrame = context.getCurrentFrame();
+
+        for (int i = 2; i <= 50; i++) {
+            assertEquals(i, increment(sevm));
+            assertSame(context, sevm.getContext());
+            assertSame(entryFrame, sevm.getContext().getCurrentFrame());
+            assertSame(entryFrame.getStack(), sevm.getStack());
+        }
+        assertEquals(50, read(sevm));
+        assertSame(entryFrame, sevm.getContext().getCurrentFrame());
+        assertEquals(1, sevm.getContext().getCallStack().size());
+    }
+
+    @Test
+    @DisplayName("重用的引擎不保留上一筆交易的 storage cache、static 狀態與 revert 狀態")
+    void testNoStateLeaksBetweenTransactions() {
+        Blockchain blockchain = newState();
+        SEVM sevm = new SEVM(blockchain);
+        assertEquals(1, increment(sevm));
+
+        // a write made outside the engine is seen by its next transaction
+        blockchain.setStorage(COUNTER, 1, 100);
+        assertEquals(100, read(sevm));
+
+        // a static call does not leave the next transaction read-only
+        assertEquals(101, increment(sevm));
+
+        EVMResult reverted = sevm.executeTransaction(ORIGIN, REVERTING, new byte[0], 0, 100000);
+        assertTrue(reverted.isReverted());
+        assertEquals(0, blockchain.getStorage(REVERTING, 1));
+
+        assertEquals(102, increment(sevm));
+        assertFalse(sevm.getContext().getCurrentFrame().isReverted());
+        assertEquals(102, blockchain.getStorage(COUNTER, 1));
+    }
+
+    @Test
+    @DisplayName("reset() 後引擎回到閒置狀態，之前的結果仍然有效")
+    void testReset() {
+        SEVM sevm = new SEVM(newState());
+        EVMResult first = sevm.executeTransaction(ORIGIN, COUNTER, new byte[0], 0, 100000);
+        CallFrame entryFrame = sevm.getContext().getCurrentFrame();
+
+        sevm.reset();
+        assertEquals(0, sevm.getTotalGasUsed());
+        assertEquals(0, sevm.getStack().size());
+        assertEquals(1, NumUtils.bytesToLong(first.getReturnData()));
+
+        assertEquals(2, increment(sevm));
+        assertSame(entryFrame, sevm.getContext().getCurrentFrame());
+    }
+
+    @Test
+    @DisplayName("重用的引擎在穩定狀態下每次呼叫幾乎不配置記憶體")
+    void testSteadyStateAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        PersistentBlockChain blockchain = BlockChainFactory.createPersistentStateDB();
+        blockchain.registerContract(COUNTER, COUNTER_CODE);
+        SEVM sevm = new SEVM(blockchain);
+        byte[] callData = {1};
+
+        // warm up: engine structures, decoded and compiled code, JIT-compiled engine
+        for (int i = 0; i < 20_000; i++) {
+            sevm.staticCall(ORIGIN, COUNTER, callData, 100000);
+        }
+        int calls = 10_000;
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < calls; i++) {
+            sevm.staticCall(ORIGIN, COUNTER, callData, 100000);
+        }
+        long perCall = (threads.getThreadAllocatedBytes(thread) - before) / calls;
+        assertTrue(perCall <= MAX_BYTES_PER_CALL, "allocated " + perCall + " bytes per call");
+    }
+}
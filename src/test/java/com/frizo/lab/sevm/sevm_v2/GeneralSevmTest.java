@@ -23,7 +23,8 @@ public class GeneralSevmTest {
         EVMResult result = sevm.executeTransaction(origin, contractAddress, bytecode, 0, 1000000);
         System.out.println("EVM Result: " + result);
         assertTrue(result.isSuccess());
-        assertEquals(999976, result.getGasRemaining());
+        // 24 static gas + 9 memory expansion gas (MSTORE at offset 16 -> 3 words)
+        assertEquals(999967, result.getGasRemaining());
         assertEquals(NumUtils.bytesToHex(new byte[]{0, 0, 0, 0, 0, 0, 0, 58}), NumUtils.bytesToHex(result.getReturnData()));
     }
 
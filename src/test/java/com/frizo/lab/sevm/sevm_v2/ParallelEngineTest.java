@@ -0,0 +1,141 @@
+package com.frizo.lab.sevm.sevm_v2;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.impl.MockBlockChain;
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.blockchain.state.WorldState;
+import com.frizo.lab.sevm.code.CodeStore;
+import com.frizo.lab.sevm.code.DecodedCode;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelEngineTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+    private static final Address COUNTER = Address.of("0x0A0A0A0A0A0A0A01");
+    private static final int ENGINES = 8;
+    private static final int TRANSACTIONS = 30;
+
+    // storage[1] += 1, return storage[1]
+    private static final byte[] COUNTER_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.ADD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    /**
+     * Run {@link #TRANSACTIONS} counter increments on each of {@link #ENGINES} engines at once.
+     *
+     * @return the state of every engine afterwards.
+     */
+    private static List<Blockchain> runInParallel(Supplier<Blockchain> stateOfEngine) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ENGINES);
+        try {
+            List<Future<Blockchain>> results = new ArrayList<>();
+            for (int i = 0; i < ENGINES; i++) {
+                Blockchain blockchain = stateOfEngine.get();
+                results.add(executor.submit(() -> {
+                    SEVM sevm = new SEVM(blockchain);
+                    for (int n = 0; n < TRANSACTIONS; n++) {
+                        EVMResult result = sevm.executeTransaction(ORIGIN, COUNTER, new byte[0], 0, 100000);
+                        assertTrue(result.isSuccess());
+                    }
+                    return blockchain;
+                }));
+            }
+            List<Blockchain> states = new ArrayList<>();
+            for (Future<Blockchain> result : results) {
+                states.add(result.get());
+            }
+            return states;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("每個引擎有自己的 mock state，並行執行互不干擾")
+    void testEnginesWithOwnState() throws Exception {
+        List<Blockchain> states = runInParallel(() -> {
+            Blockchain blockchain = BlockChainFactory.createMockStateDB();
+            blockchain.registerContract(COUNTER, COUNTER_CODE);
+            return blockchain;
+        });
+
+        for (Blockchain blockchain : states) {
+            assertEquals(TRANSACTIONS, blockchain.getStorage(COUNTER, 1));
+        }
+        assertNotSame(states.get(0), states.get(1));
+    }
+
+    @Test
+    @DisplayName("多個引擎從同一個唯讀 snapshot fork，寫入不影響 snapshot")
+    void testEnginesOnSharedSnapshot() throws Exception {
+        PersistentBlockChain base = BlockChainFactory.createPersistentStateDB();
+        base.registerContract(COUNTER, COUNTER_CODE);
+        base.setStorage(COUNTER, 1, 100);
+        WorldState snapshot = base.getState();
+
+        List<Blockchain> states = runInParallel(() -> new PersistentBlockChain(snapshot));
+
+        for (Blockchain blockchain : states) {
+            assertEquals(100 + TRANSACTIONS, blockchain.getStorage(COUNTER, 1));
+        }
+        assertEquals(100, snapshot.storage(COUNTER, 1));
+    }
+
+    @Test
+    @DisplayName("mock state 的 code 分析結果 (decoded code、JIT profile) 由其 CodeStore 持有, 不被其他 state 共用, 移除後即釋放")
+    void testCodeAnalysisIsOwnedByState() {
+        MockBlockChain state = BlockChainFactory.createMockStateDB();
+        state.registerContract(COUNTER, COUNTER_CODE);
+        SEVM sevm = new SEVM(state);
+        for (int n = 0; n < TRANSACTIONS; n++) {
+            assertTrue(sevm.executeTransaction(ORIGIN, COUNTER, new byte[0], 0, 100000).isSuccess());
+        }
+
+        CodeStore codeStore = state.getCodeStore();
+        CodeStore.Entry entry = codeStore.entryOf(COUNTER);
+        DecodedCode decoded = state.loadDecodedCode(COUNTER);
+        assertSame(entry.getDecodedCode(), decoded);
+        assertEquals(1, entry.getReferences());
+
+        MockBlockChain other = BlockChainFactory.createMockStateDB();
+        other.registerContract(COUNTER, COUNTER_CODE);
+        assertNotSame(decoded, other.loadDecodedCode(COUNTER));
+
+        int codes = codeStore.uniqueCodeCount();
+        codeStore.remove(COUNTER);
+        assertEquals(0, entry.getReferences());
+        assertNull(codeStore.entryOf(COUNTER));
+        assertEquals(codes - 1, codeStore.uniqueCodeCount());
+    }
+}
@@ -0,0 +1,79 @@
+package com.frizo.lab.sevm.sevm_v2;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.impl.MockBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotRevertTest {
+
+    private static final byte[] REVERTING_INIT_CODE = {
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.REVERT.getCode()
+    };
+
+    // returns 8 bytes of runtime code
+    private static final byte[] INIT_CODE = {
+            Opcode.PUSH1.getCode(), 0x2A,
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.RETURN.getCode()
+    };
+
+    @Test
+    @DisplayName("合約建立失敗時還原 nonce、新帳戶與轉帳")
+    void testFailedCreationLeavesNoState() {
+        SEVM sevm = new SEVM();
+        Address caller = Address.of("0x0222222222222222");
+        Address contract = Address.of("0x0C0C0C0C0C0C0C01");
+        Blockchain blockchain = BlockChainFactory.getMockStateDB();
+        long balance = blockchain.balance(caller);
+        int nonce = blockchain.getNonce(caller);
+
+        EVMResult failed = sevm.create(caller, contract, REVERTING_INIT_CODE, 1000, 100000);
+
+        assertFalse(failed.isSuccess());
+        assertEquals(balance, blockchain.balance(caller));
+        assertEquals(nonce, blockchain.getNonce(caller));
+        assertEquals(0, blockchain.getNonce(contract));
+        assertEquals(0, blockchain.balance(contract));
+
+        // nothing left behind, the address can still be created
+        EVMResult created = sevm.create(caller, contract, INIT_CODE, 1000, 1000000);
+        assertTrue(created.isSuccess());
+        assertEquals(balance - 1000, blockchain.balance(caller));
+        assertEquals(nonce + 1, blockchain.getNonce(caller));
+    }
+
+    @Test
+    @DisplayName("巢狀 snapshot 只還原之後的變更")
+    void testNestedSnapshots() {
+        MockBlockChain blockchain = new MockBlockChain();
+        Address contract = Address.of("0x0C0C0C0C0C0C0C02");
+
+        long outer = blockchain.takeSnapshot();
+        blockchain.setStorage(contract, 1, 10);
+        long inner = blockchain.takeSnapshot();
+        blockchain.setStorage(contract, 1, 20);
+        blockchain.setStorage(contract, 2, 30);
+
+        blockchain.revertToSnapshot(inner);
+        assertEquals(10, blockchain.getStorage(contract, 1));
+        assertEquals(0, blockchain.getStorage(contract, 2));
+
+        blockchain.revertToSnapshot(outer);
+        assertEquals(0, blockchain.getStorage(contract, 1));
+        assertEquals(outer, blockchain.takeSnapshot());
+        assertThrows(IllegalArgumentException.class, () -> blockchain.revertToSnapshot(inner));
+    }
+}
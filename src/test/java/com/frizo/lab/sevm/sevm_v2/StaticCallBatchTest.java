@@ -0,0 +1,115 @@
+package com.frizo.lab.sevm.sevm_v2;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.utils.NumUtils;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import com.frizo.lab.sevm.vm.StaticCallRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaticCallBatchTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+    private static final Address LOOP = Address.of("0x0A0A0A0A0A0A0E00");
+
+    // return storage[1]
+    private static final byte[] GETTER_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    // loop until out of gas
+    private static final byte[] LOOP_CODE = {
+            Opcode.JUMPDEST.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.JUMP.getCode()
+    };
+
+    private static Address getter(int i) {
+        return Address.of(0x0A0A0A0A0A0A0E01L + i);
+    }
+
+    private static PersistentBlockChain withGetters(int count) {
+        PersistentBlockChain state = BlockChainFactory.createPersistentStateDB();
+        for (int i = 0; i < count; i++) {
+            state.registerContract(getter(i), GETTER_CODE);
+            state.setStorage(getter(i), 1, 1000 + i);
+        }
+        state.registerContract(LOOP, LOOP_CODE);
+        return state;
+    }
+
+    @Test
+    @DisplayName("批次 static call 並行執行，結果依照請求順序回傳")
+    void testResultsInRequestOrder() {
+        PersistentBlockChain state = withGetters(10);
+        List<StaticCallRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            requests.add(new StaticCallRequest(ORIGIN, getter(i * 7 % 10), new byte[0], 100000));
+        }
+
+        List<EVMResult> results = new SEVM(state).staticCallBatch(requests);
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals(1000 + i * 7 % 10, NumUtils.bytesToLong(results.get(i).getReturnData()));
+        }
+    }
+
+    @Test
+    @DisplayName("單一呼叫失敗或逾時不影響其他呼叫")
+    void testFailuresAndTimeouts() {
+        PersistentBlockChain state = withGetters(1);
+        List<EVMResult> results = new SEVM(state).staticCallBatch(List.of(
+                new StaticCallRequest(ORIGIN, LOOP, new byte[0], 50_000_000, Duration.ZERO),
+                new StaticCallRequest(ORIGIN, Address.of("0x0A0A0A0A0A0A0EFF"), new byte[0], 100000),
+                new StaticCallRequest(ORIGIN, LOOP, new byte[0], 1000),
+                new StaticCallRequest(ORIGIN, getter(0), new byte[0], 100000, Duration.ofSeconds(30))
+        ));
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getMsg().contains("timed out"));
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(3).isSuccess());
+        assertEquals(1000, NumUtils.bytesToLong(results.get(3).getReturnData()));
+    }
+
+    @Test
+    @DisplayName("mock state 上的批次呼叫與逐一 staticCall 結果相同")
+    void testMatchesSequentialOnMockState() {
+        Blockchain blockchain = BlockChainFactory.createMockStateDB();
+        for (int i = 0; i < 4; i++) {
+            blockchain.registerContract(getter(i), GETTER_CODE);
+            blockchain.setStorage(getter(i), 1, 2000 + i);
+        }
+        SEVM sevm = new SEVM(blockchain);
+        List<StaticCallRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            requests.add(new StaticCallRequest(ORIGIN, getter(i % 4), new byte[0], 100000));
+        }
+
+        List<EVMResult> results = sevm.staticCallBatch(requests);
+        for (int i = 0; i < requests.size(); i++) {
+            EVMResult expected = sevm.staticCall(ORIGIN, requests.get(i).getTo(), new byte[0], 100000);
+            assertArrayEquals(expected.getReturnData(), results.get(i).getReturnData());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.frizo.lab.sevm.sevm_v2;
+
+import com.frizo.lab.sevm.blockchain.Blockchain;
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.utils.NumUtils;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StoragePersistenceTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+
+    // storage[1] += 1, return storage[1]
+    private static final byte[] COUNTER_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.ADD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    @Test
+    @DisplayName("合約 storage 在交易之間保留")
+    void testStoragePersistsAcrossTransactions() {
+        Blockchain blockchain = BlockChainFactory.getMockStateDB();
+        Address counter = Address.of("0x0B0B0B0B0B0B0B01");
+        blockchain.registerContract(counter, COUNTER_CODE);
+
+        SEVM sevm = new SEVM();
+        EVMResult first = sevm.executeTransaction(ORIGIN, counter, new byte[0], 0, 100000);
+        EVMResult second = sevm.executeTransaction(ORIGIN, counter, new byte[0], 0, 100000);
+
+        assertTrue(second.isSuccess());
+        assertEquals(1L, NumUtils.bytesToLong(first.getReturnData()));
+        assertEquals(2L, NumUtils.bytesToLong(second.getReturnData()));
+        assertEquals(2L, blockchain.getStorage(counter, 1));
+    }
+
+    @Test
+    @DisplayName("被呼叫的合約 revert 時丟棄它的 storage 寫入，成功時保留")
+    void testRevertedCalleeStorageDropped() {
+        Blockchain blockchain = BlockChainFactory.getMockStateDB();
+        Address caller = Address.of("0x0B0B0B0B0B0B0B02");
+        Address reverting = Address.of("0x0B0B0B0B0B0B0B03");
+        Address succeeding = Address.of("0x0B0B0B0B0B0B0B04");
+
+        blockchain.registerContract(reverting, new byte[]{
+                Opcode.PUSH1.getCode(), 0x09,
+                Opcode.PUSH1.getCode(), 0x02,
+                Opcode.SSTORE.getCode(),        // storage[2] = 9
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.PUSH1.getCode(), 0x00,
+                Opcode.REVERT.getCode()
+        });
+        blockchain.registerContract(succeeding, new byte[]{
+                Opcode.PUSH1.getCode(), 0x07,
+                Opcode.PUSH1.getCode(), 0x03,
+                Opcode.SSTORE.getCode(),        // storage[3] = 7
+                Opcode.STOP.getCode()
+        });
+        blockchain.registerContract(caller, concat(
+                new byte[]{
+                        Opcode.PUSH1.getCode(), 0x05,
+                        Opcode.PUSH1.getCode(), 0x01,
+                        Opcode.SSTORE.getCode()     // storage[1] = 5
+                },
+                call(reverting),
+                call(succeeding),
+                new byte[]{Opcode.STOP.getCode()}
+        ));
+
+        EVMResult result = new SEVM().executeTransaction(ORIGIN, caller, new byte[0], 0, 200000);
+
+        assertTrue(result.isSuccess());
+        assertEquals(5L, blockchain.getStorage(caller, 1));
+        assertEquals(0L, blockchain.getStorage(reverting, 2));
+        assertEquals(7L, blockchain.getStorage(succeeding, 3));
+    }
+
+    // CALL [gas, address, value, argsOffset, argsSize, retOffset, retSize], drops the success flag
+    private static byte[] call(Address target) {
+        return concat(
+                new byte[]{
+                        Opcode.PUSH1.getCode(), 0x00,
+                        Opcode.PUSH1.getCode(), 0x00,
+                        Opcode.PUSH1.getCode(), 0x00,
+                        Opcode.PUSH1.getCode(), 0x00,
+                        Opcode.PUSH1.getCode(), 0x00,
+                        Opcode.PUSH8.getCode()
+                },
+                target.getAddressBytes(),
+                new byte[]{
+                        Opcode.PUSH3.getCode(), 0x01, 0x00, 0x00,
+                        Opcode.CALL.getCode(),
+                        Opcode.POP.getCode()
+                });
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+}
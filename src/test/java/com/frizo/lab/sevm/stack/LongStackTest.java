@@ -0,0 +1,67 @@
+package com.frizo.lab.sevm.stack;
+
+import com.frizo.lab.sevm.common.Constant;
+import com.frizo.lab.sevm.exception.EVMException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongStackTest {
+
+    @Test
+    void testPushPopPeek() {
+        LongStack stack = new LongStack(Constant.MAX_STACK_DEPTH);
+        stack.pushLong(1);
+        stack.pushLong(2);
+        stack.pushLong(3);
+
+        assertEquals(3, stack.peekLong(0));
+        assertEquals(1, stack.peekLong(2));
+        // same order as Stack64Bit: index 0 is the top
+        assertEquals(2L, stack.get(1));
+        assertEquals(3, stack.popLong());
+        assertEquals(2, stack.size());
+    }
+
+    @Test
+    void testDupAndSwap() {
+        LongStack stack = new LongStack(Constant.MAX_STACK_DEPTH);
+        for (int i = 1; i <= 17; i++) {
+            stack.pushLong(i);
+        }
+
+        stack.swap(16); // SWAP16
+        assertEquals(1, stack.peekLong(0));
+        assertEquals(17, stack.peekLong(16));
+
+        stack.dup(16); // DUP16
+        assertEquals(18, stack.size());
+        assertEquals(stack.peekLong(16), stack.peekLong(0));
+    }
+
+    @Test
+    void testBounds() {
+        LongStack stack = new LongStack(2);
+        assertThrows(RuntimeException.class, stack::popLong);
+        assertThrows(EVMException.StackUnderflowException.class, () -> stack.dup(1));
+
+        stack.pushLong(1);
+        assertThrows(EVMException.StackUnderflowException.class, () -> stack.swap(1));
+        stack.dup(1);
+        RuntimeException overflow = assertThrows(RuntimeException.class, () -> stack.pushLong(3));
+        assertEquals("Stack overflow", overflow.getMessage());
+    }
+
+    @Test
+    void testInPlaceArray() {
+        LongStack stack = new LongStack(Constant.MAX_STACK_DEPTH);
+        stack.pushLong(5);
+
+        long[] slots = stack.array();
+        slots[1] = 6;
+        stack.setSize(2);
+        assertEquals(6, stack.popLong());
+        assertEquals(5, stack.popLong());
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.setSize(Constant.MAX_STACK_DEPTH + 1));
+    }
+}
@@ -0,0 +1,72 @@
+package com.frizo.lab.sevm.storage;
+
+import com.frizo.lab.sevm.blockchain.impl.MockBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameStorageTest {
+
+    private static final Address A = Address.of("0x0A0A0A0A0A0A0A01");
+    private static final Address B = Address.of("0x0A0A0A0A0A0A0A02");
+
+    @Test
+    void testCalleeWritesFoldIntoCaller() {
+        TransactionStorage transaction = new TransactionStorage(new MockBlockChain());
+        FrameStorage caller = new FrameStorage(transaction, null, () -> A);
+        caller.put(1L, 8, 10L);
+
+        FrameStorage callee = new FrameStorage(transaction, caller, () -> B);
+        callee.put(1L, 8, 20L);
+        // a reentrant frame of A sees and overwrites the caller's uncommitted value
+        FrameStorage reentrant = new FrameStorage(transaction, callee, () -> A);
+        assertEquals(10L, reentrant.get(1L, 8));
+        reentrant.put(1L, 8, 11L);
+        reentrant.commit();
+        callee.commit();
+
+        assertEquals(11L, caller.get(1L, 8));
+        assertEquals(20L, transaction.load(B, 1));
+
+        // reverting the caller now undoes everything, back to the values before the caller's first write
+        caller.revert();
+        assertEquals(0L, transaction.load(A, 1));
+        assertEquals(0L, transaction.load(B, 1));
+    }
+
+    @Test
+    void testRevertedCalleeDropsNestedWrites() {
+        TransactionStorage transaction = new TransactionStorage(new MockBlockChain());
+        FrameStorage caller = new FrameStorage(transaction, null, () -> A);
+        caller.put(2L, 8, 1L);
+
+        FrameStorage callee = new FrameStorage(transaction, caller, () -> B);
+        FrameStorage nested = new FrameStorage(transaction, callee, () -> A);
+        nested.put(2L, 8, 2L);
+        nested.commit();
+        callee.revert();
+
+        assertEquals(1L, caller.get(2L, 8));
+    }
+
+    @Test
+    void testCommitFlushesWrittenSlots() {
+        MockBlockChain worldState = new MockBlockChain();
+        Address contract = Address.of("0x0A0A0A0A0A0A0A03");
+        TransactionStorage transaction = new TransactionStorage(worldState);
+        FrameStorage frame = new FrameStorage(transaction, null, () -> contract);
+        frame.put(5L, 8, 55L);
+        assertTrue(transaction.isCached(contract, 5));
+        assertEquals(0L, worldState.getStorage(contract, 5));
+
+        frame.commit();
+        transaction.commit();
+        assertEquals(55L, worldState.getStorage(contract, 5));
+
+        // the next transaction reads the committed value
+        TransactionStorage next = new TransactionStorage(worldState);
+        assertFalse(next.isCached(contract, 5));
+        assertEquals(55L, next.load(contract, 5));
+    }
+}
@@ -0,0 +1,71 @@
+package com.frizo.lab.sevm.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotStorageTest {
+
+    @Test
+    void testSlotsDoNotOverlap() {
+        SlotStorage storage = new SlotStorage();
+        storage.put(1L, 8, 0x0102030405060708L);
+        storage.put(2L, 8, 42L);
+
+        assertEquals(0x0102030405060708L, storage.get(1L, 8));
+        assertEquals(42L, storage.get(2L, 8));
+        assertEquals(0L, storage.get(3L, 8));
+    }
+
+    @Test
+    void testNarrowAccessUsesLeadingBytes() {
+        SlotStorage storage = new SlotStorage();
+        storage.put(0L, 8, 0x0102030405060708L);
+
+        assertEquals(0x01020304L, storage.get(0L, 4));
+        assertEquals((byte) 0x01, storage.get(0L));
+
+        storage.put(0L, 2, 0xAABBL);
+        assertEquals(0xAABB030405060708L, storage.get(0L, 8));
+    }
+
+    @Test
+    void testStoringZeroRemovesSlot() {
+        SlotStorage storage = new SlotStorage();
+        storage.put(-5L, 8, 7L);
+        assertTrue(storage.containsKey(-5L));
+
+        storage.put(-5L, 8, 0L);
+        assertFalse(storage.containsKey(-5L));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    void testHashMapAgainstReference() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(7);
+
+        // small key range so that puts, overwrites and removes collide in the same probe runs
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(512) - 16;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key) != null, map.remove(key));
+            } else {
+                long value = random.nextLong();
+                map.put(key, value);
+                reference.put(key, value);
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        for (long key = -16; key < 512; key++) {
+            assertEquals(reference.containsKey(key), map.containsKey(key));
+            assertEquals(reference.getOrDefault(key, -1L), map.get(key, -1L));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.frizo.lab.sevm.vm;
+
+import com.frizo.lab.sevm.blockchain.impl.BlockChainFactory;
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.utils.NumUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticCallBatchTimeoutTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+    private static final Address LOOP = Address.of("0x0A0A0A0A0A0A1001");
+    private static final Address GETTER = Address.of("0x0A0A0A0A0A0A1002");
+
+    // loop until out of gas
+    private static final byte[] LOOP_CODE = {
+            Opcode.JUMPDEST.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.JUMP.getCode()
+    };
+
+    // return storage[1]
+    private static final byte[] GETTER_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    @Test
+    void testTimeoutStartsWhenCallIsTaken() {
+        PersistentBlockChain state = BlockChainFactory.createPersistentStateDB();
+        state.registerContract(LOOP, LOOP_CODE);
+        state.registerContract(GETTER, GETTER_CODE);
+        state.setStorage(GETTER, 1, 77);
+        Duration timeout = Duration.ofMillis(20);
+
+        // one worker: the getter waits behind the loop for longer than its own timeout
+        long start = System.nanoTime();
+        List<EVMResult> results = StaticCallBatch.run(state, List.of(
+                new StaticCallRequest(ORIGIN, LOOP, new byte[0], 1_000_000_000L),
+                new StaticCallRequest(ORIGIN, GETTER, new byte[0], 100000, timeout)
+        ), 1);
+        assertTrue(System.nanoTime() - start > timeout.toNanos());
+
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(77, NumUtils.bytesToLong(results.get(1).getReturnData()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.frizo.lab.sevm.vm.block;
+
+import com.frizo.lab.sevm.blockchain.impl.PersistentBlockChain;
+import com.frizo.lab.sevm.common.Address;
+import com.frizo.lab.sevm.op.Opcode;
+import com.frizo.lab.sevm.utils.NumUtils;
+import com.frizo.lab.sevm.vm.EVMResult;
+import com.frizo.lab.sevm.vm.SEVM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockExecutorTest {
+
+    private static final Address ORIGIN = Address.of("0x1234567890abcdef");
+
+    // storage[1] += 1, return storage[1]
+    private static final byte[] COUNTER_CODE = {
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.ADD.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x01,
+            Opcode.SLOAD.getCode(),
+            Opcode.PUSH1.getCode(), 0x00,
+            Opcode.MSTORE.getCode(),
+            Opcode.PUSH1.getCode(), 0x08,   // size
+            Opcode.PUSH1.getCode(), 0x00,   // offset
+            Opcode.RETURN.getCode()
+    };
+
+    private static Address counter(int i) {
+        return Address.of(0x0A0A0A0A0A0A0000L + i);
+    }
+
+    private static PersistentBlockChain withCounters(int count) {
+        PersistentBlockChain state = new PersistentBlockChain();
+        for (int i = 0; i < count; i++) {
+            state.registerContract(counter(i), COUNTER_CODE);
+        }
+        return state;
+    }
+
+    private static Transaction call(Address to) {
+        return new Transaction(ORIGIN, to, new byte[0], 0, 100000);
+    }
+
+    @Test
+    void testDisjointTransactionsRunInOneWave() {
+        PersistentBlockChain state = withCounters(16);
+        List<Transaction> block = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            block.add(call(counter(i)));
+        }
+
+        BlockResult result;
+        try (BlockExecutor executor = new BlockExecutor(4)) {
+            result = executor.execute(state, block);
+        }
+
+        assertEquals(1, result.getWaves());
+        assertEquals(16, result.getExecutionCount());
+        for (int i = 0; i < 16; i++) {
+            assertTrue(result.getResults().get(i).isSuccess());
+            assertEquals(1, state.getStorage(counter(i), 1));
+        }
+    }
+
+    @Test
+    void testConflictingTransactionsCommitInBlockOrder() {
+        PersistentBlockChain state = withCounters(1);
+        List<Transaction> block = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            block.add(call(counter(0)));
+        }
+
+        BlockResult result;
+        try (BlockExecutor executor = new BlockExecutor(4)) {
+            result = executor.execute(state, block);
+        }
+
+        // each increment sees every earlier one, as if run sequentially
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + 1, NumUtils.bytesToLong(result.getResults().get(i).getReturnData()));
+        }
+        assertEquals(20, state.getStorage(counter(0), 1));
+        assertTrue(result.getExecutionCount() >= 20);
+    }
+
+    @Test
+    void testMatchesSequentialExecution() {
+        PersistentBlockChain parallel = withCounters(5);
+        PersistentBlockChain sequential = parallel.fork();
+        List<Transaction> block = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            // mostly disjoint, every fifth transaction hits counter 0
+            block.add(call(counter(i % 5 == 0 ? 0 : i % 4 + 1)));
+        }
+
+        BlockResult result;
+        try (BlockExecutor executor = new BlockExecutor(4)) {
+            result = executor.execute(parallel, block);
+        }
+        SEVM sevm = new SEVM(sequential);
+        for (int i = 0; i < block.size(); i++) {
+            EVMResult expected = sevm.executeTransaction(ORIGIN, block.get(i).getTo(), new byte[0], 0, 100000);
+            assertArrayEquals(expected.getReturnData(), result.getResults().get(i).getReturnData());
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(sequential.getStorage(counter(i), 1), parallel.getStorage(counter(i), 1));
+        }
+    }
+}